@@ -0,0 +1,115 @@
+package cs455.scaling.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An ExecutorBenchmark class running the work of ThreadPoolBenchmark through the
+ * java.util.concurrent executors, as a baseline for the ThreadPoolManager figures.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExecutorBenchmark
+{
+    /**
+     * Number of tasks submitted per batch, as in ThreadPoolBenchmark
+     */
+    private static final int BATCH = 1024;
+
+    /**
+     * Executor under test
+     */
+    @Param({"fixed-executor", "fork-join"})
+    public String pool;
+
+    /**
+     * Number of worker threads
+     */
+    @Param({"4"})
+    public int threads;
+
+    /**
+     * ExecutorService under test
+     */
+    private ExecutorService executor;
+
+
+    /**
+     * Method to start the executor under test
+     *
+     * @throws IllegalArgumentException if the pool name is not an executor.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        if (pool.equals("fixed-executor"))
+            executor = Executors.newFixedThreadPool(threads);
+        else if (pool.equals("fork-join"))
+            executor = new ForkJoinPool(threads);
+        else
+            throw new IllegalArgumentException("Unknown executor: " + pool);
+    }
+
+    /**
+     * Method to stop the executor under test
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Throughput of tasks submitted by one thread, counted once the whole batch has run
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public void executeThroughput() throws InterruptedException
+    {
+        CountDownLatch done = new CountDownLatch(BATCH);
+
+        for (int i = 0; i < BATCH; ++i)
+            executor.execute(new ThreadPoolBenchmark.LatchTask(done));
+
+        done.await();
+    }
+
+    /**
+     * Time from handing a single task to an idle executor to the task having run
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void executeLatency() throws InterruptedException
+    {
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(new ThreadPoolBenchmark.LatchTask(done));
+
+        done.await();
+    }
+}
@@ -0,0 +1,111 @@
+package cs455.scaling.benchmark;
+
+import cs455.scaling.utility.HashUtil;
+import cs455.scaling.utility.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A HashBenchmark class measuring the SHA1 hashing of a message for each payload size, through
+ * Util.SHA1FromBytes as the original code called it and through the HashUtil calls the server uses.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HashBenchmark
+{
+    /**
+     * Number of bytes hashed
+     */
+    @Param({"64", "1024", "8192", "65536"})
+    public int payloadSize;
+
+    /**
+     * Payload as an array
+     */
+    private byte[] payload;
+
+    /**
+     * Payload in a direct buffer, as it sits in a pooled read buffer
+     */
+    private ByteBuffer directPayload;
+
+    /**
+     * Array the hex digest is written to
+     */
+    private byte[] hex;
+
+    /**
+     * Direct buffer the hex digest is written to, as a pooled response buffer
+     */
+    private ByteBuffer directHex;
+
+
+    /**
+     * Method to fill the payload with random bytes
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        payload = new byte[payloadSize];
+        new Random(42).nextBytes(payload);
+
+        directPayload = ByteBuffer.allocateDirect(payloadSize);
+        directPayload.put(payload).flip();
+
+        hex = new byte[HashUtil.HEX_DIGEST_LENGTH];
+        directHex = ByteBuffer.allocateDirect(HashUtil.HEX_DIGEST_LENGTH);
+    }
+
+    /**
+     * Hex digest as a String, allocating the result
+     */
+    @Benchmark
+    public String sha1FromBytes() throws NoSuchAlgorithmException
+    {
+        return Util.SHA1FromBytes(payload);
+    }
+
+    /**
+     * Hex digest written into a reused array
+     */
+    @Benchmark
+    public byte[] digestHexIntoArray()
+    {
+        HashUtil.digestHex(payload, 0, payload.length, hex, 0);
+
+        return hex;
+    }
+
+    /**
+     * Hex digest of a direct buffer written into a reused direct buffer, as ReadTask does
+     */
+    @Benchmark
+    public ByteBuffer digestHexDirectBuffer()
+    {
+        directHex.clear();
+        HashUtil.digestHex(directPayload.duplicate(), directHex);
+
+        return directHex;
+    }
+}
@@ -0,0 +1,209 @@
+package cs455.scaling.benchmark;
+
+import cs455.scaling.server.Server;
+import cs455.scaling.threadpool.ThreadPoolConfig;
+import cs455.scaling.threadpool.ThreadPoolManager;
+import cs455.scaling.utility.HashUtil;
+import cs455.scaling.utility.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A LoopbackRoundTripBenchmark class measuring a whole message round trip through an in-process
+ * server: the selector dispatching a ReadTask, the hash being computed, the selector dispatching a
+ * WriteTask and the hash arriving back, all over loopback.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoopbackRoundTripBenchmark
+{
+    /**
+     * Dispatch mode of the server's pool
+     */
+    @Param({"managed", "queue", "stealing", "affinity", "fair", "ring"})
+    public String dispatch;
+
+    /**
+     * Number of worker threads
+     */
+    @Param({"4"})
+    public int threads;
+
+    /**
+     * Port the server listens on
+     */
+    private int port;
+
+
+    /**
+     * Method to start a server on a free port. The server is built and run on a daemon thread,
+     * so its pool threads are daemons too and go away with the forked JVM.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        ServerSocket probe = new ServerSocket(0);
+        port = probe.getLocalPort();
+        probe.close();
+
+        final ThreadPoolConfig config = new ThreadPoolConfig(threads);
+        config.setDispatchMode(dispatch.equals("queue") ? ThreadPoolManager.QUEUE_DISPATCH
+                : dispatch.equals("stealing") ? ThreadPoolManager.STEALING_DISPATCH
+                : dispatch.equals("affinity") ? ThreadPoolManager.AFFINITY_DISPATCH
+                : dispatch.equals("fair") ? ThreadPoolManager.FAIR_DISPATCH
+                : dispatch.equals("ring") ? ThreadPoolManager.RING_DISPATCH
+                : ThreadPoolManager.MANAGED_DISPATCH);
+
+        Thread serverThread = new Thread("Server")
+        {
+            @Override
+            public void run()
+            {
+                Server server = new Server(port, config, 0);
+                server.setStatsInterval(0);
+                server.run();
+            }
+        };
+
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        // wait for the server to be listening
+        for (int attempt = 0; attempt < 100; ++attempt)
+        {
+            try
+            {
+                SocketChannel.open(new InetSocketAddress("localhost", port)).close();
+                return;
+            }
+            catch (IOException ioe)
+            {
+                Thread.sleep(50);
+            }
+        }
+
+        throw new IOException("Server did not start on port " + port);
+    }
+
+    /**
+     * A ClientConnection holding one blocking connection to the server per benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class ClientConnection
+    {
+        /**
+         * Blocking channel to the server
+         */
+        SocketChannel channel;
+
+        /**
+         * Message sent every round trip
+         */
+        ByteBuffer message;
+
+        /**
+         * Buffer the hex hash is read into
+         */
+        ByteBuffer response;
+
+
+        /**
+         * Method to connect to the server
+         */
+        @Setup(Level.Trial)
+        public void connect(LoopbackRoundTripBenchmark benchmark) throws IOException
+        {
+            channel = SocketChannel.open(new InetSocketAddress("localhost", benchmark.port));
+            channel.socket().setTcpNoDelay(true);
+
+            byte[] data = new byte[Util.BUFFER_SIZE];
+            new Random(Thread.currentThread().getId()).nextBytes(data);
+
+            // a first byte other than the handshake magic's keeps the connection on the hex protocol
+            data[0] = 0;
+
+            message = ByteBuffer.allocateDirect(data.length);
+            message.put(data).flip();
+
+            response = ByteBuffer.allocateDirect(HashUtil.HEX_DIGEST_LENGTH);
+        }
+
+        /**
+         * Method to close the connection
+         */
+        @TearDown(Level.Trial)
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Method to send one message and wait for its hash
+     *
+     * @param connection <code>ClientConnection</code> of this benchmark thread.
+     * @return <code>ByteBuffer</code> holding the hash.
+     */
+    private static ByteBuffer roundTrip(ClientConnection connection) throws IOException
+    {
+        connection.message.rewind();
+
+        while (connection.message.hasRemaining())
+            connection.channel.write(connection.message);
+
+        connection.response.clear();
+
+        while (connection.response.hasRemaining())
+        {
+            if (connection.channel.read(connection.response) < 0)
+                throw new IOException("Server closed the connection");
+        }
+
+        return connection.response;
+    }
+
+    /**
+     * Round trips per second, one connection per benchmark thread
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ByteBuffer roundTripThroughput(ClientConnection connection) throws IOException
+    {
+        return roundTrip(connection);
+    }
+
+    /**
+     * Distribution of the round trip time of a single message
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ByteBuffer roundTripLatency(ClientConnection connection) throws IOException
+    {
+        return roundTrip(connection);
+    }
+}
@@ -0,0 +1,142 @@
+package cs455.scaling.benchmark;
+
+import cs455.scaling.utility.OpsChangeRequest;
+import cs455.scaling.utility.concurrent.MpscQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A OpsChangeHandoffBenchmark class measuring the hand-off of interest op changes from worker
+ * threads to the selector thread: pooled requests through the lock-free queue the Reactor uses,
+ * against new requests through the synchronized list it used before.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpsChangeHandoffBenchmark
+{
+    /**
+     * Lock-free queue as drained by the Reactor
+     */
+    private MpscQueue<OpsChangeRequest> pendingChanges;
+
+    /**
+     * Synchronized list as drained by the original server loop
+     */
+    private LinkedList<OpsChangeRequest> lockedChanges;
+
+    /**
+     * Unconnected channel the requests refer to
+     */
+    private SocketChannel socket;
+
+
+    /**
+     * Method to create the queues
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        pendingChanges = new MpscQueue<OpsChangeRequest>();
+        lockedChanges = new LinkedList<OpsChangeRequest>();
+        socket = SocketChannel.open();
+    }
+
+    /**
+     * Method to close the channel
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        socket.close();
+    }
+
+    /**
+     * Workers posting pooled requests to the lock-free queue
+     */
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public void lockFreePost()
+    {
+        pendingChanges.offer(OpsChangeRequest.obtain(socket, OpsChangeRequest.CHANGEOPS, SelectionKey.OP_READ));
+    }
+
+    /**
+     * Selector thread draining the lock-free queue and recycling the requests
+     */
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public int lockFreeDrain()
+    {
+        int drained = 0;
+        OpsChangeRequest change;
+
+        while ((change = pendingChanges.poll()) != null)
+        {
+            drained += change.ops;
+            change.recycle();
+        }
+
+        return drained;
+    }
+
+    /**
+     * Workers posting new requests to the synchronized list
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public void lockedPost()
+    {
+        synchronized (lockedChanges)
+        {
+            lockedChanges.add(new OpsChangeRequest(socket, OpsChangeRequest.CHANGEOPS, SelectionKey.OP_READ));
+        }
+    }
+
+    /**
+     * Selector thread draining the synchronized list
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public int lockedDrain()
+    {
+        int drained = 0;
+
+        synchronized (lockedChanges)
+        {
+            OpsChangeRequest change;
+
+            while ((change = lockedChanges.poll()) != null)
+                drained += change.ops;
+        }
+
+        return drained;
+    }
+}
@@ -0,0 +1,134 @@
+package cs455.scaling.benchmark;
+
+import cs455.scaling.server.ServerClient;
+import cs455.scaling.threadpool.task.Protocol;
+import cs455.scaling.threadpool.task.ReadTask;
+import cs455.scaling.threadpool.task.TaskFactory;
+import cs455.scaling.threadpool.task.Taskable;
+import cs455.scaling.utility.OpsChangeRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A TaskFactoryBenchmark class measuring the cost of creating a task for every selector event,
+ * next to resetting a preallocated one as ring dispatch does. Run it with -prof gc to see the allocation rate and bytes per task.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskFactoryBenchmark
+{
+    /**
+     * Connected loopback channels, the server end registered with a selector for its key
+     */
+    private ServerSocketChannel serverSocketChannel;
+    private SocketChannel clientChannel;
+    private SocketChannel serverChannel;
+    private Selector selector;
+
+    /**
+     * SelectionKey the tasks are created for
+     */
+    private SelectionKey key;
+
+    /**
+     * ServerClient the tasks would post their changes to
+     */
+    private ServerClient serverClient;
+
+    /**
+     * Task reset for every event, as a RingTaskSource slot keeps
+     */
+    private final ReadTask readTask = new ReadTask();
+
+
+    /**
+     * Method to connect a loopback channel pair and register one end
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.socket().bind(new InetSocketAddress("localhost", 0));
+
+        clientChannel = SocketChannel.open(serverSocketChannel.socket().getLocalSocketAddress());
+        serverChannel = serverSocketChannel.accept();
+        serverChannel.configureBlocking(false);
+
+        selector = Selector.open();
+        key = serverChannel.register(selector, SelectionKey.OP_READ);
+
+        serverClient = new ServerClient()
+        {
+            @Override
+            public void addOpsChangeRequest(OpsChangeRequest opsChangeRequest)
+            {
+                opsChangeRequest.recycle();
+            }
+        };
+    }
+
+    /**
+     * Method to close the channels
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        selector.close();
+        serverChannel.close();
+        clientChannel.close();
+        serverSocketChannel.close();
+    }
+
+    /**
+     * Creating a read task, as the selector does for every readable key
+     */
+    @Benchmark
+    public Taskable createReadTask()
+    {
+        return TaskFactory.createTask(Protocol.READ_TASK, key, serverClient);
+    }
+
+    /**
+     * Creating a write task, as the selector does for every writable key
+     */
+    @Benchmark
+    public Taskable createWriteTask()
+    {
+        return TaskFactory.createTask(Protocol.WRITE_TASK, key, serverClient);
+    }
+
+    /**
+     * Resetting a preallocated read task, as ring dispatch does for every readable key
+     */
+    @Benchmark
+    public Taskable resetReadTask()
+    {
+        readTask.reset(key, serverClient);
+
+        return readTask;
+    }
+}
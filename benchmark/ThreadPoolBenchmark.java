@@ -0,0 +1,172 @@
+package cs455.scaling.benchmark;
+
+import cs455.scaling.threadpool.ThreadPoolConfig;
+import cs455.scaling.threadpool.ThreadPoolManager;
+import cs455.scaling.threadpool.task.Taskable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A ThreadPoolBenchmark class measuring how fast tasks get through the ThreadPoolManager in each
+ * of its dispatch modes and wait strategies. ExecutorBenchmark runs the same work through the
+ * java.util.concurrent executors, kept apart as they have no wait strategy to vary.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ThreadPoolBenchmark
+{
+    /**
+     * Number of tasks submitted per batch
+     */
+    private static final int BATCH = 1024;
+
+    /**
+     * Dispatch mode of the ThreadPoolManager under test
+     */
+    @Param({"managed", "queue", "stealing", "affinity", "fair", "ring"})
+    public String pool;
+
+    /**
+     * Number of worker threads
+     */
+    @Param({"4"})
+    public int threads;
+
+    /**
+     * WaitStrategy of the ThreadPoolManager's workers and dispatcher
+     */
+    @Param({"blocking", "park", "yield"})
+    public String wait;
+
+    /**
+     * ThreadPoolManager under test
+     */
+    private ThreadPoolManager threadPoolManager;
+
+
+    /**
+     * Method to start the pool under test
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        ThreadPoolConfig config = new ThreadPoolConfig(threads);
+        config.setDispatchMode(dispatchMode(pool));
+        config.setWaitStrategy(ThreadPoolConfig.parseWaitStrategy(wait, ThreadPoolConfig.DEFAULT_SPIN_COUNT));
+
+        threadPoolManager = new ThreadPoolManager(config);
+        threadPoolManager.start();
+    }
+
+    /**
+     * Method to stop the pool under test
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        threadPoolManager.halt();
+    }
+
+    /**
+     * Method to map a pool name to its dispatch mode
+     *
+     * @param pool <code>String</code> name of the dispatch mode.
+     * @return <code>int</code> of the ThreadPoolManager dispatch mode.
+     * @throws IllegalArgumentException if the name is not a dispatch mode.
+     */
+    private static int dispatchMode(String pool)
+    {
+        if (pool.equals("managed"))
+            return ThreadPoolManager.MANAGED_DISPATCH;
+        else if (pool.equals("queue"))
+            return ThreadPoolManager.QUEUE_DISPATCH;
+        else if (pool.equals("stealing"))
+            return ThreadPoolManager.STEALING_DISPATCH;
+        else if (pool.equals("affinity"))
+            return ThreadPoolManager.AFFINITY_DISPATCH;
+        else if (pool.equals("fair"))
+            return ThreadPoolManager.FAIR_DISPATCH;
+        else if (pool.equals("ring"))
+            return ThreadPoolManager.RING_DISPATCH;
+
+        throw new IllegalArgumentException("Unknown dispatch mode: " + pool);
+    }
+
+    /**
+     * Throughput of tasks submitted by one thread, counted once the whole batch has run
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public void addTaskThroughput() throws InterruptedException
+    {
+        CountDownLatch done = new CountDownLatch(BATCH);
+
+        for (int i = 0; i < BATCH; ++i)
+            threadPoolManager.addTask(new LatchTask(done));
+
+        done.await();
+    }
+
+    /**
+     * Time from handing a single task to an idle pool to the task having run
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void addTaskLatency() throws InterruptedException
+    {
+        CountDownLatch done = new CountDownLatch(1);
+
+        threadPoolManager.addTask(new LatchTask(done));
+
+        done.await();
+    }
+
+    /**
+     * A LatchTask that counts a latch down, usable by both the ThreadPoolManager and the executors
+     */
+    static final class LatchTask implements Taskable, Runnable
+    {
+        /**
+         * Latch to count down once run
+         */
+        private final CountDownLatch done;
+
+        /**
+         * Constructor
+         *
+         * @param done <code>CountDownLatch</code> to count down once run.
+         */
+        LatchTask(CountDownLatch done)
+        {
+            this.done = done;
+        }
+
+        @Override
+        public void run()
+        {
+            done.countDown();
+        }
+    }
+}
@@ -2,8 +2,15 @@ package cs455.scaling.client;
 
 import cs455.scaling.server.ClientInfo;
 import cs455.scaling.server.ServerClient;
+import cs455.scaling.threadpool.task.WireProtocol;
+import cs455.scaling.utility.HashUtil;
 import cs455.scaling.utility.OpsChangeRequest;
-import cs455.scaling.utility.Util;
+import cs455.scaling.utility.Options;
+import cs455.scaling.utility.buffer.BufferPool;
+import cs455.scaling.utility.concurrent.DigestTable;
+import cs455.scaling.utility.logging.Log;
+import cs455.scaling.utility.metrics.HistogramSnapshot;
+import cs455.scaling.utility.metrics.LatencyHistogram;
 
 import java.io.IOException;
 import java.net.InetAddress;
@@ -25,6 +32,11 @@ import java.util.*;
  */
 public class Client implements Runnable, HashHandler, ServerClient
 {
+    /**
+     * Default seconds between round trip reports
+     */
+    public static final int DEFAULT_REPORT_INTERVAL = 5;
+
     /**
      * SocketChannel to listen to incoming connections
      */
@@ -48,12 +60,45 @@ public class Client implements Runnable, HashHandler, ServerClient
     /**
      * int for the message rate
      */
-    private int messageRate;
+    private double messageRate;
+
+    /**
+     * WireProtocol version and flags this client asks the server for
+     */
+    private final byte wireVersion;
+    private final byte wireFlags;
+
+    /**
+     * int of the length of the next response expected from the server
+     */
+    private int responseLength;
+
+    /**
+     * boolean denoting whether the server has yet to acknowledge our handshake
+     */
+    private boolean awaitingAcknowledgement;
+
+    /**
+     * Raw digests of the sent data maintained for verification from server before removal, each
+     * mapped to the System.nanoTime() it was due to be sent at
+     */
+    private final DigestTable dataHashTimes;
+
+    /**
+     * Scratch arrays a response is decoded into, used by the selector thread only
+     */
+    private final byte[] responseHex = new byte[HashUtil.HEX_DIGEST_LENGTH];
+    private final byte[] responseDigest = new byte[HashUtil.DIGEST_LENGTH];
+
+    /**
+     * Nanoseconds from a message being due to be sent to its hash coming back
+     */
+    private final LatencyHistogram roundTripTimes = new LatencyHistogram();
 
     /**
-     * Set of sent data Hashes maintained for verification from server before removal
+     * int of the seconds between round trip reports, 0 for none
      */
-    private final Set<String> dataHashSet = new HashSet<String>();
+    private int reportInterval;
 
 
     /**
@@ -67,11 +112,47 @@ public class Client implements Runnable, HashHandler, ServerClient
      * @param serverAddress <code>InetAddress</code> to the server the client is to connect to.
      * @param portNum       <code>int</code> of the port number to listen for incoming connections on.
      */
-    public Client(InetAddress serverAddress, int portNum, int messageRate)
+    public Client(InetAddress serverAddress, int portNum, double messageRate)
+    {
+        this(serverAddress, portNum, messageRate, WireProtocol.HEX_VERSION, (byte) 0);
+    }
+
+    /**
+     * Constructor for the Client class
+     *
+     * @param serverAddress <code>InetAddress</code> to the server the client is to connect to.
+     * @param portNum       <code>int</code> of the port number to listen for incoming connections on.
+     * @param messageRate   <code>double</code> of the number of messages to send per second.
+     * @param wireVersion   <code>byte</code> of the WireProtocol version to ask for. Asking for anything but
+     *                      hex opens the connection with a handshake.
+     * @param wireFlags     <code>byte</code> of the WireProtocol flags to ask for.
+     */
+    public Client(InetAddress serverAddress, int portNum, double messageRate, byte wireVersion, byte wireFlags)
+    {
+        this(serverAddress, portNum, messageRate, wireVersion, wireFlags, false);
+    }
+
+    /**
+     * Constructor for the Client class
+     *
+     * @param serverAddress <code>InetAddress</code> to the server the client is to connect to.
+     * @param portNum       <code>int</code> of the port number to listen for incoming connections on.
+     * @param messageRate   <code>double</code> of the number of messages to send per second.
+     * @param wireVersion   <code>byte</code> of the WireProtocol version to ask for. Asking for anything but
+     *                      hex opens the connection with a handshake.
+     * @param wireFlags     <code>byte</code> of the WireProtocol flags to ask for.
+     * @param directTable   <code>boolean</code> denoting whether to track the sent hashes off the heap.
+     */
+    public Client(InetAddress serverAddress, int portNum, double messageRate, byte wireVersion, byte wireFlags,
+                  boolean directTable)
     {
         this.serverAddress = serverAddress;
         this.portNum = portNum;
         this.messageRate = messageRate;
+        this.wireVersion = wireVersion;
+        this.wireFlags = wireFlags;
+        responseLength = HashUtil.HEX_DIGEST_LENGTH;
+        dataHashTimes = new DigestTable((int) Math.ceil(messageRate), directTable);
 
         try
         {
@@ -79,6 +160,9 @@ public class Client implements Runnable, HashHandler, ServerClient
             selector = SelectorProvider.provider().openSelector();
 
             socketChannel = initiateConnection();
+
+            if (wireVersion != WireProtocol.HEX_VERSION)
+                sendHandshake();
         }
         catch (IOException ioe)
         {
@@ -129,6 +213,47 @@ public class Client implements Runnable, HashHandler, ServerClient
         return socketChannel;
     }
 
+    /**
+     * Method to queue the handshake as the very first thing written to the server
+     */
+    private void sendHandshake()
+    {
+        ByteBuffer handshake = BufferPool.getPoolInstance().acquire(WireProtocol.HANDSHAKE_LENGTH);
+        handshake.putLong(WireProtocol.HANDSHAKE_MAGIC).put(wireVersion).put(wireFlags);
+        handshake.flip();
+
+        ((ClientInfo) socketChannel.keyFor(selector).attachment()).addPendingWrite(handshake);
+
+        awaitingAcknowledgement = true;
+        responseLength = WireProtocol.HANDSHAKE_LENGTH;
+    }
+
+    /**
+     * Method to settle the protocol from the server's acknowledgement of our handshake
+     *
+     * @param acknowledgement <code>ByteBuffer</code> holding the acknowledgement.
+     * @throws IOException if the acknowledgement is malformed.
+     */
+    private void acknowledged(ByteBuffer acknowledgement) throws IOException
+    {
+        if (acknowledgement.getLong() != WireProtocol.HANDSHAKE_MAGIC)
+            throw new IOException("Server did not acknowledge the handshake");
+
+        byte version = acknowledgement.get();
+        byte flags = acknowledgement.get();
+
+        awaitingAcknowledgement = false;
+
+        if (version != WireProtocol.BINARY_VERSION)
+            responseLength = HashUtil.HEX_DIGEST_LENGTH;
+        else if ((flags & WireProtocol.SEQUENCE_FLAG) != 0)
+            responseLength = WireProtocol.SEQUENCE_LENGTH + HashUtil.DIGEST_LENGTH;
+        else
+            responseLength = HashUtil.DIGEST_LENGTH;
+
+        Log.info("Server accepted protocol version " + version + " with flags " + flags);
+    }
+
     /**
      * Method to finish a connection
      *
@@ -175,12 +300,7 @@ public class Client implements Runnable, HashHandler, ServerClient
         /**
          * ByteBuffer to store the data read from client
          */
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Util.HASH_BUFFER_SIZE);
-
-        /**
-         * String to hold the hash
-         */
-        String hashString;
+        ByteBuffer byteBuffer = BufferPool.getPoolInstance().acquire(responseLength);
 
 
         int read = 0;
@@ -202,6 +322,7 @@ public class Client implements Runnable, HashHandler, ServerClient
             /**
              * Abnormal termination
              */
+            BufferPool.getPoolInstance().release(byteBuffer);
             ((ClientInfo) key.attachment()).disconnect();
 
             key.cancel();
@@ -212,6 +333,7 @@ public class Client implements Runnable, HashHandler, ServerClient
         if (read == -1)
         {
             /* Connection was terminated by the client. */
+            BufferPool.getPoolInstance().release(byteBuffer);
             ((ClientInfo) key.attachment()).disconnect();
 
             System.err.println("Server terminated connection");
@@ -225,22 +347,51 @@ public class Client implements Runnable, HashHandler, ServerClient
 
         byteBuffer.flip();
 
-        byte[] bufferBytes = new byte[Util.HASH_BUFFER_SIZE];
+        // IF this is the server's answer to our handshake rather than a hash
+        if (awaitingAcknowledgement)
+        {
+            try
+            {
+                acknowledged(byteBuffer);
+            }
+            finally
+            {
+                BufferPool.getPoolInstance().release(byteBuffer);
+            }
+
+            return;
+        }
+
+        // IF the server sends hex, decode it to the raw digest our hashes are tracked by
+        if (responseLength == HashUtil.HEX_DIGEST_LENGTH)
+        {
+            byteBuffer.get(responseHex);
+            HashUtil.fromHex(responseHex, 0, responseDigest, 0);
+        }
+        else
+        {
+            if (responseLength > HashUtil.DIGEST_LENGTH)
+                byteBuffer.getLong();
+
+            byteBuffer.get(responseDigest);
+        }
 
-        byteBuffer.get(bufferBytes);
+        BufferPool.getPoolInstance().release(byteBuffer);
 
-        hashString = new String(bufferBytes);
+        long sendTime = dataHashTimes.remove(responseDigest, 0);
 
+        // a hash we are not waiting for has no round trip to speak of
+        if (sendTime != DigestTable.NO_VALUE)
+            roundTripTimes.record(System.nanoTime() - sendTime);
 
-        synchronized (dataHashSet)
+        if (Log.isDebugEnabled())
         {
-            dataHashSet.remove(hashString);
+            HashUtil.toHex(responseDigest, 0, responseHex, 0);
+            Log.debug("Data read. Hash removed from list: " + new String(responseHex));
         }
 
-        System.out.println("Data read. Hash removed from list: " + hashString + "\n");
 
-
-        addOpsChangeRequest(new OpsChangeRequest(socketChannel, OpsChangeRequest.CHANGEOPS, SelectionKey.OP_WRITE));
+        addOpsChangeRequest(OpsChangeRequest.obtain(socketChannel, OpsChangeRequest.CHANGEOPS, SelectionKey.OP_WRITE));
 
     }
 
@@ -253,39 +404,21 @@ public class Client implements Runnable, HashHandler, ServerClient
         SocketChannel channel = (SocketChannel) key.channel();
 
 
-        /**
-         * ByteBuffer to read data from when its available
-         */
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Util.HASH_BUFFER_SIZE);
-
         /**
          * ClientInfo of the current key
          */
         ClientInfo clientInfo = (ClientInfo) key.attachment();
 
-        /**
-         * Clients hash that is being written
-         */
-        byte[] hash;
-
-
-        // WHILE there is more to be written for this client
-        while (clientInfo.hasWrites())
-        {
-            hash = clientInfo.getPendingWrite();
-
-            byteBuffer = ByteBuffer.wrap(hash);
+        // write as much of the backlog as the socket takes in one go
+        clientInfo.writePendingWrites(channel);
 
-            channel.write(byteBuffer);
+        if (Log.isDebugEnabled())
+            Log.debug("Data written to server [Address: " + clientInfo.getRemoteAddress() + "]");
 
-            System.out.println("Data written to client [Address: " + clientInfo.getRemoteAddress() + "]\n");
-        }
-
-        byteBuffer.flip();
+        // keep waiting to write until the backlog is empty
+        int ops = clientInfo.hasWrites() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
 
-//        key.interestOps(SelectionKey.OP_READ);
-        addOpsChangeRequest(new OpsChangeRequest(socketChannel, OpsChangeRequest.CHANGEOPS,
-                SelectionKey.OP_READ));
+        addOpsChangeRequest(OpsChangeRequest.obtain(socketChannel, OpsChangeRequest.CHANGEOPS, ops));
 
     }
 
@@ -303,6 +436,13 @@ public class Client implements Runnable, HashHandler, ServerClient
         Thread senderDaemonThread = new Thread(senderDaemon);
         senderDaemonThread.start();
 
+        if (reportInterval > 0)
+        {
+            Thread reporter = new Thread(new RoundTripReporter(this, reportInterval), "RoundTripReporter");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+
         /**
          * Try to be a Server
          */
@@ -328,9 +468,10 @@ public class Client implements Runnable, HashHandler, ServerClient
                                 SelectionKey key = change.socket.keyFor(selector);
                                 key.interestOps(change.ops);
                         }
+
+                        change.recycle();
                     }
                     pendingChanges.clear();
-                    selector.wakeup();
                 }
 
 
@@ -366,19 +507,16 @@ public class Client implements Runnable, HashHandler, ServerClient
                     if (key.isConnectable())
                     {
                         connect(key);
-                        selector.wakeup();
                     }
                     // ELSE IF the key is ready to read from
                     else if (key.isReadable())
                     {
                         read(key);
-                        selector.wakeup();
                     }
                     // ELSE IF the key is ready to be written to
                     else if (key.isWritable())
                     {
                         write(key);
-                        selector.wakeup();
                     }
 
 
@@ -395,17 +533,47 @@ public class Client implements Runnable, HashHandler, ServerClient
     }
 
     /**
-     * Method to store a sent hash code
+     * Method to store the hash code of a sent message
      *
-     * @param hash <code>String</code> containing the hash code to be tracked.
+     * @param digest   <code>byte[]</code> holding the raw 20 byte digest to be tracked.
+     * @param offset   <code>int</code> index of the digest in the array.
+     * @param sendTime <code>long</code> System.nanoTime() the message was due to be sent at.
      */
     @Override
-    public void addHash(String hash)
+    public void addHash(byte[] digest, int offset, long sendTime)
     {
-        synchronized (dataHashSet)
-        {
-            dataHashSet.add(hash);
-        }
+        dataHashTimes.put(digest, offset, sendTime);
+    }
+
+    /**
+     * Mutator for the seconds between round trip reports. Must be set before the client runs.
+     *
+     * @param reportInterval <code>int</code> of the seconds between reports, 0 for none.
+     */
+    public void setReportInterval(int reportInterval)
+    {
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Method to take a copy of the round trip times recorded so far
+     *
+     * @return <code>HistogramSnapshot</code> of the round trip times in nanoseconds.
+     */
+    public HistogramSnapshot getRoundTripTimes()
+    {
+        return roundTripTimes.snapshot();
+    }
+
+    /**
+     * Accessor for the number of messages sent whose hash has not come back yet. A count that
+     * keeps growing means responses are being lost.
+     *
+     * @return <code>int</code> of the number of messages.
+     */
+    public int getOutstandingCount()
+    {
+        return dataHashTimes.size();
     }
 
     /**
@@ -419,12 +587,20 @@ public class Client implements Runnable, HashHandler, ServerClient
         {
             pendingChanges.add(opsChangeRequest);
         }
+
+        // the selector thread only looks at the changes between selects
+        selector.wakeup();
     }
 
 
     /**
      * main method
      *
+     * Usage: Client server-host server-port message-rate [--wire=hex|binary] [--sequence]
+     *        [--report-interval=seconds] [--direct-table] [--log-level=trace|debug|info|warn|error|off]
+     *
+     * The message rate is in messages per second, from 0.1 to 100000, and need not be whole.
+     *
      * @param args command line arguments
      */
     public static void main(String[] args)
@@ -434,16 +610,48 @@ public class Client implements Runnable, HashHandler, ServerClient
 
             String serverAddress;
             int portNum;
-            int messageRate;
+            double messageRate;
+            byte wireVersion;
+            byte wireFlags;
 
             try
             {
                 serverAddress = args[0];
                 portNum = Integer.parseInt(args[1]);
-                messageRate = Integer.parseInt(args[2]);
+                messageRate = Double.parseDouble(args[2]);
+                SenderDaemon.checkRate(messageRate);
+
+                Options options = new Options(args, 3);
+
+                Log.setLevel(Log.parseLevel(options.getString("log-level", "info")));
+
+                String wire = options.getString("wire", "hex");
+
+                if (wire.equals("hex"))
+                    wireVersion = WireProtocol.HEX_VERSION;
+                else if (wire.equals("binary"))
+                    wireVersion = WireProtocol.BINARY_VERSION;
+                else
+                    throw new IllegalArgumentException("Unknown wire format: " + wire);
+
+                wireFlags = options.getBoolean("sequence", false) ? WireProtocol.SEQUENCE_FLAG : 0;
+
 
+                final Client client = new Client(InetAddress.getByName(serverAddress), portNum, messageRate,
+                        wireVersion, wireFlags, options.getBoolean("direct-table", false));
+                client.setReportInterval(options.getInt("report-interval", DEFAULT_REPORT_INTERVAL));
+
+                // report the round trips of the whole run on the way out, straight to stdout as the log may be gone
+                Runtime.getRuntime().addShutdownHook(new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        System.out.println("Client finished: "
+                                + RoundTripReporter.format(client.getRoundTripTimes(), client.getOutstandingCount()));
+                    }
+                });
 
-                Client client = new Client(InetAddress.getByName(serverAddress), portNum, messageRate);
                 Thread clientThread = new Thread(client);
 
 
@@ -452,7 +660,12 @@ public class Client implements Runnable, HashHandler, ServerClient
             }
             catch (NumberFormatException e)
             {
-                System.err.println("Argument" + " must be an integer");
+                System.err.println("Argument" + " must be a number");
+                System.exit(1);
+            }
+            catch (IllegalArgumentException iae)
+            {
+                System.err.println(iae.getMessage());
                 System.exit(1);
             }
             catch (UnknownHostException uhe)
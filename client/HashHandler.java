@@ -8,9 +8,12 @@ package cs455.scaling.client;
 public interface HashHandler
 {
     /**
-     * Method to store a sent hash code
+     * Method to store the hash code of a sent message
      *
-     * @param hash <code>String</code> containing the hash code to be tracked.
+     * @param digest   <code>byte[]</code> holding the raw 20 byte digest to be tracked.
+     * @param offset   <code>int</code> index of the digest in the array.
+     * @param sendTime <code>long</code> System.nanoTime() the message was due to be sent at, which its
+     *                 round trip is timed from.
      */
-    public void addHash(String hash);
+    public void addHash(byte[] digest, int offset, long sendTime);
 }
@@ -0,0 +1,325 @@
+package cs455.scaling.client;
+
+import cs455.scaling.threadpool.task.WireProtocol;
+import cs455.scaling.utility.Options;
+import cs455.scaling.utility.Util;
+import cs455.scaling.utility.logging.Log;
+import cs455.scaling.utility.metrics.HistogramSnapshot;
+import cs455.scaling.utility.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A LoadGenerator class simulating thousands of clients from one process. The connections
+ * are spread over a few LoadReactor selector threads, each connection sending messages at
+ * a fixed rate, instead of every client needing a JVM and a sender thread of its own.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class LoadGenerator
+{
+    /**
+     * Defaults for the messages per second of a connection, the seconds to run for, and the
+     * seconds between reports
+     */
+    public static final double DEFAULT_MESSAGE_RATE = 1.0;
+    public static final int DEFAULT_DURATION = 60;
+    public static final int DEFAULT_REPORT_INTERVAL = 5;
+
+    /**
+     * LoadReactors driving the connections
+     */
+    private final LoadReactor[] reactors;
+
+    /**
+     * Nanoseconds from a message being due to be sent to its response, over all connections
+     */
+    private final LatencyHistogram roundTripTimes;
+
+    /**
+     * Format of the time stamps on the reports
+     */
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+
+    /**
+     * Constructor
+     *
+     * @param serverAddress  <code>InetSocketAddress</code> of the server.
+     * @param numConnections <code>int</code> of the number of connections to open.
+     * @param numSelectors   <code>int</code> of the number of selector threads to spread them over.
+     * @param messageRate    <code>double</code> of the messages each connection sends per second.
+     * @param payloadSize    <code>int</code> of the bytes of each message filled with fresh random data.
+     * @param verify         <code>boolean</code> denoting whether to check the hashes coming back.
+     * @param wireVersion    <code>byte</code> of the WireProtocol version to ask for.
+     * @throws IOException if a selector cannot be opened.
+     */
+    public LoadGenerator(InetSocketAddress serverAddress, int numConnections, int numSelectors, double messageRate,
+                         int payloadSize, boolean verify, byte wireVersion) throws IOException
+    {
+        reactors = new LoadReactor[numSelectors];
+        roundTripTimes = new LatencyHistogram();
+
+        for (int i = 0; i < numSelectors; ++i)
+        {
+            // spread the remainder over the first reactors
+            int share = numConnections / numSelectors + (i < numConnections % numSelectors ? 1 : 0);
+
+            reactors[i] = new LoadReactor(serverAddress, share, messageRate, payloadSize, verify, wireVersion,
+                    roundTripTimes);
+        }
+    }
+
+    /**
+     * Method to run the load for the given time, reporting as it goes, and shut it down
+     *
+     * @param durationSeconds <code>int</code> of the seconds to run for.
+     * @param reportInterval  <code>int</code> of the seconds between reports, 0 for a final report only.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void run(int durationSeconds, int reportInterval) throws InterruptedException
+    {
+        Thread[] threads = new Thread[reactors.length];
+
+        for (int i = 0; i < reactors.length; ++i)
+        {
+            threads[i] = new Thread(reactors[i], "LoadReactor-" + i);
+            threads[i].start();
+        }
+
+        long start = System.nanoTime();
+        long end = start + durationSeconds * 1_000_000_000L;
+        long reportStep = reportInterval > 0 ? reportInterval * 1_000_000_000L : Long.MAX_VALUE;
+        long nextReport = reportInterval > 0 ? start + reportStep : end;
+        long previousTime = start;
+        long previousSent = 0;
+        long previousReceived = 0;
+        HistogramSnapshot previousRoundTrips = roundTripTimes.snapshot();
+
+        while (System.nanoTime() - end < 0)
+        {
+            long wait = Math.min(nextReport, end) - System.nanoTime();
+
+            if (wait > 0)
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+
+            long now = System.nanoTime();
+
+            if (now - nextReport >= 0 && now - end < 0)
+            {
+                long sent = getMessagesSent();
+                long received = getResponsesReceived();
+                double seconds = (now - previousTime) / 1e9;
+                HistogramSnapshot roundTrips = roundTripTimes.snapshot();
+
+                Log.info(String.format("[%s] Load Generator: Connections: %d, Sent: %.1f messages/s, "
+                                + "Received: %.1f messages/s, Mismatches: %d, %s",
+                        timeFormat.format(new Date()), getConnected(), (sent - previousSent) / seconds,
+                        (received - previousReceived) / seconds, getMismatches(),
+                        RoundTripReporter.format(roundTrips.since(previousRoundTrips), sent - received)));
+
+                previousRoundTrips = roundTrips;
+                previousTime = now;
+                previousSent = sent;
+                previousReceived = received;
+                nextReport += reportStep;
+            }
+        }
+
+        for (LoadReactor reactor : reactors)
+            reactor.shutdown();
+
+        for (Thread thread : threads)
+            thread.join();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Log.info(String.format("Load Generator finished after %.1f s: Connections: %d (%d failed, %d dropped), "
+                        + "Sent: %d (%.1f messages/s), Received: %d (%.1f messages/s), Mismatches: %d, %s",
+                seconds, getConnected(), getFailed(), getClosed(), getMessagesSent(), getMessagesSent() / seconds,
+                getResponsesReceived(), getResponsesReceived() / seconds, getMismatches(),
+                RoundTripReporter.format(roundTripTimes.snapshot(), getMessagesSent() - getResponsesReceived())));
+    }
+
+    /**
+     * Accessor for the number of connections set up over all reactors
+     *
+     * @return <code>int</code> of the number of connections.
+     */
+    public int getConnected()
+    {
+        int connected = 0;
+
+        for (LoadReactor reactor : reactors)
+            connected += reactor.getConnected();
+
+        return connected;
+    }
+
+    /**
+     * Accessor for the number of connections that could not be set up over all reactors
+     *
+     * @return <code>int</code> of the number of connections.
+     */
+    public int getFailed()
+    {
+        int failed = 0;
+
+        for (LoadReactor reactor : reactors)
+            failed += reactor.getFailed();
+
+        return failed;
+    }
+
+    /**
+     * Accessor for the number of connections dropped after they were set up over all reactors
+     *
+     * @return <code>int</code> of the number of connections.
+     */
+    public int getClosed()
+    {
+        int closed = 0;
+
+        for (LoadReactor reactor : reactors)
+            closed += reactor.getClosed();
+
+        return closed;
+    }
+
+    /**
+     * Accessor for the number of messages written in full over all reactors
+     *
+     * @return <code>long</code> of the number of messages.
+     */
+    public long getMessagesSent()
+    {
+        long sent = 0;
+
+        for (LoadReactor reactor : reactors)
+            sent += reactor.getMessagesSent();
+
+        return sent;
+    }
+
+    /**
+     * Accessor for the number of responses received over all reactors
+     *
+     * @return <code>long</code> of the number of responses.
+     */
+    public long getResponsesReceived()
+    {
+        long received = 0;
+
+        for (LoadReactor reactor : reactors)
+            received += reactor.getResponsesReceived();
+
+        return received;
+    }
+
+    /**
+     * Accessor for the number of responses not matching their message over all reactors
+     *
+     * @return <code>long</code> of the number of responses.
+     */
+    public long getMismatches()
+    {
+        long mismatches = 0;
+
+        for (LoadReactor reactor : reactors)
+            mismatches += reactor.getMismatches();
+
+        return mismatches;
+    }
+
+    /**
+     * main method
+     *
+     * Usage: LoadGenerator server-host server-port connections [--rate=messages-per-second]
+     *        [--payload=bytes] [--duration=seconds] [--selectors=n] [--wire=hex|binary]
+     *        [--verify=true|false] [--report-interval=seconds] [--log-level=trace|debug|info|warn|error|off]
+     *
+     * The rate is per connection. The server reads fixed messages of Util.BUFFER_SIZE bytes, so
+     * the payload is how many bytes at the start of each are fresh random data, rounded up to 8.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 3)
+        {
+            System.err.println("Usage: LoadGenerator server-host server-port connections [--rate=messages-per-second]"
+                    + " [--payload=bytes] [--duration=seconds] [--selectors=n] [--wire=hex|binary]"
+                    + " [--verify=true|false] [--report-interval=seconds]");
+            System.exit(1);
+        }
+
+        try
+        {
+            InetAddress serverAddress = InetAddress.getByName(args[0]);
+            int portNum = Integer.parseInt(args[1]);
+            int numConnections = Integer.parseInt(args[2]);
+
+            Options options = new Options(args, 3);
+
+            Log.setLevel(Log.parseLevel(options.getString("log-level", "info")));
+
+            double messageRate = Double.parseDouble(options.getString("rate", String.valueOf(DEFAULT_MESSAGE_RATE)));
+            int payloadSize = options.getInt("payload", Util.BUFFER_SIZE);
+            int numSelectors = options.getInt("selectors", Runtime.getRuntime().availableProcessors());
+            String wire = options.getString("wire", "hex");
+
+            if (numConnections < 1 || numSelectors < 1)
+                throw new IllegalArgumentException("Need at least one connection and one selector");
+
+            if (!(messageRate > 0))
+                throw new IllegalArgumentException("Message rate must be positive, got " + messageRate);
+
+            if (payloadSize < 0 || payloadSize > Util.BUFFER_SIZE)
+                throw new IllegalArgumentException("Payload must be 0 to " + Util.BUFFER_SIZE + " bytes, got "
+                        + payloadSize);
+
+            byte wireVersion;
+
+            if (wire.equals("hex"))
+                wireVersion = WireProtocol.HEX_VERSION;
+            else if (wire.equals("binary"))
+                wireVersion = WireProtocol.BINARY_VERSION;
+            else
+                throw new IllegalArgumentException("Unknown wire format: " + wire);
+
+            LoadGenerator loadGenerator = new LoadGenerator(new InetSocketAddress(serverAddress, portNum),
+                    numConnections, Math.min(numSelectors, numConnections), messageRate, payloadSize,
+                    options.getBoolean("verify", true), wireVersion);
+
+            loadGenerator.run(options.getInt("duration", DEFAULT_DURATION),
+                    options.getInt("report-interval", DEFAULT_REPORT_INTERVAL));
+        }
+        catch (NumberFormatException e)
+        {
+            System.err.println("Argument" + " must be a number");
+            System.exit(1);
+        }
+        catch (IllegalArgumentException iae)
+        {
+            System.err.println(iae.getMessage());
+            System.exit(1);
+        }
+        catch (UnknownHostException uhe)
+        {
+            uhe.printStackTrace();
+        }
+        catch (IOException ioe)
+        {
+            ioe.printStackTrace();
+        }
+        catch (InterruptedException ie)
+        {
+            // stopped early
+        }
+    }
+}
@@ -0,0 +1,622 @@
+package cs455.scaling.client;
+
+import cs455.scaling.threadpool.task.WireProtocol;
+import cs455.scaling.utility.HashUtil;
+import cs455.scaling.utility.Util;
+import cs455.scaling.utility.logging.Log;
+import cs455.scaling.utility.metrics.LatencyHistogram;
+import cs455.scaling.utility.timer.TimeoutHandler;
+import cs455.scaling.utility.timer.TimingWheel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A LoadReactor class driving many SimulatedClients from one selector thread. Each client
+ * sends its messages on a fixed schedule paced by a TimingWheel, whether or not the server
+ * has answered the earlier ones, and checks the hashes coming back in order.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class LoadReactor implements Runnable, TimeoutHandler
+{
+    /**
+     * Nanoseconds covered by a slot of the timing wheel, and the number of slots
+     */
+    private static final long TIMER_TICK = 1_000_000L;
+    private static final int TIMER_SLOTS = 1024;
+
+    /**
+     * Most connections a reactor has being set up at once, so the server's accept backlog
+     * is not overrun when thousands of clients start together
+     */
+    private static final int MAX_PENDING_CONNECTS = 32;
+
+    /**
+     * Selector of this reactor's connections
+     */
+    private final Selector selector;
+
+    /**
+     * TimingWheel pacing the messages of the connected clients
+     */
+    private final TimingWheel timingWheel;
+
+    /**
+     * Address of the server
+     */
+    private final InetSocketAddress serverAddress;
+
+    /**
+     * Number of connections this reactor is to open
+     */
+    private final int numConnections;
+
+    /**
+     * Nanoseconds between the messages of a client
+     */
+    private final long sendInterval;
+
+    /**
+     * Number of bytes at the start of each message filled with fresh random data
+     */
+    private final int payloadSize;
+
+    /**
+     * boolean denoting whether the hashes coming back are checked
+     */
+    private final boolean verify;
+
+    /**
+     * WireProtocol version asked for
+     */
+    private final byte wireVersion;
+
+    /**
+     * Random the message payloads are drawn from, one per reactor
+     */
+    private final Random random;
+
+    /**
+     * Clients of this reactor, in the order they were opened
+     */
+    private final List<SimulatedClient> clients;
+
+    /**
+     * Nanoseconds from a message being due to be sent to its response, shared by all reactors
+     */
+    private final LatencyHistogram roundTripTimes;
+
+    /**
+     * Scratch array hex responses are encoded into for comparing
+     */
+    private final byte[] hexScratch;
+
+    /**
+     * Number of connections opened so far, and being set up now
+     */
+    private int connectsStarted;
+    private int connectsPending;
+
+    /**
+     * Counts of this reactor's connections and messages, written by the selector thread only
+     */
+    private volatile int connected;
+    private volatile int failed;
+    private volatile int closed;
+    private volatile long messagesSent;
+    private volatile long responsesReceived;
+    private volatile long mismatches;
+
+    /**
+     * boolean denoting whether the reactor is to keep running
+     */
+    private volatile boolean running;
+
+
+    /**
+     * Constructor
+     *
+     * @param serverAddress  <code>InetSocketAddress</code> of the server.
+     * @param numConnections <code>int</code> of the number of connections to open.
+     * @param messageRate    <code>double</code> of the messages each connection sends per second.
+     * @param payloadSize    <code>int</code> of the bytes of each message filled with fresh random data.
+     * @param verify         <code>boolean</code> denoting whether to check the hashes coming back.
+     * @param wireVersion    <code>byte</code> of the WireProtocol version to ask for.
+     * @param roundTripTimes <code>LatencyHistogram</code> to record the round trip times in.
+     * @throws IOException if the selector cannot be opened.
+     */
+    public LoadReactor(InetSocketAddress serverAddress, int numConnections, double messageRate, int payloadSize,
+                       boolean verify, byte wireVersion, LatencyHistogram roundTripTimes) throws IOException
+    {
+        this.serverAddress = serverAddress;
+        this.numConnections = numConnections;
+        this.sendInterval = (long) (1_000_000_000L / messageRate);
+        this.payloadSize = payloadSize;
+        this.verify = verify;
+        this.wireVersion = wireVersion;
+        this.roundTripTimes = roundTripTimes;
+        selector = SelectorProvider.provider().openSelector();
+        timingWheel = new TimingWheel(TIMER_TICK, TIMER_SLOTS, System.nanoTime());
+        random = new Random();
+        clients = new ArrayList<SimulatedClient>(numConnections);
+        hexScratch = new byte[HashUtil.HEX_DIGEST_LENGTH];
+        running = true;
+    }
+
+    /**
+     * Method to run the selector loop until shutdown, closing every connection on the way out
+     */
+    public void run()
+    {
+        try
+        {
+            while (running && !Thread.currentThread().isInterrupted())
+            {
+                startConnects();
+
+                selector.select(selectTimeout());
+
+                Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+
+                while (keyIterator.hasNext())
+                {
+                    SelectionKey key = keyIterator.next();
+                    keyIterator.remove();
+
+                    SimulatedClient client = (SimulatedClient) key.attachment();
+
+                    try
+                    {
+                        if (key.isConnectable())
+                            connect(client);
+                        else
+                        {
+                            if (key.isReadable())
+                                read(client);
+
+                            if (key.isValid() && key.isWritable())
+                                write(client);
+                        }
+                    }
+                    catch (IOException ioe)
+                    {
+                        close(client);
+                    }
+                }
+
+                timingWheel.advance(System.nanoTime(), this);
+            }
+        }
+        catch (IOException ioe)
+        {
+            ioe.printStackTrace();
+        }
+        finally
+        {
+            for (SimulatedClient client : clients)
+            {
+                try
+                {
+                    client.channel.close();
+                }
+                catch (IOException ioe)
+                {
+                    // shutting down anyway
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to stop the reactor. Its thread closes the connections and exits.
+     */
+    public void shutdown()
+    {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Method to work out how long select may block for
+     *
+     * @return <code>long</code> of the milliseconds to wait, 0 to wait until woken up.
+     */
+    private long selectTimeout()
+    {
+        if (timingWheel.isEmpty())
+            return 0;
+
+        return Math.max(1, (timingWheel.nanosUntilNextTick(System.nanoTime()) + 999_999) / 1_000_000);
+    }
+
+    /**
+     * Method to open connections until the most allowed are being set up or all have been opened.
+     * Called every loop, so completed connections make room for the next ones.
+     */
+    private void startConnects()
+    {
+        while (connectsPending < MAX_PENDING_CONNECTS && connectsStarted < numConnections)
+        {
+            ++connectsStarted;
+            ++connectsPending;
+
+            SocketChannel channel = null;
+
+            try
+            {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+
+                SimulatedClient client = new SimulatedClient(channel, sendInterval, handshake());
+                clients.add(client);
+
+                client.key = channel.register(selector, SelectionKey.OP_CONNECT, client);
+
+                if (channel.connect(serverAddress))
+                    connect(client);
+            }
+            catch (IOException ioe)
+            {
+                --connectsPending;
+                ++failed;
+
+                if (channel != null)
+                {
+                    try
+                    {
+                        channel.close();
+                    }
+                    catch (IOException closeError)
+                    {
+                        // nothing more to do with it
+                    }
+                }
+
+                if (Log.isDebugEnabled())
+                    Log.debug("Connection failed: " + ioe.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Method to build the handshake a new client opens with
+     *
+     * @return <code>ByteBuffer</code> holding the handshake, null for a hex client which sends none.
+     */
+    private ByteBuffer handshake()
+    {
+        if (wireVersion == WireProtocol.HEX_VERSION)
+            return null;
+
+        ByteBuffer handshake = ByteBuffer.allocate(WireProtocol.HANDSHAKE_LENGTH);
+        handshake.putLong(WireProtocol.HANDSHAKE_MAGIC).put(wireVersion).put((byte) 0);
+        handshake.flip();
+
+        return handshake;
+    }
+
+    /**
+     * Method to finish setting up a connection and start its clock. The first message is put a
+     * random fraction of an interval out, so the clients do not all send in step.
+     *
+     * @param client <code>SimulatedClient</code> whose connection is ready.
+     * @throws IOException if the connection failed.
+     */
+    private void connect(SimulatedClient client) throws IOException
+    {
+        --connectsPending;
+
+        try
+        {
+            client.channel.finishConnect();
+        }
+        catch (IOException ioe)
+        {
+            ++failed;
+            client.key.cancel();
+            client.channel.close();
+
+            return;
+        }
+
+        ++connected;
+
+        client.key.interestOps(client.hasWrites() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+
+        client.nextSendTime = System.nanoTime() + (long) (random.nextDouble() * sendInterval);
+        timingWheel.schedule(client.timer, client.nextSendTime);
+    }
+
+    /**
+     * Method to send the messages that have come due for a client and schedule its next one.
+     * Messages keep coming due on the same schedule however far behind the connection is.
+     *
+     * @param timer <code>TimingWheel.Timer</code> of the client.
+     * @param now   <code>long</code> System.nanoTime() now.
+     */
+    public void timedOut(TimingWheel.Timer timer, long now)
+    {
+        SimulatedClient client = (SimulatedClient) timer.getAttachment();
+
+        if (!client.key.isValid())
+            return;
+
+        while (client.nextSendTime - now <= 0)
+        {
+            ++client.owed;
+            client.nextSendTime += client.sendInterval;
+        }
+
+        timingWheel.schedule(timer, client.nextSendTime);
+
+        try
+        {
+            write(client);
+        }
+        catch (IOException ioe)
+        {
+            close(client);
+        }
+    }
+
+    /**
+     * Method to write as much as the socket takes of a client's handshake and owed messages,
+     * waiting on OP_WRITE for the rest.
+     *
+     * @param client <code>SimulatedClient</code> to write for.
+     * @throws IOException if the connection failed.
+     */
+    private void write(SimulatedClient client) throws IOException
+    {
+        ByteBuffer handshake = client.handshake;
+
+        if (handshake != null)
+        {
+            client.channel.write(handshake);
+
+            if (handshake.hasRemaining())
+            {
+                client.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+
+            client.handshake = null;
+        }
+
+        ByteBuffer message = client.message;
+
+        while (message.hasRemaining() || client.owed > 0)
+        {
+            if (!message.hasRemaining())
+            {
+                nextMessage(client);
+                --client.owed;
+            }
+
+            client.channel.write(message);
+
+            if (message.hasRemaining())
+            {
+                client.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+
+            ++messagesSent;
+        }
+
+        client.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * Method to fill a client's message buffer with its next message, noting its digest and the
+     * time it was due. Timing from when it was due rather than when it went out keeps a backlog
+     * of late messages from hiding how slow the server has been.
+     *
+     * @param client <code>SimulatedClient</code> to fill the message of.
+     */
+    private void nextMessage(SimulatedClient client)
+    {
+        ByteBuffer message = client.message;
+        message.clear();
+
+        for (int i = 0; i < payloadSize; i += Long.BYTES)
+            message.putLong(i, random.nextLong());
+
+        // the oldest owed message, this one, came due an interval before each of the others
+        int slot = client.offerExpected(client.nextSendTime - client.owed * client.sendInterval);
+
+        if (verify)
+            HashUtil.digest(message.array(), 0, Util.BUFFER_SIZE, client.getExpected(), slot * HashUtil.DIGEST_LENGTH);
+    }
+
+    /**
+     * Method to read what the server has sent a client and check every whole response
+     *
+     * @param client <code>SimulatedClient</code> to read for.
+     * @throws IOException if the connection failed or the server closed it.
+     */
+    private void read(SimulatedClient client) throws IOException
+    {
+        ByteBuffer responses = client.responses;
+
+        if (client.channel.read(responses) < 0)
+            throw new IOException("Server closed the connection");
+
+        responses.flip();
+
+        while (responses.remaining() >= client.responseLength)
+        {
+            if (client.awaitingAcknowledgement)
+                acknowledged(client, responses);
+            else
+                check(client, responses);
+        }
+
+        responses.compact();
+    }
+
+    /**
+     * Method to settle a client's response length from the server's acknowledgement of its handshake
+     *
+     * @param client    <code>SimulatedClient</code> the acknowledgement is for.
+     * @param responses <code>ByteBuffer</code> positioned at the acknowledgement.
+     * @throws IOException if the acknowledgement is malformed.
+     */
+    private void acknowledged(SimulatedClient client, ByteBuffer responses) throws IOException
+    {
+        if (responses.getLong() != WireProtocol.HANDSHAKE_MAGIC)
+            throw new IOException("Server did not acknowledge the handshake");
+
+        byte version = responses.get();
+        responses.get();
+
+        client.awaitingAcknowledgement = false;
+        client.responseLength = version == WireProtocol.BINARY_VERSION ? HashUtil.DIGEST_LENGTH
+                : HashUtil.HEX_DIGEST_LENGTH;
+    }
+
+    /**
+     * Method to check one response against the digest of the oldest unanswered message
+     *
+     * @param client    <code>SimulatedClient</code> the response is for.
+     * @param responses <code>ByteBuffer</code> positioned at the response.
+     */
+    private void check(SimulatedClient client, ByteBuffer responses)
+    {
+        ++responsesReceived;
+
+        int start = responses.position();
+        responses.position(start + client.responseLength);
+
+        int slot = client.pollExpected();
+
+        if (slot < 0)
+        {
+            ++mismatches;
+            return;
+        }
+
+        roundTripTimes.record(System.nanoTime() - client.getSendTime(slot));
+
+        if (!verify)
+            return;
+
+        byte[] expected = client.getExpected();
+        int offset = slot * HashUtil.DIGEST_LENGTH;
+        byte[] actual = responses.array();
+        int actualOffset = responses.arrayOffset() + start;
+
+        if (client.responseLength == HashUtil.HEX_DIGEST_LENGTH)
+        {
+            HashUtil.toHex(expected, offset, hexScratch, 0);
+
+            expected = hexScratch;
+            offset = 0;
+        }
+
+        for (int i = 0; i < client.responseLength; ++i)
+        {
+            if (expected[offset + i] != actual[actualOffset + i])
+            {
+                ++mismatches;
+
+                if (Log.isDebugEnabled())
+                    Log.debug("Hash mismatch on " + client.channel);
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Method to drop a client whose connection failed
+     *
+     * @param client <code>SimulatedClient</code> to drop.
+     */
+    private void close(SimulatedClient client)
+    {
+        ++closed;
+
+        timingWheel.cancel(client.timer);
+        client.key.cancel();
+
+        try
+        {
+            client.channel.close();
+        }
+        catch (IOException ioe)
+        {
+            // it is gone either way
+        }
+    }
+
+    /**
+     * Accessor for the number of connections set up
+     *
+     * @return <code>int</code> of the number of connections.
+     */
+    public int getConnected()
+    {
+        return connected;
+    }
+
+    /**
+     * Accessor for the number of connections that could not be set up
+     *
+     * @return <code>int</code> of the number of connections.
+     */
+    public int getFailed()
+    {
+        return failed;
+    }
+
+    /**
+     * Accessor for the number of connections dropped after they were set up
+     *
+     * @return <code>int</code> of the number of connections.
+     */
+    public int getClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Accessor for the number of messages written in full
+     *
+     * @return <code>long</code> of the number of messages.
+     */
+    public long getMessagesSent()
+    {
+        return messagesSent;
+    }
+
+    /**
+     * Accessor for the number of responses received
+     *
+     * @return <code>long</code> of the number of responses.
+     */
+    public long getResponsesReceived()
+    {
+        return responsesReceived;
+    }
+
+    /**
+     * Accessor for the number of responses that did not match the message they answer
+     *
+     * @return <code>long</code> of the number of responses.
+     */
+    public long getMismatches()
+    {
+        return mismatches;
+    }
+}
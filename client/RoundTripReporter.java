@@ -0,0 +1,90 @@
+package cs455.scaling.client;
+
+import cs455.scaling.utility.logging.Log;
+import cs455.scaling.utility.metrics.HistogramSnapshot;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A RoundTripReporter class that logs the round trip times of a Client's messages every
+ * interval, covering the responses received since the previous line, along with how many
+ * messages are still waiting for an answer.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class RoundTripReporter implements Runnable
+{
+    /**
+     * Client whose round trips are reported
+     */
+    private final Client client;
+
+    /**
+     * long of the milliseconds between reports
+     */
+    private final long intervalMillis;
+
+    /**
+     * Format for the wall clock time at the start of a report
+     */
+    private final SimpleDateFormat timeFormat;
+
+
+    /**
+     * Constructor
+     *
+     * @param client          <code>Client</code> whose round trips are reported.
+     * @param intervalSeconds <code>int</code> of the seconds between reports.
+     */
+    public RoundTripReporter(Client client, int intervalSeconds)
+    {
+        this.client = client;
+        this.intervalMillis = intervalSeconds * 1000L;
+        timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Override
+    public void run()
+    {
+        HistogramSnapshot previous = client.getRoundTripTimes();
+
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                Thread.sleep(intervalMillis);
+
+                HistogramSnapshot current = client.getRoundTripTimes();
+
+                Log.info("[" + timeFormat.format(new Date()) + "] "
+                        + format(current.since(previous), client.getOutstandingCount()));
+
+                previous = current;
+            }
+        }
+        catch (InterruptedException ie)
+        {
+            // shutting down
+        }
+    }
+
+    /**
+     * Method to build the report of a set of round trip times
+     *
+     * @param roundTrips  <code>HistogramSnapshot</code> of the round trip times in nanoseconds.
+     * @param outstanding <code>long</code> of the number of messages not yet answered.
+     * @return <code>String</code> of the report.
+     */
+    public static String format(HistogramSnapshot roundTrips, long outstanding)
+    {
+        return String.format("Responses: %d, Round Trip us p50/p90/p99/p99.9/max: %d/%d/%d/%d/%d, Outstanding: %d",
+                roundTrips.getCount(),
+                roundTrips.getValueAtPercentile(50) / 1000,
+                roundTrips.getValueAtPercentile(90) / 1000,
+                roundTrips.getValueAtPercentile(99) / 1000,
+                roundTrips.getValueAtPercentile(99.9) / 1000,
+                roundTrips.getMax() / 1000,
+                outstanding);
+    }
+}
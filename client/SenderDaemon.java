@@ -2,22 +2,40 @@ package cs455.scaling.client;
 
 import cs455.scaling.server.ClientInfo;
 import cs455.scaling.server.ServerClient;
+import cs455.scaling.utility.HashUtil;
 import cs455.scaling.utility.OpsChangeRequest;
 import cs455.scaling.utility.Util;
+import cs455.scaling.utility.buffer.BufferPool;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
-import java.security.NoSuchAlgorithmException;
-import java.util.Date;
 import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A SenderDaemon class
+ * A SenderDaemon class sending messages open loop: every message has a deadline fixed from
+ * the start of the run, and is sent when it comes due however long the server takes to
+ * answer the earlier ones. A sender that falls behind catches up back to back, and every
+ * message is tracked with the time it was due rather than the time it went out, so the round
+ * trip times are not flattered when the sender itself stalls.
  *
  * @author ahrtmn, 09 03 2014
  */
 public class SenderDaemon implements Runnable
 {
+    /**
+     * Lowest and highest message rates supported, in messages per second
+     */
+    public static final double MIN_MESSAGE_RATE = 0.1;
+    public static final double MAX_MESSAGE_RATE = 100_000;
+
+    /**
+     * Nanoseconds before a deadline at which parking gives way to spinning, as a park may
+     * overshoot by about this much
+     */
+    private static final long SPIN_THRESHOLD = 100_000L;
+
     /**
      * SelectionKey of recipient to this SenderDaemon's messages.
      * SelectionKey left for possible removal of OpsChangeRequest
@@ -31,9 +49,9 @@ public class SenderDaemon implements Runnable
     private SocketChannel socketChannel;
 
     /**
-     * int for the message rate.
+     * double of the nanoseconds between messages
      */
-    private int messageRate;
+    private final double sendInterval;
 
     /**
      * HashHandler to be able to add hashes to the owning Client.
@@ -45,21 +63,57 @@ public class SenderDaemon implements Runnable
      */
     private ServerClient serverClient;
 
+    /**
+     * Random the data of every message is drawn from
+     */
+    private final Random random;
+
+    /**
+     * byte[] the random data of each message is generated into
+     */
+    private final byte[] data;
+
+    /**
+     * byte[] the raw digest of each message is computed into
+     */
+    private final byte[] digest;
+
 
     /**
      * Constructor
      *
-     * @param messageRate <code>int</code> denoting the message rate, where between every sent message the Daemon
-     *                    will sleep for 1000ms / messageRate
-     * @param hashHandler <code>HashHandler</code> to track the sent hashes.
+     * @param key          <code>SelectionKey</code> of the connection to the server.
+     * @param messageRate  <code>double</code> of the messages to send per second, from MIN_MESSAGE_RATE to
+     *                     MAX_MESSAGE_RATE.
+     * @param hashHandler  <code>HashHandler</code> to track the sent hashes.
+     * @param serverClient <code>ServerClient</code> to post the interest ops changes to.
+     * @throws IllegalArgumentException if the rate is out of range.
      */
-    public SenderDaemon(SelectionKey key, int messageRate, HashHandler hashHandler, ServerClient serverClient)
+    public SenderDaemon(SelectionKey key, double messageRate, HashHandler hashHandler, ServerClient serverClient)
     {
+        checkRate(messageRate);
+
         this.key = key;
-        this.messageRate = messageRate;
+        this.sendInterval = 1e9 / messageRate;
         this.hashHandler = hashHandler;
         this.socketChannel = (SocketChannel) key.channel();
         this.serverClient = serverClient;
+        random = new Random();
+        data = new byte[Util.BUFFER_SIZE];
+        digest = new byte[HashUtil.DIGEST_LENGTH];
+    }
+
+    /**
+     * Method to check a message rate is one a SenderDaemon supports
+     *
+     * @param messageRate <code>double</code> of the messages to send per second.
+     * @throws IllegalArgumentException if the rate is out of range.
+     */
+    public static void checkRate(double messageRate)
+    {
+        if (!(messageRate >= MIN_MESSAGE_RATE && messageRate <= MAX_MESSAGE_RATE))
+            throw new IllegalArgumentException("Message rate must be from " + MIN_MESSAGE_RATE + " to "
+                    + MAX_MESSAGE_RATE + " messages/s, got " + messageRate);
     }
 
     @Override
@@ -70,36 +124,55 @@ public class SenderDaemon implements Runnable
          */
         ClientInfo clientInfo = (ClientInfo) key.attachment();
 
+        long start = System.nanoTime();
+        long sent = 0;
+
         while (!Thread.currentThread().isInterrupted())
         {
-            /**
-             * Randomly fill an 8kb byte array
-             */
-            Random random = new Random(new Date().getTime());
-            byte[] data = new byte[Util.BUFFER_SIZE];
-            random.nextBytes(data);
-
-            clientInfo.addPendingWrite(data);
-
+            // deadlines are worked out from the start each time, so rounding never adds up to drift
+            long deadline = start + (long) (sent * sendInterval);
+            long remaining = deadline - System.nanoTime();
 
-            try
+            // IF the message is not due yet, wait and look again
+            if (remaining > 0)
             {
-                hashHandler.addHash(Util.SHA1FromBytes(data));
+                if (remaining > SPIN_THRESHOLD)
+                    LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+                else
+                    Thread.onSpinWait();
 
-                serverClient.addOpsChangeRequest(new OpsChangeRequest(socketChannel, OpsChangeRequest.CHANGEOPS,
-                        SelectionKey.OP_WRITE));
-                Thread.sleep(1000 / messageRate);
-
-            }
-            catch (InterruptedException ie)
-            {
-                System.err.println(ie.getMessage());
-                ie.printStackTrace();
-            }
-            catch (NoSuchAlgorithmException nsae)
-            {
-                nsae.printStackTrace();
+                continue;
             }
+
+            send(clientInfo, deadline);
+            ++sent;
         }
     }
+
+    /**
+     * Method to send one message of fresh random data, tracking its hash first so its answer
+     * cannot beat it
+     *
+     * @param clientInfo   <code>ClientInfo</code> of the connection to queue the message on.
+     * @param intendedTime <code>long</code> System.nanoTime() the message was due to be sent at.
+     */
+    private void send(ClientInfo clientInfo, long intendedTime)
+    {
+        random.nextBytes(data);
+
+        HashUtil.digest(data, 0, data.length, digest, 0);
+        hashHandler.addHash(digest, 0, intendedTime);
+
+        /**
+         * Pooled buffer carrying the message until the client has written it
+         */
+        ByteBuffer message = BufferPool.getPoolInstance().acquire(Util.BUFFER_SIZE);
+        message.put(data);
+        message.flip();
+
+        clientInfo.addPendingWrite(message);
+
+        serverClient.addOpsChangeRequest(OpsChangeRequest.obtain(socketChannel, OpsChangeRequest.CHANGEOPS,
+                SelectionKey.OP_WRITE));
+    }
 }
@@ -0,0 +1,196 @@
+package cs455.scaling.client;
+
+import cs455.scaling.utility.HashUtil;
+import cs455.scaling.utility.Util;
+import cs455.scaling.utility.timer.TimingWheel;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A SimulatedClient class holding the state of one connection of the LoadGenerator. It is
+ * only ever touched by the LoadReactor owning it, and everything it needs is allocated when
+ * it is created, so sending and checking a message allocates nothing.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class SimulatedClient
+{
+    /**
+     * Size of the buffer responses are read into
+     */
+    private static final int RESPONSE_BUFFER_SIZE = 1024;
+
+    /**
+     * Number of unanswered messages the expected ring starts with room for
+     */
+    private static final int INITIAL_EXPECTED_CAPACITY = 16;
+
+    /**
+     * SocketChannel of the connection
+     */
+    final SocketChannel channel;
+
+    /**
+     * SelectionKey of the connection, null until it is registered
+     */
+    SelectionKey key;
+
+    /**
+     * Timer pacing the messages on the LoadReactor's TimingWheel
+     */
+    final TimingWheel.Timer timer;
+
+    /**
+     * Handshake still to be written ahead of the first message, null if there is none
+     */
+    ByteBuffer handshake;
+
+    /**
+     * Message being written, reused for every message. Empty between messages.
+     */
+    final ByteBuffer message;
+
+    /**
+     * Responses read but not yet checked
+     */
+    final ByteBuffer responses;
+
+    /**
+     * Length of the next response expected from the server
+     */
+    int responseLength;
+
+    /**
+     * boolean denoting whether the server has yet to acknowledge our handshake
+     */
+    boolean awaitingAcknowledgement;
+
+    /**
+     * System.nanoTime() the next message is due at, and the nanoseconds between messages
+     */
+    long nextSendTime;
+    final long sendInterval;
+
+    /**
+     * Number of messages that have come due but not yet been started
+     */
+    int owed;
+
+    /**
+     * Ring of the messages sent and not yet answered, oldest first: the raw digest of each,
+     * kept if responses are checked, and the System.nanoTime() it was due to be sent at
+     */
+    private byte[] expected;
+    private long[] sendTimes;
+    private int expectedHead;
+    private int expectedCount;
+
+
+    /**
+     * Constructor
+     *
+     * @param channel      <code>SocketChannel</code> of the connection.
+     * @param sendInterval <code>long</code> of the nanoseconds between messages.
+     * @param handshake    <code>ByteBuffer</code> to write ahead of the first message, null for a hex client.
+     */
+    public SimulatedClient(SocketChannel channel, long sendInterval, ByteBuffer handshake)
+    {
+        this.channel = channel;
+        this.sendInterval = sendInterval;
+        this.handshake = handshake;
+        timer = new TimingWheel.Timer(this);
+        message = ByteBuffer.allocate(Util.BUFFER_SIZE);
+        message.limit(0);
+        responses = ByteBuffer.allocate(RESPONSE_BUFFER_SIZE);
+        expected = new byte[INITIAL_EXPECTED_CAPACITY * HashUtil.DIGEST_LENGTH];
+        sendTimes = new long[INITIAL_EXPECTED_CAPACITY];
+
+        awaitingAcknowledgement = handshake != null;
+        responseLength = awaitingAcknowledgement ? handshake.remaining() : HashUtil.HEX_DIGEST_LENGTH;
+    }
+
+    /**
+     * Method to determine if anything is waiting to be written
+     *
+     * @return <code>boolean</code> denoting whether there is a handshake, message or owed message to write.
+     */
+    public boolean hasWrites()
+    {
+        return (handshake != null && handshake.hasRemaining()) || message.hasRemaining() || owed > 0;
+    }
+
+    /**
+     * Method to reserve a slot for the message about to be sent
+     *
+     * @param sendTime <code>long</code> System.nanoTime() the message was due to be sent at.
+     * @return <code>int</code> slot of the message; its digest goes at slot * DIGEST_LENGTH in the expected array.
+     */
+    int offerExpected(long sendTime)
+    {
+        int capacity = sendTimes.length;
+
+        if (expectedCount == capacity)
+        {
+            byte[] grownDigests = new byte[expected.length * 2];
+            long[] grownTimes = new long[capacity * 2];
+
+            // unroll the ring so the oldest message is first again
+            int head = expectedHead * HashUtil.DIGEST_LENGTH;
+            System.arraycopy(expected, head, grownDigests, 0, expected.length - head);
+            System.arraycopy(expected, 0, grownDigests, expected.length - head, head);
+            System.arraycopy(sendTimes, expectedHead, grownTimes, 0, capacity - expectedHead);
+            System.arraycopy(sendTimes, 0, grownTimes, capacity - expectedHead, expectedHead);
+
+            expected = grownDigests;
+            sendTimes = grownTimes;
+            expectedHead = 0;
+            capacity *= 2;
+        }
+
+        int slot = (expectedHead + expectedCount++) & (capacity - 1);
+        sendTimes[slot] = sendTime;
+
+        return slot;
+    }
+
+    /**
+     * Accessor for the array the expected digests are kept in, valid until the next offerExpected
+     *
+     * @return <code>byte[]</code> holding the digests.
+     */
+    byte[] getExpected()
+    {
+        return expected;
+    }
+
+    /**
+     * Accessor for the time a message was due to be sent at
+     *
+     * @param slot <code>int</code> slot of the message.
+     * @return <code>long</code> System.nanoTime() given when its slot was reserved.
+     */
+    long getSendTime(int slot)
+    {
+        return sendTimes[slot];
+    }
+
+    /**
+     * Method to take the oldest unanswered message off the ring
+     *
+     * @return <code>int</code> slot of the message, valid until the next offerExpected, -1 if nothing is unanswered.
+     */
+    int pollExpected()
+    {
+        if (expectedCount == 0)
+            return -1;
+
+        int slot = expectedHead;
+
+        expectedHead = (expectedHead + 1) & (sendTimes.length - 1);
+        --expectedCount;
+
+        return slot;
+    }
+}
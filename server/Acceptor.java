@@ -0,0 +1,82 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.logging.Log;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Acceptor class that owns the blocking ServerSocketChannel and hands every
+ * accepted connection to one of the sub-reactors in turn.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class Acceptor implements Runnable
+{
+    /**
+     * ServerSocketChannel to accept connections from
+     */
+    private final ServerSocketChannel serverSocketChannel;
+
+    /**
+     * Reactors the accepted connections are spread over
+     */
+    private final Reactor[] reactors;
+
+    /**
+     * Count of all connections accepted by the server
+     */
+    private final AtomicInteger connectionCount;
+
+    /**
+     * int index of the reactor to receive the next connection
+     */
+    private int nextReactor;
+
+
+    /**
+     * Constructor
+     *
+     * @param serverSocketChannel <code>ServerSocketChannel</code> in blocking mode to accept from.
+     * @param reactors            <code>Reactor[]</code> to hand the connections to.
+     * @param connectionCount     <code>AtomicInteger</code> counting the connections of the whole server.
+     */
+    public Acceptor(ServerSocketChannel serverSocketChannel, Reactor[] reactors, AtomicInteger connectionCount)
+    {
+        this.serverSocketChannel = serverSocketChannel;
+        this.reactors = reactors;
+        this.connectionCount = connectionCount;
+        nextReactor = 0;
+    }
+
+    @Override
+    public void run()
+    {
+        while (!Thread.currentThread().isInterrupted())
+        {
+            try
+            {
+                SocketChannel socketChannel = serverSocketChannel.accept();
+                socketChannel.configureBlocking(false);
+
+                reactors[nextReactor].register(socketChannel);
+                nextReactor = (nextReactor + 1) % reactors.length;
+
+                int connected = connectionCount.incrementAndGet();
+
+                if (Log.isInfoEnabled())
+                    Log.info("CONNECTED: " + connected);
+            }
+            catch (IOException ioe)
+            {
+                System.err.println(ioe.getMessage());
+                ioe.printStackTrace();
+
+                if (!serverSocketChannel.isOpen())
+                    return;
+            }
+        }
+    }
+}
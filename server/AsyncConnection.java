@@ -0,0 +1,196 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.logging.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A AsyncConnection class serving one connection of the asynchronous engine as a chain of
+ * completions: a read completing hashes the message and starts the write of its hash, the
+ * write completing starts the next read. There is never more than one operation outstanding,
+ * so the connection's state needs no locking beyond what ClientInfo already does.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class AsyncConnection
+{
+    /**
+     * Maximum number of pending writes handed to a single gathering write
+     */
+    private static final int MAX_WRITE_BATCH = 64;
+
+    /**
+     * Channel of the connection
+     */
+    private final AsynchronousSocketChannel channel;
+
+    /**
+     * ClientInfo holding the read buffer, pending writes and protocol of the connection
+     */
+    private final ClientInfo clientInfo;
+
+    /**
+     * Array reused to gather the pending writes into a single write
+     */
+    private final ByteBuffer[] writeBatch;
+
+    /**
+     * int of the number of buffers in the write in progress
+     */
+    private int writeCount;
+
+    /**
+     * CompletionHandler of the reads
+     */
+    private final CompletionHandler<Integer, Void> readHandler = new CompletionHandler<Integer, Void>()
+    {
+        @Override
+        public void completed(Integer read, Void attachment)
+        {
+            if (read < 0)
+            {
+                close();
+                return;
+            }
+
+            onRead();
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment)
+        {
+            if (Log.isDebugEnabled())
+                Log.debug("Read from client [Address: " + clientInfo.getRemoteAddress() + "] failed: " + exc);
+
+            close();
+        }
+    };
+
+    /**
+     * CompletionHandler of the writes
+     */
+    private final CompletionHandler<Long, Void> writeHandler = new CompletionHandler<Long, Void>()
+    {
+        @Override
+        public void completed(Long written, Void attachment)
+        {
+            clientInfo.completePendingWrites(writeBatch, writeCount);
+
+            if (Log.isDebugEnabled())
+                Log.debug(written + " bytes of hashes written to client [Address: " + clientInfo.getRemoteAddress() + "]");
+
+            writeOrRead();
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment)
+        {
+            if (Log.isDebugEnabled())
+                Log.debug("Write to client [Address: " + clientInfo.getRemoteAddress() + "] failed: " + exc);
+
+            clientInfo.completePendingWrites(writeBatch, writeCount);
+            close();
+        }
+    };
+
+
+    /**
+     * Constructor
+     *
+     * @param channel <code>AsynchronousSocketChannel</code> of the accepted connection.
+     * @param metrics <code>ServerMetrics</code> of the whole server.
+     * @throws IOException if the channel is already closed.
+     */
+    public AsyncConnection(AsynchronousSocketChannel channel, ServerMetrics metrics) throws IOException
+    {
+        this.channel = channel;
+        clientInfo = new ClientInfo(channel, channel.getRemoteAddress(), metrics);
+        writeBatch = new ByteBuffer[MAX_WRITE_BATCH];
+
+        metrics.connectionOpened();
+    }
+
+    /**
+     * Method to start serving the connection
+     */
+    public void start()
+    {
+        read();
+    }
+
+    /**
+     * Method to read whatever the client sends next into the read buffer
+     */
+    private void read()
+    {
+        channel.read(clientInfo.getReadBuffer(), null, readHandler);
+    }
+
+    /**
+     * Method to carry on after a read: hash a complete message and write the hash back, or read on
+     */
+    private void onRead()
+    {
+        ByteBuffer buffer = clientInfo.getReadBuffer();
+
+        // IF the message is incomplete, send back anything owed, such as a handshake reply, and read on
+        if (!MessageCodec.negotiate(clientInfo, buffer) || buffer.hasRemaining())
+        {
+            writeOrRead();
+            return;
+        }
+
+        long readTime = System.nanoTime();
+
+        buffer.flip();
+
+        try
+        {
+            clientInfo.addPendingWrite(MessageCodec.encodeResponse(clientInfo, buffer), readTime);
+
+            if (Log.isDebugEnabled())
+                Log.debug("Data read from client [Address: " + clientInfo.getRemoteAddress() + "]. Hash created.");
+        }
+        finally
+        {
+            clientInfo.releaseReadBuffer();
+        }
+
+        writeOrRead();
+    }
+
+    /**
+     * Method to write the pending writes if there are any, or else go back to reading
+     */
+    private void writeOrRead()
+    {
+        writeCount = clientInfo.preparePendingWrites(writeBatch);
+
+        if (writeCount == 0)
+        {
+            read();
+            return;
+        }
+
+        channel.write(writeBatch, 0, writeCount, 0L, TimeUnit.MILLISECONDS, null, writeHandler);
+    }
+
+    /**
+     * Method to close the connection and return its buffers to the pool
+     */
+    private void close()
+    {
+        try
+        {
+            clientInfo.disconnect();
+        }
+        catch (IOException ioe)
+        {
+            // nothing more to do for this connection
+        }
+    }
+}
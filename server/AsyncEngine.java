@@ -0,0 +1,126 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.logging.Log;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A AsyncEngine class serving connections with NIO.2 completion handlers instead of a selector.
+ * Accepts, reads and writes complete on the threads of an AsynchronousChannelGroup, which does
+ * the hashing as well, so there are no interest ops to change and no selector to wake up.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class AsyncEngine implements Runnable
+{
+    /**
+     * AsynchronousServerSocketChannel to accept connections from
+     */
+    private final AsynchronousServerSocketChannel serverChannel;
+
+    /**
+     * AsynchronousChannelGroup whose threads run the completions
+     */
+    private final AsynchronousChannelGroup group;
+
+    /**
+     * ServerMetrics of the whole server
+     */
+    private final ServerMetrics metrics;
+
+    /**
+     * Count of all connections accepted by the server
+     */
+    private final AtomicInteger connectionCount;
+
+    /**
+     * CompletionHandler of the accepts, starting the next accept before serving the new connection
+     */
+    private final CompletionHandler<AsynchronousSocketChannel, Void> acceptHandler =
+            new CompletionHandler<AsynchronousSocketChannel, Void>()
+            {
+                @Override
+                public void completed(AsynchronousSocketChannel channel, Void attachment)
+                {
+                    serverChannel.accept(null, this);
+
+                    try
+                    {
+                        new AsyncConnection(channel, metrics).start();
+                    }
+                    catch (IOException ioe)
+                    {
+                        // the client went away before we could serve it
+                        try
+                        {
+                            channel.close();
+                        }
+                        catch (IOException closeException)
+                        {
+                            // nothing more to do for this connection
+                        }
+
+                        return;
+                    }
+
+                    int connected = connectionCount.incrementAndGet();
+
+                    if (Log.isInfoEnabled())
+                        Log.info("CONNECTED: " + connected);
+                }
+
+                @Override
+                public void failed(Throwable exc, Void attachment)
+                {
+                    if (!serverChannel.isOpen())
+                        return;
+
+                    System.err.println(exc.getMessage());
+                    exc.printStackTrace();
+
+                    serverChannel.accept(null, this);
+                }
+            };
+
+
+    /**
+     * Constructor
+     *
+     * @param serverChannel   <code>AsynchronousServerSocketChannel</code> bound and opened in the group.
+     * @param group           <code>AsynchronousChannelGroup</code> the channel was opened in.
+     * @param metrics         <code>ServerMetrics</code> of the whole server.
+     * @param connectionCount <code>AtomicInteger</code> counting the connections of the whole server.
+     */
+    public AsyncEngine(AsynchronousServerSocketChannel serverChannel, AsynchronousChannelGroup group,
+                       ServerMetrics metrics, AtomicInteger connectionCount)
+    {
+        this.serverChannel = serverChannel;
+        this.group = group;
+        this.metrics = metrics;
+        this.connectionCount = connectionCount;
+    }
+
+    /**
+     * Method to start accepting, then wait for the group to terminate
+     */
+    @Override
+    public void run()
+    {
+        serverChannel.accept(null, acceptHandler);
+
+        try
+        {
+            group.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+        catch (InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.buffer.BufferPool;
+import cs455.scaling.utility.logging.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A BlockingConnectionHandler class serving a single connection on a thread of its own with
+ * plain blocking reads and writes: read a message, hash it, write the hash back, repeat. It
+ * speaks the same protocol as the selector based server through MessageCodec.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class BlockingConnectionHandler implements Runnable
+{
+    /**
+     * SocketChannel of the connection, in blocking mode
+     */
+    private final SocketChannel socketChannel;
+
+    /**
+     * ServerMetrics the connection reports to
+     */
+    private final ServerMetrics metrics;
+
+
+    /**
+     * Constructor
+     *
+     * @param socketChannel <code>SocketChannel</code> of the connection, in blocking mode.
+     * @param metrics       <code>ServerMetrics</code> of the whole server.
+     */
+    public BlockingConnectionHandler(SocketChannel socketChannel, ServerMetrics metrics)
+    {
+        this.socketChannel = socketChannel;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void run()
+    {
+        ClientInfo clientInfo = null;
+
+        try
+        {
+            clientInfo = new ClientInfo(socketChannel, metrics);
+            metrics.connectionOpened();
+
+            while (!Thread.currentThread().isInterrupted())
+            {
+                ByteBuffer buffer = clientInfo.getReadBuffer();
+
+                // a blocking read returns once at least one byte is in, or -1 once the client is gone
+                if (socketChannel.read(buffer) < 0)
+                    break;
+
+                // IF the message is incomplete, send back anything owed, such as a handshake reply, and read on
+                if (!MessageCodec.negotiate(clientInfo, buffer) || buffer.hasRemaining())
+                {
+                    flush(clientInfo);
+                    continue;
+                }
+
+                long readTime = System.nanoTime();
+
+                buffer.flip();
+
+                try
+                {
+                    clientInfo.addPendingWrite(MessageCodec.encodeResponse(clientInfo, buffer), readTime);
+                }
+                finally
+                {
+                    clientInfo.releaseReadBuffer();
+                }
+
+                flush(clientInfo);
+            }
+        }
+        catch (IOException ioe)
+        {
+            if (Log.isDebugEnabled())
+                Log.debug("Connection lost: " + ioe.getMessage());
+        }
+        finally
+        {
+            close(clientInfo);
+
+            // this thread ends with the connection, so its cached buffers go back to the pool
+            BufferPool.getPoolInstance().releaseThreadCache();
+        }
+    }
+
+    /**
+     * Method to write every pending write of the client, blocking until they are all out
+     *
+     * @param clientInfo <code>ClientInfo</code> of the connection.
+     * @throws IOException
+     */
+    private void flush(ClientInfo clientInfo) throws IOException
+    {
+        while (clientInfo.hasWrites())
+            clientInfo.writePendingWrites(socketChannel);
+    }
+
+    /**
+     * Method to close the connection, whether or not its ClientInfo was created
+     *
+     * @param clientInfo <code>ClientInfo</code> of the connection, or null.
+     */
+    private void close(ClientInfo clientInfo)
+    {
+        try
+        {
+            if (clientInfo != null)
+                clientInfo.disconnect();
+            else
+                socketChannel.close();
+        }
+        catch (IOException ioe)
+        {
+            // nothing more to do for this connection
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package cs455.scaling.server;
 
+import cs455.scaling.threadpool.AffinityTaskSource;
+import cs455.scaling.threadpool.FairTaskSource;
+import cs455.scaling.threadpool.task.WireProtocol;
+import cs455.scaling.utility.Util;
+import cs455.scaling.utility.buffer.BufferPool;
+import cs455.scaling.utility.timer.TimingWheel;
+
 import java.io.IOException;
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SocketChannel;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
  * A ClientInfo class
@@ -14,21 +22,114 @@ import java.util.LinkedList;
  */
 public class ClientInfo
 {
+    /**
+     * Maximum number of pending writes handed to a single gathering write
+     */
+    private static final int MAX_WRITE_BATCH = 64;
+
+    /**
+     * Default number of pending writes at which reading from the client is suspended, and the
+     * number it must drain to before reading resumes
+     */
+    public static final int DEFAULT_WRITE_HIGH_WATER = 64;
+    public static final int DEFAULT_WRITE_LOW_WATER = 16;
+
+    /**
+     * Initial capacity of the pending write ring, a power of two
+     */
+    private static final int INITIAL_PENDING_CAPACITY = 16;
+
     /**
      * Channel associated with this client
      */
     private final Channel channel;
 
     /**
-     * Deque to be used for pending information to be written to the client
+     * Ring of pending information to be written to the client, with the System.nanoTime() each
+     * message was read at alongside, or 0 for writes that do not answer a message. The ring
+     * doubles when full so queueing a write allocates nothing in the steady state.
+     */
+    private ByteBuffer[] pendingWrites;
+    private long[] pendingWriteTimes;
+
+    /**
+     * Index of the oldest pending write and the number of pending writes in the ring
+     */
+    private int pendingHead;
+    private int pendingCount;
+
+    /**
+     * ServerMetrics to report messages and the closing of the connection to, null if not counted
+     */
+    private final ServerMetrics metrics;
+
+    /**
+     * boolean denoting whether the connection has been closed
+     */
+    private boolean disconnected;
+
+    /**
+     * Pending write counts at which reading is suspended and resumed again
+     */
+    private int writeHighWater;
+    private int writeLowWater;
+
+    /**
+     * boolean denoting whether reading is suspended until the write backlog drains
+     */
+    private boolean readSuspended;
+
+    /**
+     * Timer of the client on its selector thread's TimingWheel, created once and rescheduled
+     */
+    private final TimingWheel.Timer timer;
+
+    /**
+     * Lane of the client's tasks under affinity dispatch
+     */
+    private final AffinityTaskSource.Affinity affinity;
+
+    /**
+     * Queue of the client's tasks under fair dispatch
+     */
+    private final FairTaskSource.Flow flow;
+
+    /**
+     * System.nanoTime() of the last read that returned data, and of the first bytes of the message
+     * being read or 0 between messages. Written by the tasks and read by the selector thread when
+     * the timer comes due, so resetting a deadline is a single write and never touches the wheel.
      */
-    private final Deque<byte[]> pendingWriteList;
+    private volatile long lastReadTime;
+    private volatile long frameStartTime;
 
     /**
      * SocketAddress of the remote client
      */
     private final SocketAddress remoteAddress;
 
+    /**
+     * Buffer accumulating the message currently being read, null between messages. Only one
+     * task works on a client at a time, and the hand-off between them goes through the selector,
+     * so it needs no locking.
+     */
+    private ByteBuffer readBuffer;
+
+    /**
+     * Array reused to gather the pending writes into a single write call
+     */
+    private final ByteBuffer[] writeBatch;
+
+    /**
+     * WireProtocol version negotiated with the client, and the flags accepted with it
+     */
+    private volatile byte protocolVersion;
+    private volatile byte protocolFlags;
+
+    /**
+     * Sequence number of the next message from the client
+     */
+    private long sequence;
+
 
 
     /**
@@ -37,20 +138,57 @@ public class ClientInfo
      * @param channel <code>Channel</code> of the incoming connection for client info to be processed from.
      */
     public ClientInfo(Channel channel) throws IOException
+    {
+        this(channel, null);
+    }
+
+    /**
+     * Constructor that takes a channel and gathers all client connection info
+     *
+     * @param channel <code>Channel</code> of the incoming connection for client info to be processed from.
+     * @param metrics <code>ServerMetrics</code> to report the connection's messages to, or null.
+     */
+    public ClientInfo(Channel channel, ServerMetrics metrics) throws IOException
+    {
+        this(channel, ((SocketChannel) channel).getRemoteAddress(), metrics);
+    }
+
+    /**
+     * Constructor for a channel of any kind, such as an AsynchronousSocketChannel
+     *
+     * @param channel       <code>Channel</code> of the incoming connection.
+     * @param remoteAddress <code>SocketAddress</code> of the remote client.
+     * @param metrics       <code>ServerMetrics</code> to report the connection's messages to, or null.
+     */
+    public ClientInfo(Channel channel, SocketAddress remoteAddress, ServerMetrics metrics)
     {
         this.channel = channel;
-        this.remoteAddress = ((SocketChannel) channel).getRemoteAddress();
-        pendingWriteList = new LinkedList<byte[]>();
+        this.metrics = metrics;
+        this.remoteAddress = remoteAddress;
+        pendingWrites = new ByteBuffer[INITIAL_PENDING_CAPACITY];
+        pendingWriteTimes = new long[INITIAL_PENDING_CAPACITY];
+        writeHighWater = DEFAULT_WRITE_HIGH_WATER;
+        writeLowWater = DEFAULT_WRITE_LOW_WATER;
+        timer = new TimingWheel.Timer(this);
+        affinity = new AffinityTaskSource.Affinity();
+        flow = new FairTaskSource.Flow();
+        lastReadTime = System.nanoTime();
+        writeBatch = new ByteBuffer[MAX_WRITE_BATCH];
+        protocolVersion = WireProtocol.UNNEGOTIATED;
     }
 
     /**
-     * Method to return the entire pending write list to be written to the client.
+     * Method to return the next pending write to be written to the client. The caller owns
+     * the buffer and releases it to the BufferPool once written.
      *
-     * @return <code>Deque<byte[]></code> containing all of the pending writes to the client.
+     * @return <code>ByteBuffer</code> ready to be written to the client.
      */
-    public synchronized byte[] getPendingWrite()
+    public synchronized ByteBuffer getPendingWrite()
     {
-        return pendingWriteList.poll();
+        if (pendingCount == 0)
+            return null;
+
+        return pollPendingWrite();
     }
 
     /**
@@ -60,7 +198,157 @@ public class ClientInfo
      */
     public synchronized void addPendingWrite(byte[] pendingWrite)
     {
-        pendingWriteList.add(pendingWrite);
+        offerPendingWrite(ByteBuffer.wrap(pendingWrite), 0);
+    }
+
+    /**
+     * Method to add a buffer, flipped and ready to be written, to the pending write list for this
+     * client. Ownership of the buffer passes to this client until it is written.
+     *
+     * @param pendingWrite <code>ByteBuffer</code> of data to be added to this clients pending write list.
+     */
+    public synchronized void addPendingWrite(ByteBuffer pendingWrite)
+    {
+        offerPendingWrite(pendingWrite, 0);
+    }
+
+    /**
+     * Method to add the response to a message to the pending write list for this client. Once
+     * it is written in full the message is counted with the time since it was read.
+     *
+     * @param pendingWrite <code>ByteBuffer</code> of the response, flipped and ready to be written.
+     * @param readTime     <code>long</code> System.nanoTime() the message was read in full at.
+     */
+    public synchronized void addPendingWrite(ByteBuffer pendingWrite, long readTime)
+    {
+        offerPendingWrite(pendingWrite, readTime);
+    }
+
+    /**
+     * Method to put a write on the tail of the ring, growing it if full. Callers hold the lock.
+     *
+     * @param pendingWrite <code>ByteBuffer</code> to be written.
+     * @param readTime     <code>long</code> System.nanoTime() of the message it answers, or 0.
+     */
+    private void offerPendingWrite(ByteBuffer pendingWrite, long readTime)
+    {
+        if (pendingCount == pendingWrites.length)
+        {
+            ByteBuffer[] writes = new ByteBuffer[pendingCount * 2];
+            long[] times = new long[pendingCount * 2];
+
+            for (int i = 0; i < pendingCount; ++i)
+            {
+                int index = (pendingHead + i) & (pendingCount - 1);
+
+                writes[i] = pendingWrites[index];
+                times[i] = pendingWriteTimes[index];
+            }
+
+            pendingWrites = writes;
+            pendingWriteTimes = times;
+            pendingHead = 0;
+        }
+
+        int tail = (pendingHead + pendingCount) & (pendingWrites.length - 1);
+
+        pendingWrites[tail] = pendingWrite;
+        pendingWriteTimes[tail] = readTime;
+        ++pendingCount;
+    }
+
+    /**
+     * Method to take the write off the head of the ring. Callers hold the lock and know it is not empty.
+     *
+     * @return <code>ByteBuffer</code> of the oldest pending write.
+     */
+    private ByteBuffer pollPendingWrite()
+    {
+        ByteBuffer pendingWrite = pendingWrites[pendingHead];
+
+        pendingWrites[pendingHead] = null;
+        pendingHead = (pendingHead + 1) & (pendingWrites.length - 1);
+        --pendingCount;
+
+        return pendingWrite;
+    }
+
+    /**
+     * Method to write as much of the pending write list as the channel will take in a single
+     * gathering write. Buffers written in full are released to the pool, a partially written
+     * buffer stays at the head of the list with its position marking where to carry on from.
+     *
+     * Only one thread may write for a client at a time, others may keep adding pending writes.
+     *
+     * @param channel <code>GatheringByteChannel</code> to write to.
+     * @return <code>long</code> of the number of bytes written.
+     * @throws IOException
+     */
+    public long writePendingWrites(GatheringByteChannel channel) throws IOException
+    {
+        int count = preparePendingWrites(writeBatch);
+
+        if (count == 0)
+            return 0;
+
+        long written;
+
+        try
+        {
+            written = channel.write(writeBatch, 0, count);
+        }
+        finally
+        {
+            completePendingWrites(writeBatch, count);
+        }
+
+        return written;
+    }
+
+    /**
+     * Method to gather the oldest pending writes into an array for a gathering write done by the
+     * caller, who then hands the same array to completePendingWrites. The buffers stay on the list
+     * meanwhile, as new writes only ever go on the tail.
+     *
+     * @param batch <code>ByteBuffer[]</code> to fill from index 0, up to its length.
+     * @return <code>int</code> of the number of buffers gathered.
+     */
+    public synchronized int preparePendingWrites(ByteBuffer[] batch)
+    {
+        int count = Math.min(pendingCount, batch.length);
+
+        for (int i = 0; i < count; ++i)
+            batch[i] = pendingWrites[(pendingHead + i) & (pendingWrites.length - 1)];
+
+        return count;
+    }
+
+    /**
+     * Method to finish a gathering write started with preparePendingWrites. Buffers written in full
+     * are released to the pool and counted as processed messages, and the array is cleared.
+     *
+     * @param batch <code>ByteBuffer[]</code> filled by preparePendingWrites.
+     * @param count <code>int</code> of the number of buffers it gathered.
+     */
+    public void completePendingWrites(ByteBuffer[] batch, int count)
+    {
+        long now = metrics == null ? 0 : System.nanoTime();
+
+        synchronized (this)
+        {
+            // drop every buffer that went out in full
+            for (int i = 0; i < count && !batch[i].hasRemaining(); ++i)
+            {
+                long readTime = pendingWriteTimes[pendingHead];
+
+                BufferPool.getPoolInstance().release(pollPendingWrite());
+
+                if (readTime != 0 && metrics != null)
+                    metrics.messageProcessed(now - readTime);
+            }
+        }
+
+        Arrays.fill(batch, 0, count, null);
     }
 
     /**
@@ -70,17 +358,229 @@ public class ClientInfo
      */
     public synchronized boolean hasWrites()
     {
-        return pendingWriteList.size() > 0;
+        return pendingCount > 0;
+    }
+
+    /**
+     * Mutator for the write backlog limits of this client
+     *
+     * @param highWater <code>int</code> of the pending writes at which reading is suspended.
+     * @param lowWater  <code>int</code> of the pending writes below which reading resumes.
+     */
+    public synchronized void setWriteWaterMarks(int highWater, int lowWater)
+    {
+        writeHighWater = highWater;
+        writeLowWater = lowWater;
+    }
+
+    /**
+     * Method to determine if more should be read from the client. Reading stops once the write
+     * backlog reaches the high water mark, as a client not reading its hashes would otherwise grow
+     * it without bound, and only resumes once the backlog has drained to the low water mark.
+     *
+     * @return <code>boolean</code> denoting whether the client may be read from.
+     */
+    public synchronized boolean shouldRead()
+    {
+        if (readSuspended)
+            readSuspended = pendingCount > writeLowWater;
+        else
+            readSuspended = pendingCount >= writeHighWater;
+
+        return !readSuspended;
+    }
+
+    /**
+     * Accessor for the buffer accumulating the message currently being read. A buffer is borrowed
+     * from the pool when a new message starts, its position is the number of bytes read so far.
+     *
+     * @return <code>ByteBuffer</code> holding the partial message.
+     */
+    public ByteBuffer getReadBuffer()
+    {
+        if (readBuffer == null)
+            readBuffer = BufferPool.getPoolInstance().acquire(Util.BUFFER_SIZE);
+
+        return readBuffer;
+    }
+
+    /**
+     * Method to determine if part of a message has been read but not the whole of it
+     *
+     * @return <code>boolean</code> denoting whether a message is partially read.
+     */
+    public boolean hasPartialRead()
+    {
+        return readBuffer != null && readBuffer.position() > 0;
     }
 
     /**
-     * Method to disconnect from the current client
+     * Method to return the read buffer to the pool once its message is complete, or when
+     * the client has nothing more to send for now.
+     */
+    public void releaseReadBuffer()
+    {
+        BufferPool.getPoolInstance().release(readBuffer);
+        readBuffer = null;
+    }
+
+    /**
+     * Method to note that data has been read from the client and whether it left a message
+     * partially read, resetting the read idle and message completion deadlines.
+     *
+     * @param now      <code>long</code> System.nanoTime() of the read.
+     * @param complete <code>boolean</code> denoting whether the read left no partial message.
+     */
+    public void recordRead(long now, boolean complete)
+    {
+        lastReadTime = now;
+
+        if (complete)
+            frameStartTime = 0;
+        else if (frameStartTime == 0)
+            frameStartTime = now;
+    }
+
+    /**
+     * Method to work out when the client is due to be timed out
+     *
+     * @param idleTimeout  <code>long</code> of the nanoseconds a client may send nothing, 0 for no limit.
+     * @param frameTimeout <code>long</code> of the nanoseconds a client may take to send a whole message,
+     *                     0 for no limit.
+     * @return <code>long</code> System.nanoTime() of the deadline, Long.MAX_VALUE for none.
+     */
+    public long getDeadline(long idleTimeout, long frameTimeout)
+    {
+        long deadline = Long.MAX_VALUE;
+        long frameStart = frameStartTime;
+
+        if (idleTimeout > 0)
+            deadline = lastReadTime + idleTimeout;
+
+        if (frameTimeout > 0 && frameStart != 0)
+            deadline = Math.min(deadline, frameStart + frameTimeout);
+
+        return deadline;
+    }
+
+    /**
+     * Method to determine if the client is part way through sending a message
+     *
+     * @return <code>boolean</code> denoting whether a message has been started but not finished.
+     */
+    public boolean isFrameStarted()
+    {
+        return frameStartTime != 0;
+    }
+
+    /**
+     * Accessor for the channel of the client
+     *
+     * @return <code>Channel</code> given at construction.
+     */
+    public Channel getChannel()
+    {
+        return channel;
+    }
+
+    /**
+     * Accessor for the client's timer on its selector thread's TimingWheel
+     *
+     * @return <code>TimingWheel.Timer</code> of the client.
+     */
+    public TimingWheel.Timer getTimer()
+    {
+        return timer;
+    }
+
+    /**
+     * Accessor for the lane affinity of the client's tasks
+     *
+     * @return <code>AffinityTaskSource.Affinity</code> of the client.
+     */
+    public AffinityTaskSource.Affinity getAffinity()
+    {
+        return affinity;
+    }
+
+    /**
+     * Accessor for the queue of the client's tasks under fair dispatch
+     *
+     * @return <code>FairTaskSource.Flow</code> of the client.
+     */
+    public FairTaskSource.Flow getFlow()
+    {
+        return flow;
+    }
+
+    /**
+     * Accessor for the WireProtocol version negotiated with the client
+     *
+     * @return <code>byte</code> of the version, WireProtocol.UNNEGOTIATED until settled.
+     */
+    public byte getProtocolVersion()
+    {
+        return protocolVersion;
+    }
+
+    /**
+     * Accessor for the WireProtocol flags accepted for the client
+     *
+     * @return <code>byte</code> of the flags.
+     */
+    public byte getProtocolFlags()
+    {
+        return protocolFlags;
+    }
+
+    /**
+     * Method to settle the WireProtocol version and flags used with the client
+     *
+     * @param version <code>byte</code> of the version.
+     * @param flags   <code>byte</code> of the flags.
+     */
+    public void setProtocol(byte version, byte flags)
+    {
+        protocolFlags = flags;
+        protocolVersion = version;
+    }
+
+    /**
+     * Method to get the sequence number of the next message from the client
+     *
+     * @return <code>long</code> sequence number, starting at 0.
+     */
+    public long nextSequence()
+    {
+        return sequence++;
+    }
+
+    /**
+     * Method to disconnect from the current client, returning any unwritten buffers to the pool
      *
      * @throws IOException
      */
     public void disconnect() throws IOException
     {
         channel.close();
+
+        if (readBuffer != null)
+            releaseReadBuffer();
+
+        synchronized (this)
+        {
+            while (pendingCount > 0)
+                BufferPool.getPoolInstance().release(pollPendingWrite());
+
+            // count the connection once however many times it is closed
+            if (disconnected)
+                return;
+
+            disconnected = true;
+        }
+
+        if (metrics != null)
+            metrics.connectionClosed();
     }
 
     /**
@@ -89,6 +589,6 @@ public class ClientInfo
      */
     public String getRemoteAddress()
     {
-        return remoteAddress.toString();
+        return String.valueOf(remoteAddress);
     }
 }
@@ -0,0 +1,120 @@
+package cs455.scaling.server;
+
+import cs455.scaling.threadpool.task.WireProtocol;
+import cs455.scaling.utility.HashUtil;
+import cs455.scaling.utility.buffer.BufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A MessageCodec class holding the server side of the wire protocol: negotiating the
+ * protocol version with a new client and encoding the hash of each message the way
+ * the client asked for it.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class MessageCodec
+{
+
+    private MessageCodec()
+    {
+
+    }
+
+    /**
+     * Method to settle the protocol version of a client from the first bytes it sent. A client
+     * opening with a handshake has it taken out of the read buffer and an acknowledgement queued
+     * for it, any other client is a legacy hex client.
+     *
+     * @param clientInfo <code>ClientInfo</code> of the client.
+     * @param readBuffer <code>ByteBuffer</code> holding what has been read from the client so far.
+     * @return <code>boolean</code> denoting whether the version is settled, false if more bytes are needed.
+     */
+    public static boolean negotiate(ClientInfo clientInfo, ByteBuffer readBuffer)
+    {
+        if (clientInfo.getProtocolVersion() != WireProtocol.UNNEGOTIATED)
+            return true;
+
+        // IF there are not enough bytes yet to tell a handshake from data
+        if (readBuffer.position() < WireProtocol.HANDSHAKE_LENGTH)
+            return false;
+
+        if (readBuffer.getLong(0) != WireProtocol.HANDSHAKE_MAGIC)
+        {
+            clientInfo.setProtocol(WireProtocol.HEX_VERSION, (byte) 0);
+            return true;
+        }
+
+        byte version = readBuffer.get(8);
+        byte flags = 0;
+
+        // IF the client asked for something newer than we know, fall back to the newest we have
+        if (version >= WireProtocol.BINARY_VERSION)
+        {
+            version = WireProtocol.BINARY_VERSION;
+            flags = (byte) (readBuffer.get(9) & WireProtocol.SEQUENCE_FLAG);
+        }
+        else
+            version = WireProtocol.HEX_VERSION;
+
+        clientInfo.setProtocol(version, flags);
+
+        ByteBuffer acknowledgement = BufferPool.getPoolInstance().acquire(WireProtocol.HANDSHAKE_LENGTH);
+        acknowledgement.putLong(WireProtocol.HANDSHAKE_MAGIC).put(version).put(flags);
+        acknowledgement.flip();
+
+        clientInfo.addPendingWrite(acknowledgement);
+
+        // take the handshake out, keeping anything the client sent after it
+        readBuffer.flip();
+        readBuffer.position(WireProtocol.HANDSHAKE_LENGTH);
+        readBuffer.compact();
+
+        return true;
+    }
+
+    /**
+     * Method to get the length of the response to a message in the client's protocol
+     *
+     * @param clientInfo <code>ClientInfo</code> of the client.
+     * @return <code>int</code> of the response length in bytes.
+     */
+    public static int responseLength(ClientInfo clientInfo)
+    {
+        if (clientInfo.getProtocolVersion() != WireProtocol.BINARY_VERSION)
+            return HashUtil.HEX_DIGEST_LENGTH;
+
+        if ((clientInfo.getProtocolFlags() & WireProtocol.SEQUENCE_FLAG) != 0)
+            return WireProtocol.SEQUENCE_LENGTH + HashUtil.DIGEST_LENGTH;
+
+        return HashUtil.DIGEST_LENGTH;
+    }
+
+    /**
+     * Method to hash a message and encode the response in the client's protocol.
+     *
+     * @param clientInfo <code>ClientInfo</code> of the client.
+     * @param message    <code>ByteBuffer</code> holding the message. Its position is moved to its limit.
+     * @return <code>ByteBuffer</code> borrowed from the BufferPool holding the response, ready to be written.
+     */
+    public static ByteBuffer encodeResponse(ClientInfo clientInfo, ByteBuffer message)
+    {
+        ByteBuffer response = BufferPool.getPoolInstance().acquire(responseLength(clientInfo));
+
+        long sequence = clientInfo.nextSequence();
+
+        if (clientInfo.getProtocolVersion() != WireProtocol.BINARY_VERSION)
+            HashUtil.digestHex(message, response);
+        else
+        {
+            if ((clientInfo.getProtocolFlags() & WireProtocol.SEQUENCE_FLAG) != 0)
+                response.putLong(sequence);
+
+            HashUtil.digest(message, response);
+        }
+
+        response.flip();
+
+        return response;
+    }
+}
@@ -0,0 +1,97 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.logging.Log;
+import cs455.scaling.utility.metrics.HistogramSnapshot;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A MetricsReporter class that logs a one line summary of the server's metrics every
+ * interval, covering what happened since the previous line.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class MetricsReporter implements Runnable
+{
+    /**
+     * Server whose metrics are reported
+     */
+    private final Server server;
+
+    /**
+     * long of the milliseconds between reports
+     */
+    private final long intervalMillis;
+
+    /**
+     * Format for the wall clock time at the start of a report
+     */
+    private final SimpleDateFormat timeFormat;
+
+
+    /**
+     * Constructor
+     *
+     * @param server          <code>Server</code> whose metrics are reported.
+     * @param intervalSeconds <code>int</code> of the seconds between reports.
+     */
+    public MetricsReporter(Server server, int intervalSeconds)
+    {
+        this.server = server;
+        this.intervalMillis = intervalSeconds * 1000L;
+        timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Override
+    public void run()
+    {
+        MetricsSnapshot previous = server.getMetricsSnapshot();
+
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                Thread.sleep(intervalMillis);
+
+                MetricsSnapshot current = server.getMetricsSnapshot();
+
+                Log.info(format(current, previous));
+
+                previous = current;
+            }
+        }
+        catch (InterruptedException ie)
+        {
+            // shutting down
+        }
+    }
+
+    /**
+     * Method to build the report line for the interval between two snapshots
+     *
+     * @param current  <code>MetricsSnapshot</code> at the end of the interval.
+     * @param previous <code>MetricsSnapshot</code> at the start of the interval.
+     * @return <code>String</code> of the report.
+     */
+    private String format(MetricsSnapshot current, MetricsSnapshot previous)
+    {
+        HistogramSnapshot latency = current.getMessageLatency().since(previous.getMessageLatency());
+
+        return String.format("[%s] Current Server Throughput: %.1f messages/s, Active Client Connections: %d, "
+                        + "Pending Tasks: %d, Pool Threads: %d, Worker Utilization: %.1f%%, "
+                        + "Latency us p50/p90/p99/p99.9/max: %d/%d/%d/%d/%d, Loop Iterations per Event: %.2f",
+                timeFormat.format(new Date()),
+                current.getThroughputSince(previous),
+                current.getActiveConnections(),
+                current.getPendingTasks(),
+                current.getPoolSize(),
+                current.getWorkerUtilizationSince(previous) * 100,
+                latency.getValueAtPercentile(50) / 1000,
+                latency.getValueAtPercentile(90) / 1000,
+                latency.getValueAtPercentile(99) / 1000,
+                latency.getValueAtPercentile(99.9) / 1000,
+                latency.getMax() / 1000,
+                current.getLoopIterationsPerEventSince(previous));
+    }
+}
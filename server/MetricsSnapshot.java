@@ -0,0 +1,214 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.metrics.HistogramSnapshot;
+
+/**
+ * A MetricsSnapshot class holding the server's counters and gauges as they were at one
+ * moment. Counters only ever grow, so the difference between two snapshots gives the
+ * rates over the time between them.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class MetricsSnapshot
+{
+    /**
+     * System.nanoTime() when the snapshot was taken
+     */
+    private final long timestamp;
+
+    /**
+     * Count of the messages processed so far
+     */
+    private final long messagesProcessed;
+
+    /**
+     * Number of connections open
+     */
+    private final long activeConnections;
+
+    /**
+     * Number of tasks waiting for a worker
+     */
+    private final int pendingTasks;
+
+    /**
+     * Number of worker threads in the pool
+     */
+    private final int poolSize;
+
+    /**
+     * Nanoseconds the workers have spent running tasks so far
+     */
+    private final long workerBusyNanos;
+
+    /**
+     * Counts of the selector loop iterations and events dispatched so far, over all reactors
+     */
+    private final long loopIterations;
+    private final long eventsDispatched;
+
+    /**
+     * Latencies in nanoseconds from a message being read to its hash being written
+     */
+    private final HistogramSnapshot messageLatency;
+
+
+    /**
+     * Constructor
+     *
+     * @param timestamp         <code>long</code> System.nanoTime() of the snapshot.
+     * @param messagesProcessed <code>long</code> count of the messages processed.
+     * @param activeConnections <code>long</code> number of connections open.
+     * @param pendingTasks      <code>int</code> number of tasks waiting for a worker.
+     * @param poolSize          <code>int</code> number of worker threads.
+     * @param workerBusyNanos   <code>long</code> nanoseconds the workers have spent on tasks.
+     * @param loopIterations    <code>long</code> count of the selector loop iterations.
+     * @param eventsDispatched  <code>long</code> count of the events dispatched.
+     * @param messageLatency    <code>HistogramSnapshot</code> of the message latencies.
+     */
+    MetricsSnapshot(long timestamp, long messagesProcessed, long activeConnections, int pendingTasks, int poolSize,
+                    long workerBusyNanos, long loopIterations, long eventsDispatched, HistogramSnapshot messageLatency)
+    {
+        this.timestamp = timestamp;
+        this.messagesProcessed = messagesProcessed;
+        this.activeConnections = activeConnections;
+        this.pendingTasks = pendingTasks;
+        this.poolSize = poolSize;
+        this.workerBusyNanos = workerBusyNanos;
+        this.loopIterations = loopIterations;
+        this.eventsDispatched = eventsDispatched;
+        this.messageLatency = messageLatency;
+    }
+
+    /**
+     * Accessor for when the snapshot was taken
+     *
+     * @return <code>long</code> System.nanoTime() of the snapshot.
+     */
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    /**
+     * Accessor for the count of the messages processed
+     *
+     * @return <code>long</code> of the number of messages.
+     */
+    public long getMessagesProcessed()
+    {
+        return messagesProcessed;
+    }
+
+    /**
+     * Accessor for the number of connections open
+     *
+     * @return <code>long</code> of the number of connections.
+     */
+    public long getActiveConnections()
+    {
+        return activeConnections;
+    }
+
+    /**
+     * Accessor for the number of tasks waiting for a worker
+     *
+     * @return <code>int</code> of the number of tasks.
+     */
+    public int getPendingTasks()
+    {
+        return pendingTasks;
+    }
+
+    /**
+     * Accessor for the number of worker threads
+     *
+     * @return <code>int</code> of the number of threads.
+     */
+    public int getPoolSize()
+    {
+        return poolSize;
+    }
+
+    /**
+     * Accessor for the time the workers have spent running tasks
+     *
+     * @return <code>long</code> of the nanoseconds.
+     */
+    public long getWorkerBusyNanos()
+    {
+        return workerBusyNanos;
+    }
+
+    /**
+     * Accessor for the count of the selector loop iterations
+     *
+     * @return <code>long</code> of the number of iterations.
+     */
+    public long getLoopIterations()
+    {
+        return loopIterations;
+    }
+
+    /**
+     * Accessor for the count of the events dispatched to the pool
+     *
+     * @return <code>long</code> of the number of events.
+     */
+    public long getEventsDispatched()
+    {
+        return eventsDispatched;
+    }
+
+    /**
+     * Accessor for the message latencies
+     *
+     * @return <code>HistogramSnapshot</code> of the latencies in nanoseconds.
+     */
+    public HistogramSnapshot getMessageLatency()
+    {
+        return messageLatency;
+    }
+
+    /**
+     * Method to get the messages processed per second since an earlier snapshot
+     *
+     * @param earlier <code>MetricsSnapshot</code> taken before this one.
+     * @return <code>double</code> of the messages per second.
+     */
+    public double getThroughputSince(MetricsSnapshot earlier)
+    {
+        long elapsed = timestamp - earlier.timestamp;
+
+        return elapsed <= 0 ? 0 : (messagesProcessed - earlier.messagesProcessed) * 1e9 / elapsed;
+    }
+
+    /**
+     * Method to get the fraction of the pool's time spent running tasks since an earlier snapshot
+     *
+     * @param earlier <code>MetricsSnapshot</code> taken before this one.
+     * @return <code>double</code> between 0 and 1.
+     */
+    public double getWorkerUtilizationSince(MetricsSnapshot earlier)
+    {
+        long elapsed = timestamp - earlier.timestamp;
+
+        if (elapsed <= 0 || poolSize == 0)
+            return 0;
+
+        return Math.min(1.0, (double) (workerBusyNanos - earlier.workerBusyNanos) / ((double) elapsed * poolSize));
+    }
+
+    /**
+     * Method to get the selector loop iterations per event dispatched since an earlier snapshot
+     *
+     * @param earlier <code>MetricsSnapshot</code> taken before this one.
+     * @return <code>double</code> of the iterations per event.
+     */
+    public double getLoopIterationsPerEventSince(MetricsSnapshot earlier)
+    {
+        long events = eventsDispatched - earlier.eventsDispatched;
+
+        return events == 0 ? 0 : (double) (loopIterations - earlier.loopIterations) / events;
+    }
+}
@@ -0,0 +1,521 @@
+package cs455.scaling.server;
+
+import cs455.scaling.threadpool.ThreadPoolManager;
+import cs455.scaling.threadpool.task.Protocol;
+import cs455.scaling.utility.OpsChangeRequest;
+import cs455.scaling.utility.concurrent.MpscQueue;
+import cs455.scaling.utility.logging.Log;
+import cs455.scaling.utility.timer.TimeoutHandler;
+import cs455.scaling.utility.timer.TimingWheel;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Reactor class owning a Selector and dispatching the read and write events of its
+ * connections to the thread pool. A reactor either accepts connections itself, or is
+ * handed connections accepted by an Acceptor. Connections that go quiet or take too long over
+ * a message are closed from a TimingWheel the selector thread advances every loop.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class Reactor implements Runnable, ServerClient, TimeoutHandler
+{
+    /**
+     * Milliseconds to wait in select while reads are held back, before checking the pool again
+     */
+    private static final long SATURATED_SELECT_TIMEOUT = 1;
+
+    /**
+     * Nanoseconds covered by a slot of the timing wheel, and the number of slots
+     */
+    private static final long TIMER_TICK = 100_000_000L;
+    private static final int TIMER_SLOTS = 512;
+
+    /**
+     * Selector to be used for this reactor's connections
+     */
+    private final Selector selector;
+
+    /**
+     * ThreadPoolManager to be used to process incoming messages
+     */
+    private final ThreadPoolManager threadPoolManager;
+
+    /**
+     * Lock-free queue for pending selector key changes, drained by the selector thread
+     */
+    private final MpscQueue<OpsChangeRequest> pendingChanges;
+
+    /**
+     * Flag set once someone has woken the selector up for this select cycle, so at most
+     * one wakeup call is made per cycle however many changes are posted
+     */
+    private final AtomicBoolean wakeupPending;
+
+    /**
+     * Queue for accepted channels waiting to be registered with the selector
+     */
+    private final Queue<SocketChannel> pendingRegistrations;
+
+    /**
+     * Count of all connections accepted by the server
+     */
+    private final AtomicInteger connectionCount;
+
+    /**
+     * ServerMetrics the connections report to
+     */
+    private final ServerMetrics metrics;
+
+    /**
+     * Keys whose reads are held back until the thread pool has room, oldest first. Their
+     * interest ops are 0 meanwhile, so nothing else touches them.
+     */
+    private final Queue<SelectionKey> deferredReads;
+
+    /**
+     * Write backlog limits given to every new client
+     */
+    private volatile int writeHighWater;
+    private volatile int writeLowWater;
+
+    /**
+     * TimingWheel holding a timer for every client while timeouts are on, owned by the selector thread
+     */
+    private final TimingWheel timingWheel;
+
+    /**
+     * Nanoseconds a client may send nothing, and may take over one message, 0 for no limit
+     */
+    private volatile long idleTimeout;
+    private volatile long frameTimeout;
+
+    /**
+     * Counts of the selector loop iterations and of the read and write events dispatched,
+     * written by the selector thread only
+     */
+    private volatile long loopIterations;
+    private volatile long eventsDispatched;
+
+
+    /**
+     * Constructor
+     *
+     * @param threadPoolManager <code>ThreadPoolManager</code> to process the incoming messages.
+     * @param connectionCount   <code>AtomicInteger</code> counting the connections of the whole server.
+     * @param metrics           <code>ServerMetrics</code> of the whole server.
+     * @throws IOException if the selector cannot be opened.
+     */
+    public Reactor(ThreadPoolManager threadPoolManager, AtomicInteger connectionCount, ServerMetrics metrics)
+            throws IOException
+    {
+        this.threadPoolManager = threadPoolManager;
+        this.connectionCount = connectionCount;
+        this.metrics = metrics;
+        selector = SelectorProvider.provider().openSelector();
+        pendingChanges = new MpscQueue<OpsChangeRequest>();
+        wakeupPending = new AtomicBoolean();
+        pendingRegistrations = new LinkedList<SocketChannel>();
+        deferredReads = new ArrayDeque<SelectionKey>();
+        writeHighWater = ClientInfo.DEFAULT_WRITE_HIGH_WATER;
+        writeLowWater = ClientInfo.DEFAULT_WRITE_LOW_WATER;
+        timingWheel = new TimingWheel(TIMER_TICK, TIMER_SLOTS, System.nanoTime());
+    }
+
+    /**
+     * Mutator for the write backlog limits given to the clients registered from now on
+     *
+     * @param highWater <code>int</code> of the pending writes at which reading from a client is suspended.
+     * @param lowWater  <code>int</code> of the pending writes below which reading resumes.
+     */
+    public void setWriteWaterMarks(int highWater, int lowWater)
+    {
+        writeHighWater = highWater;
+        writeLowWater = lowWater;
+    }
+
+    /**
+     * Mutator for the timeouts applied to the clients registered from now on
+     *
+     * @param idleTimeout  <code>long</code> of the nanoseconds a client may send nothing, 0 for no limit.
+     * @param frameTimeout <code>long</code> of the nanoseconds a client may take to send a whole message,
+     *                     0 for no limit.
+     */
+    public void setTimeouts(long idleTimeout, long frameTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+        this.frameTimeout = frameTimeout;
+    }
+
+    /**
+     * Method to have this reactor accept the connections of a non-blocking server socket channel itself.
+     *
+     * @param serverSocketChannel <code>ServerSocketChannel</code> to accept connections from.
+     * @throws IOException
+     */
+    public void listen(ServerSocketChannel serverSocketChannel) throws IOException
+    {
+        serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Method to hand an accepted connection over to this reactor. Called from the acceptor thread.
+     *
+     * @param socketChannel <code>SocketChannel</code> of the accepted connection.
+     */
+    public void register(SocketChannel socketChannel)
+    {
+        synchronized (pendingRegistrations)
+        {
+            pendingRegistrations.add(socketChannel);
+        }
+
+        wakeup();
+    }
+
+    /**
+     * Method to wake the selector up unless someone already has this select cycle.
+     */
+    private void wakeup()
+    {
+        if (!wakeupPending.get() && wakeupPending.compareAndSet(false, true))
+            selector.wakeup();
+    }
+
+    /**
+     * Method to accept a connection from a client.
+     *
+     * @param key <code>SelectionKey</code> containing SocketChannel to be accepted.
+     * @throws IOException
+     */
+    private void accept(SelectionKey key) throws IOException
+    {
+        // For an accept to be pending the channel must be a server socket channel.
+        ServerSocketChannel serverSocketChannel = (ServerSocketChannel) key.channel();
+
+        // Accept the connection and make it non-blocking
+        SocketChannel socketChannel = serverSocketChannel.accept();
+        socketChannel.configureBlocking(false);
+
+        registerClient(socketChannel);
+
+        int connected = connectionCount.incrementAndGet();
+
+        if (Log.isInfoEnabled())
+            Log.info("CONNECTED: " + connected);
+    }
+
+    /**
+     * Method to register a non-blocking client connection with this reactor's selector.
+     *
+     * @param socketChannel <code>SocketChannel</code> of the client.
+     * @throws IOException
+     */
+    private void registerClient(SocketChannel socketChannel) throws IOException
+    {
+        /**
+         * ClientInfo containing the address, port, and channel of the client
+         */
+        ClientInfo client = new ClientInfo(socketChannel, metrics);
+        client.setWriteWaterMarks(writeHighWater, writeLowWater);
+
+        // hashes are written as soon as they are made, so do not hold a small one back for the last one's ack
+        socketChannel.socket().setTcpNoDelay(true);
+
+        socketChannel.register(this.selector, SelectionKey.OP_READ, client);
+
+        metrics.connectionOpened();
+
+        if (idleTimeout > 0 || frameTimeout > 0)
+            scheduleTimer(client, System.nanoTime());
+    }
+
+    /**
+     * Method to put a client's timer on the wheel for its next check. The tasks only note when
+     * they read, so a message started since the last check is only seen at the next one; checks
+     * are therefore never further apart than a quarter of the shortest timeout.
+     *
+     * @param client <code>ClientInfo</code> to schedule.
+     * @param now    <code>long</code> System.nanoTime() now.
+     */
+    private void scheduleTimer(ClientInfo client, long now)
+    {
+        long idle = idleTimeout;
+        long frame = frameTimeout;
+
+        long interval = idle > 0 && frame > 0 ? Math.min(idle, frame) : Math.max(idle, frame);
+        long check = now + Math.max(TIMER_TICK, interval / 4);
+
+        long deadline = client.getDeadline(idle, frame);
+
+        // IF the client is due before the next check, wake up for it instead
+        if (deadline != Long.MAX_VALUE && deadline - check < 0)
+            check = deadline;
+
+        timingWheel.schedule(client.getTimer(), check);
+    }
+
+    /**
+     * Method to check a client whose timer has come due, closing the connection if it has gone
+     * quiet or is taking too long over a message. Called from the selector thread.
+     *
+     * @param timer <code>TimingWheel.Timer</code> that came due.
+     * @param now   <code>long</code> System.nanoTime() now.
+     */
+    public void timedOut(TimingWheel.Timer timer, long now)
+    {
+        ClientInfo client = (ClientInfo) timer.getAttachment();
+        SelectionKey key = ((SocketChannel) client.getChannel()).keyFor(selector);
+
+        // IF the connection is already closed the timer is simply dropped
+        if (key == null || !key.isValid())
+            return;
+
+        // IF a task holds the client, or its read is held back, it is not the client's fault; look again shortly
+        if (key.interestOps() == 0)
+        {
+            timingWheel.schedule(timer, now + TIMER_TICK);
+            return;
+        }
+
+        long deadline = client.getDeadline(idleTimeout, frameTimeout);
+
+        if (deadline == Long.MAX_VALUE || deadline - now > 0)
+        {
+            scheduleTimer(client, now);
+            return;
+        }
+
+        if (Log.isInfoEnabled())
+            Log.info("TIMED OUT: " + client.getRemoteAddress()
+                    + (client.isFrameStarted() ? " did not finish a message in time" : " was idle too long"));
+
+        key.cancel();
+
+        try
+        {
+            client.disconnect();
+        }
+        catch (IOException ioe)
+        {
+            // the connection is being dropped anyway
+        }
+    }
+
+    /**
+     * Method to run the selector loop
+     */
+    public void run()
+    {
+        /**
+         * Try to be a Server
+         */
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                ++loopIterations;
+
+                // anything posted from here on needs a fresh wakeup to be seen
+                wakeupPending.set(false);
+
+                /**
+                 * Before we select the keys, register new connections and make changes to interest ops
+                 */
+                synchronized (pendingRegistrations)
+                {
+                    SocketChannel socketChannel;
+
+                    while ((socketChannel = pendingRegistrations.poll()) != null)
+                    {
+                        try
+                        {
+                            registerClient(socketChannel);
+                        }
+                        catch (IOException ioe)
+                        {
+                            // the client went away before we could register it
+                            socketChannel.close();
+                        }
+                    }
+                }
+
+                // Process any pending changes
+                OpsChangeRequest change;
+
+                while ((change = pendingChanges.poll()) != null)
+                {
+                    switch (change.type)
+                    {
+                        case OpsChangeRequest.CHANGEOPS:
+                            SelectionKey key = change.socket.keyFor(selector);
+
+                            // the key is gone if the client disconnected in the meantime
+                            if (key != null && key.isValid())
+                                key.interestOps(change.ops);
+                    }
+
+                    change.recycle();
+                }
+
+                // hand over the reads held back for as long as the pool has room
+                while (!deferredReads.isEmpty() && !threadPoolManager.isSaturated())
+                {
+                    SelectionKey key = deferredReads.poll();
+
+                    if (key.isValid())
+                        dispatch(Protocol.READ_TASK, key);
+                }
+
+                // Get the number of available channels, waking up for the pool if reads are held back and for the wheel
+                int readyChannels = selector.select(selectTimeout());
+
+                timingWheel.advance(System.nanoTime(), this);
+
+                // IF there is nothing to do yet
+                if (readyChannels == 0) continue;
+
+
+                /**
+                 * Set of all selected keys to be checked
+                 */
+                Set<SelectionKey> selectedKeys = selector.selectedKeys();
+                Iterator<SelectionKey> keyIterator = selectedKeys.iterator();
+
+
+                while (keyIterator.hasNext())
+                {
+
+                    SelectionKey key = keyIterator.next();
+                    keyIterator.remove();
+
+
+                    if (!key.isValid())
+                    {
+                        continue;
+                    }
+
+
+                    // IF the key was acceptable by the ServerSocketChannel
+                    if (key.isAcceptable())
+                    {
+                        accept(key);
+
+                    }
+                    // ELSE IF the key is ready to be written to with hashes waiting, which goes ahead of
+                    // reading so a client that never stops sending still gets its hashes back
+                    else if (key.isWritable() && ((ClientInfo) key.attachment()).hasWrites())
+                    {
+                        dispatch(Protocol.WRITE_TASK, key);
+
+                    }
+                    // ELSE IF the key is ready to read from and the pool has room for more work
+                    else if (key.isReadable() && !threadPoolManager.isSaturated())
+                    {
+                        dispatch(Protocol.READ_TASK, key);
+
+                    }
+                    // ELSE IF the key is ready to be written to, which drains work even when the pool is saturated
+                    else if (key.isWritable())
+                    {
+                        dispatch(Protocol.WRITE_TASK, key);
+
+                    }
+                    // ELSE IF the pool is saturated but hashes are waiting, write them rather than hold them back
+                    else if (key.isReadable() && ((ClientInfo) key.attachment()).hasWrites())
+                    {
+                        dispatch(Protocol.WRITE_TASK, key);
+
+                    }
+                    // ELSE the key is ready to read from but the pool is saturated, so hold the read back
+                    else if (key.isReadable())
+                    {
+                        key.interestOps(0);
+                        deferredReads.add(key);
+                    }
+                }
+            }
+
+        }
+        catch (IOException ioe)
+        {
+            ioe.printStackTrace();
+        }
+    }
+
+    /**
+     * Method to work out how long select may block for
+     *
+     * @return <code>long</code> of the milliseconds to wait, 0 to wait until woken up.
+     */
+    private long selectTimeout()
+    {
+        if (!deferredReads.isEmpty())
+            return SATURATED_SELECT_TIMEOUT;
+
+        if (timingWheel.isEmpty())
+            return 0;
+
+        // round up so select does not return just before the tick is over
+        return Math.max(1, (timingWheel.nanosUntilNextTick(System.nanoTime()) + 999_999) / 1_000_000);
+    }
+
+    /**
+     * Method to hand a key's event to the thread pool. Its interest ops are cleared until the
+     * task posts new ones, so no second task is created for it meanwhile.
+     *
+     * @param taskType <code>int</code> of the Protocol task type.
+     * @param key      <code>SelectionKey</code> of the connection.
+     */
+    private void dispatch(int taskType, SelectionKey key)
+    {
+        key.interestOps(0);
+        ++eventsDispatched;
+
+        threadPoolManager.dispatch(taskType, key, this);
+    }
+
+    /**
+     * Method to add an ops change request to this reactor's selector thread.
+     *
+     * @param opsChangeRequest <code>OpsChangeRequest</code> with the desired selector change request.
+     */
+    public void addOpsChangeRequest(OpsChangeRequest opsChangeRequest)
+    {
+        pendingChanges.offer(opsChangeRequest);
+
+        wakeup();
+    }
+
+    /**
+     * Accessor for the number of selector loop iterations so far
+     *
+     * @return <code>long</code> of the number of iterations.
+     */
+    public long getLoopIterations()
+    {
+        return loopIterations;
+    }
+
+    /**
+     * Accessor for the number of read and write events dispatched to the thread pool so far
+     *
+     * @return <code>long</code> of the number of events.
+     */
+    public long getEventsDispatched()
+    {
+        return eventsDispatched;
+    }
+}
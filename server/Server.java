@@ -1,23 +1,20 @@
 package cs455.scaling.server;
 
+import cs455.scaling.threadpool.ThreadPoolConfig;
+import cs455.scaling.threadpool.TaskExecutorService;
 import cs455.scaling.threadpool.ThreadPoolManager;
 import cs455.scaling.threadpool.exceptions.InvalidThreadCountException;
-import cs455.scaling.threadpool.task.Protocol;
-import cs455.scaling.threadpool.task.TaskFactory;
-import cs455.scaling.threadpool.task.Taskable;
-import cs455.scaling.utility.OpsChangeRequest;
+import cs455.scaling.utility.Options;
+import cs455.scaling.utility.logging.Log;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.ServerSocketChannel;
-import java.nio.channels.SocketChannel;
-import java.nio.channels.spi.SelectorProvider;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A Server class to listen to incoming connections from clients, accept data in the form
@@ -26,8 +23,28 @@ import java.util.Set;
  *
  * @author ahrtmn, 24 02 2014
  */
-public class Server implements Runnable, ServerClient
+public class Server implements Runnable
 {
+    /**
+     * Default seconds between metrics reports
+     */
+    public static final int DEFAULT_STATS_INTERVAL = 5;
+
+    /**
+     * Default seconds a client may send nothing (0 for no limit), and may take over one message
+     */
+    public static final int DEFAULT_IDLE_TIMEOUT = 0;
+    public static final int DEFAULT_FRAME_TIMEOUT = 30;
+
+    /**
+     * Engines serving the connections. The NIO engine runs selector reactors dispatching to
+     * the thread pool, the virtual engine serves each connection on a (virtual) thread of its own,
+     * and the async engines chain NIO.2 completions on a fixed channel group or on the thread pool.
+     */
+    public static final int NIO_ENGINE = 0;
+    public static final int VIRTUAL_ENGINE = 1;
+    public static final int ASYNC_ENGINE = 2;
+    public static final int ASYNC_POOL_ENGINE = 3;
 
     /**
      * ServerSocketChannel to listen to incoming connections
@@ -35,9 +52,20 @@ public class Server implements Runnable, ServerClient
     ServerSocketChannel serverSocketChannel;
 
     /**
-     * Selector to be used for incoming connections
+     * Reactors handling the connections. With a single reactor it also accepts the
+     * connections, with more an Acceptor hands the connections to them.
      */
-    private Selector selector;
+    private Reactor[] reactors;
+
+    /**
+     * boolean denoting whether a dedicated acceptor thread feeds the reactors
+     */
+    private final boolean useAcceptor;
+
+    /**
+     * int of the engine serving the connections
+     */
+    private final int engine;
 
     /**
      * ThreadPoolManager to be used to process incoming messages
@@ -45,16 +73,25 @@ public class Server implements Runnable, ServerClient
     private ThreadPoolManager threadPoolManager;
 
     /**
-     * Queue for pending selector key changes
+     * AsynchronousServerSocketChannel and the group running its completions, for the async engines
+     */
+    private AsynchronousServerSocketChannel asyncServerChannel;
+    private AsynchronousChannelGroup channelGroup;
+
+    /**
+     * Count of the connections accepted so far
      */
-    private final Queue<OpsChangeRequest> pendingChanges;
+    private final AtomicInteger count;
 
     /**
-     * TaskFactory reference
+     * ServerMetrics shared by every connection
      */
-    private final TaskFactory taskFactory = TaskFactory.getFactoryInstance();
+    private final ServerMetrics metrics;
 
-    private int count;
+    /**
+     * int of the seconds between metrics reports, 0 for none
+     */
+    private int statsInterval;
 
 
     /**
@@ -65,23 +102,91 @@ public class Server implements Runnable, ServerClient
      */
     public Server(int portNum, int threadPoolSize)
     {
+        this(portNum, new ThreadPoolConfig(threadPoolSize), 0);
+    }
 
-        count = 0;
-        pendingChanges = new LinkedList<OpsChangeRequest>();
+    /**
+     * Constructor for the Server class
+     *
+     * @param portNum     <code>int</code> of the port number to listen for incoming connections on.
+     * @param poolConfig  <code>ThreadPoolConfig</code> for the threadpool processing the messages.
+     * @param numReactors <code>int</code> of the number of sub-reactors fed by a dedicated acceptor thread,
+     *                    or 0 for a single selector thread doing both.
+     */
+    public Server(int portNum, ThreadPoolConfig poolConfig, int numReactors)
+    {
+        this(portNum, poolConfig, numReactors, NIO_ENGINE);
+    }
+
+    /**
+     * Constructor for the Server class
+     *
+     * @param portNum     <code>int</code> of the port number to listen for incoming connections on.
+     * @param poolConfig  <code>ThreadPoolConfig</code> for the threadpool processing the messages.
+     * @param numReactors <code>int</code> of the number of sub-reactors fed by a dedicated acceptor thread,
+     *                    or 0 for a single selector thread doing both.
+     * @param engine      <code>int</code> of the engine serving the connections. The reactor settings
+     *                    only apply to the NIO engine, the pool settings to it and the async pool engine.
+     */
+    public Server(int portNum, ThreadPoolConfig poolConfig, int numReactors, int engine)
+    {
+
+        count = new AtomicInteger();
+        metrics = new ServerMetrics();
+        useAcceptor = numReactors > 0;
+        this.engine = engine;
 
         try
         {
-            threadPoolManager = new ThreadPoolManager(threadPoolSize);
+            // IF the connections are served by completion handlers
+            if (engine == ASYNC_ENGINE || engine == ASYNC_POOL_ENGINE)
+            {
+                reactors = new Reactor[0];
 
-            selector = SelectorProvider.provider().openSelector();
+                if (engine == ASYNC_POOL_ENGINE)
+                {
+                    threadPoolManager = new ThreadPoolManager(poolConfig);
+                    channelGroup = AsynchronousChannelGroup.withThreadPool(new TaskExecutorService(threadPoolManager));
+                }
+                else
+                    channelGroup = AsynchronousChannelGroup.withFixedThreadPool(poolConfig.getNumThreads(),
+                            Executors.defaultThreadFactory());
+
+                asyncServerChannel = AsynchronousServerSocketChannel.open(channelGroup);
+                asyncServerChannel.bind(new InetSocketAddress(portNum));
+                return;
+            }
 
             /**
              * Open the server socket channel and prepare for receiving connections
              */
             serverSocketChannel = ServerSocketChannel.open();
             serverSocketChannel.socket().bind(new InetSocketAddress(portNum));
-            serverSocketChannel.configureBlocking(false);
-            serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+            // IF each connection gets a thread of its own there is no pool or selector
+            if (engine == VIRTUAL_ENGINE)
+            {
+                reactors = new Reactor[0];
+                return;
+            }
+
+            threadPoolManager = new ThreadPoolManager(poolConfig);
+
+            // IF a single reactor is to accept its own connections
+            if (!useAcceptor)
+            {
+                reactors = new Reactor[]{new Reactor(threadPoolManager, count, metrics)};
+
+                serverSocketChannel.configureBlocking(false);
+                reactors[0].listen(serverSocketChannel);
+            }
+            else
+            {
+                reactors = new Reactor[numReactors];
+
+                for (int i = 0; i < numReactors; ++i)
+                    reactors[i] = new Reactor(threadPoolManager, count, metrics);
+            }
 
         }
         catch (InvalidThreadCountException itce)
@@ -99,170 +204,177 @@ public class Server implements Runnable, ServerClient
     }
 
     /**
-     * Method to accept a connection from a client.
-     *
-     * @param key <code>SelectionKey</code> containing SocketChannel to be accepted.
-     * @throws IOException
+     * Method to initiate the server listening for connections
      */
-    private void accept(SelectionKey key) throws IOException
+    public void run()
     {
-        // For an accept to be pending the channel must be a server socket channel.
-        ServerSocketChannel serverSocketChannel = (ServerSocketChannel) key.channel();
-
-        // Accept the connection and make it non-blocking
-        SocketChannel socketChannel = serverSocketChannel.accept();
-        socketChannel.configureBlocking(false);
-
-
-        /**
-         * ClientInfo containing the address, port, and channel of the client
-         */
-        ClientInfo client = new ClientInfo(socketChannel);
-
 
-        socketChannel.register(this.selector, SelectionKey.OP_READ, client);
+        if (statsInterval > 0)
+        {
+            Thread reporter = new Thread(new MetricsReporter(this, statsInterval), "MetricsReporter");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
 
-        count++;
+        if (engine == VIRTUAL_ENGINE)
+        {
+            new ThreadPerConnectionEngine(serverSocketChannel, metrics, count).run();
+            return;
+        }
 
-        System.out.println("CONNECTED: " + count);
+        // start the thread pool manager
+        if (threadPoolManager != null)
+            threadPoolManager.start();
 
+        if (asyncServerChannel != null)
+        {
+            new AsyncEngine(asyncServerChannel, channelGroup, metrics, count).run();
+            return;
+        }
 
+        // IF this thread is the only selector thread
+        if (!useAcceptor)
+        {
+            reactors[0].run();
+            return;
+        }
 
+        for (int i = 0; i < reactors.length; ++i)
+        {
+            Thread reactorThread = new Thread(reactors[i], "Reactor-" + i);
+            reactorThread.start();
+        }
 
+        // this thread becomes the acceptor
+        new Acceptor(serverSocketChannel, reactors, count).run();
     }
 
-
     /**
-     * Method to initiate the server listening for connections
+     * Mutator for the interval between metrics reports. Must be set before the server runs.
+     *
+     * @param statsInterval <code>int</code> of the seconds between reports, 0 for none.
      */
-    public void run()
+    public void setStatsInterval(int statsInterval)
     {
+        this.statsInterval = statsInterval;
+    }
 
-        // start the thread pool manager
-        threadPoolManager.start();
-
-        /**
-         * Try to be a Server
-         */
-        try
-        {
-
-
-            while (!Thread.currentThread().isInterrupted())
-            {
-                /**
-                 * Before we select the keys, make changes to interest ops
-                 */
-
-                // Process any pending changes
-                synchronized (pendingChanges)
-                {
-                    // FOR every change we have to process
-                    for (OpsChangeRequest change : pendingChanges)
-                    {
-
-                        switch (change.type)
-                        {
-                            case OpsChangeRequest.CHANGEOPS:
-                                SelectionKey key = change.socket.keyFor(selector);
-                                key.interestOps(change.ops);
-                        }
-                    }
-                    pendingChanges.clear();
-                    selector.wakeup();
-                }
-
-                // Get the number of available channels
-                int readyChannels = selector.select();
-
-                // IF there is nothing to do yet
-                if (readyChannels == 0) continue;
-
-
-                /**
-                 * Set of all selected keys to be checked
-                 */
-                Set<SelectionKey> selectedKeys = selector.selectedKeys();
-                Iterator<SelectionKey> keyIterator = selectedKeys.iterator();
-
-
-
-
-                while (keyIterator.hasNext())
-                {
-
-                    SelectionKey key = keyIterator.next();
-                    keyIterator.remove();
-
-
-                    if (!key.isValid())
-                    {
-                        continue;
-                    }
-
-
-
-                    Taskable task = null;
-
-                    // IF the key was acceptable by the ServerSocketChannel
-                    if (key.isAcceptable())
-                    {
-                        accept(key);
-
-                    }
-                    // ELSE IF the key is ready to read from
-                    else if (key.isReadable())
-                    {
-                        key.interestOps(0);
-                        selector.wakeup();
-                        task = taskFactory.createTask(Protocol.READ_TASK, key, this);
-                        threadPoolManager.addTask(task);
-
-
+    /**
+     * Mutator for the write backlog limits of the clients. Must be set before the server runs.
+     *
+     * @param highWater <code>int</code> of the pending writes at which reading from a client is suspended.
+     * @param lowWater  <code>int</code> of the pending writes below which reading resumes.
+     * @throws IllegalArgumentException if the marks are not positive with low below high.
+     */
+    public void setWriteWaterMarks(int highWater, int lowWater)
+    {
+        if (lowWater < 0 || highWater <= lowWater)
+            throw new IllegalArgumentException("Write water marks need 0 <= low < high, got low " + lowWater
+                    + " and high " + highWater);
 
-                    }
-                    // ELSE IF the key is ready to be written to
-                    else if (key.isWritable())
-                    {
-                        key.interestOps(0);
-                        selector.wakeup();
-                        task = taskFactory.createTask(Protocol.WRITE_TASK, key, this);
-                        threadPoolManager.addTask(task);
+        for (Reactor reactor : reactors)
+            reactor.setWriteWaterMarks(highWater, lowWater);
+    }
 
-                    }
+    /**
+     * Mutator for the client timeouts, applied by the NIO engine's reactors. Must be set before
+     * the server runs.
+     *
+     * @param idleSeconds  <code>int</code> of the seconds a client may send nothing, 0 for no limit.
+     * @param frameSeconds <code>int</code> of the seconds a client may take to send a whole message,
+     *                     0 for no limit.
+     * @throws IllegalArgumentException if a timeout is negative.
+     */
+    public void setTimeouts(int idleSeconds, int frameSeconds)
+    {
+        if (idleSeconds < 0 || frameSeconds < 0)
+            throw new IllegalArgumentException("Timeouts cannot be negative, got idle " + idleSeconds
+                    + " and frame " + frameSeconds);
 
+        for (Reactor reactor : reactors)
+            reactor.setTimeouts(TimeUnit.SECONDS.toNanos(idleSeconds), TimeUnit.SECONDS.toNanos(frameSeconds));
+    }
 
+    /**
+     * Method to get the number of selector loop iterations per read or write event dispatched,
+     * over all reactors. A value well above 1 means the selectors are spinning.
+     *
+     * @return <code>double</code> of the iterations per event.
+     */
+    public double getLoopIterationsPerEvent()
+    {
+        long iterations = 0;
+        long events = 0;
 
+        for (Reactor reactor : reactors)
+        {
+            iterations += reactor.getLoopIterations();
+            events += reactor.getEventsDispatched();
+        }
 
+        return events == 0 ? 0 : (double) iterations / events;
+    }
 
-                }
-            }
+    /**
+     * Method to take a snapshot of the server's metrics. Counters in it only ever grow, so
+     * callers wanting rates compare two snapshots.
+     *
+     * @return <code>MetricsSnapshot</code> of the server as it is now.
+     */
+    public MetricsSnapshot getMetricsSnapshot()
+    {
+        long iterations = 0;
+        long events = 0;
 
-        }
-        catch (IOException ioe)
+        for (Reactor reactor : reactors)
         {
-            ioe.printStackTrace();
+            iterations += reactor.getLoopIterations();
+            events += reactor.getEventsDispatched();
         }
 
+        // without a pool there is nothing queued and no pool to be busy
+        if (threadPoolManager == null)
+            return new MetricsSnapshot(System.nanoTime(), metrics.getMessagesProcessed(),
+                    metrics.getActiveConnections(), 0, 0, 0, iterations, events, metrics.getMessageLatency());
 
+        return new MetricsSnapshot(System.nanoTime(), metrics.getMessagesProcessed(), metrics.getActiveConnections(),
+                threadPoolManager.getPendingTaskCount(), threadPoolManager.getPoolSize(),
+                threadPoolManager.getBusyNanos(), iterations, events, metrics.getMessageLatency());
     }
 
     /**
-     * Method to add an ops change request to the calling selector thread.
+     * Method to map an engine name to its constant
      *
-     * @param opsChangeRequest <code>OpsChangeRequest</code> with the desired selector change request.
+     * @param name <code>String</code> of the engine, nio, virtual, async or async-pool.
+     * @return <code>int</code> of the engine.
+     * @throws IllegalArgumentException if the name is not an engine.
      */
-    public void addOpsChangeRequest(OpsChangeRequest opsChangeRequest)
+    public static int parseEngine(String name)
     {
-        synchronized (pendingChanges)
-        {
-            pendingChanges.add(opsChangeRequest);
-        }
+        if (name.equals("nio"))
+            return NIO_ENGINE;
+        else if (name.equals("virtual"))
+            return VIRTUAL_ENGINE;
+        else if (name.equals("async"))
+            return ASYNC_ENGINE;
+        else if (name.equals("async-pool"))
+            return ASYNC_POOL_ENGINE;
+
+        throw new IllegalArgumentException("Unknown engine: " + name + ", expected nio, virtual, async or async-pool");
     }
 
     /**
      * main method
      *
+     * Usage: Server port-num thread-pool-size [--engine=nio|virtual|async|async-pool] [--dispatch=managed|queue|stealing|affinity|fair|ring]
+     *        [--queue-capacity=n] [--distribution=connection|roundrobin] [--migrate-threshold=n]
+     *        [--fair-quantum=n] [--client-in-flight=n] [--wait=blocking|spin|yield|park] [--spin-count=n]
+     *        [--reactors=n]
+     *        [--min-threads=n] [--max-threads=n] [--target-wait=milliseconds] [--keep-alive=seconds]
+     *        [--write-high-water=n] [--write-low-water=n] [--stats-interval=seconds]
+     *        [--idle-timeout=seconds] [--frame-timeout=seconds]
+     *        [--log-level=trace|debug|info|warn|error|off]
+     *
      * @param args command line arguments
      */
     public static void main(String[] args)
@@ -278,7 +390,17 @@ public class Server implements Runnable, ServerClient
                 portNum = Integer.parseInt(args[0]);
                 threadPoolSize = Integer.parseInt(args[1]);
 
-                Server server = new Server(portNum, threadPoolSize);
+                Options options = new Options(args, 2);
+
+                Log.setLevel(Log.parseLevel(options.getString("log-level", "info")));
+
+                Server server = new Server(portNum, ThreadPoolConfig.fromOptions(threadPoolSize, options),
+                        options.getInt("reactors", 0), parseEngine(options.getString("engine", "nio")));
+                server.setStatsInterval(options.getInt("stats-interval", DEFAULT_STATS_INTERVAL));
+                server.setWriteWaterMarks(options.getInt("write-high-water", ClientInfo.DEFAULT_WRITE_HIGH_WATER),
+                        options.getInt("write-low-water", ClientInfo.DEFAULT_WRITE_LOW_WATER));
+                server.setTimeouts(options.getInt("idle-timeout", DEFAULT_IDLE_TIMEOUT),
+                        options.getInt("frame-timeout", DEFAULT_FRAME_TIMEOUT));
                 Thread serverThread = new Thread(server);
 
                 serverThread.start();
@@ -288,6 +410,11 @@ public class Server implements Runnable, ServerClient
                 System.err.println("Argument" + " must be an integer");
                 System.exit(1);
             }
+            catch (IllegalArgumentException iae)
+            {
+                System.err.println(iae.getMessage());
+                System.exit(1);
+            }
 
 
         }
@@ -11,7 +11,8 @@ public interface ServerClient
 {
 
     /**
-     * Method to add an ops change request to the calling selector thread.
+     * Method to add an ops change request to the calling selector thread. Implementations
+     * take care of waking their selector so the change is seen.
      *
      * @param opsChangeRequest <code>OpsChangeRequest</code> with the desired selector change request.
      */
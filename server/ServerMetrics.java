@@ -0,0 +1,107 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.metrics.HistogramSnapshot;
+import cs455.scaling.utility.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A ServerMetrics class counting what the server's connections do. The counters are striped
+ * so the selector and worker threads can bump them without contending on one cache line.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class ServerMetrics
+{
+    /**
+     * Count of the hashes written back to clients in full
+     */
+    private final LongAdder messagesProcessed;
+
+    /**
+     * Count of the connections registered with a selector
+     */
+    private final LongAdder connectionsOpened;
+
+    /**
+     * Count of the connections closed
+     */
+    private final LongAdder connectionsClosed;
+
+    /**
+     * Nanoseconds from a message being read in full to its hash being written in full
+     */
+    private final LatencyHistogram messageLatency;
+
+
+    /**
+     * Constructor
+     */
+    public ServerMetrics()
+    {
+        messagesProcessed = new LongAdder();
+        connectionsOpened = new LongAdder();
+        connectionsClosed = new LongAdder();
+        messageLatency = new LatencyHistogram();
+    }
+
+    /**
+     * Method to count a new connection
+     */
+    public void connectionOpened()
+    {
+        connectionsOpened.increment();
+    }
+
+    /**
+     * Method to count a closed connection
+     */
+    public void connectionClosed()
+    {
+        connectionsClosed.increment();
+    }
+
+    /**
+     * Method to count a message whose hash has been written to the client
+     *
+     * @param latencyNanos <code>long</code> of the nanoseconds since the message was read.
+     */
+    public void messageProcessed(long latencyNanos)
+    {
+        messagesProcessed.increment();
+        messageLatency.record(latencyNanos);
+    }
+
+    /**
+     * Accessor for the number of messages processed so far
+     *
+     * @return <code>long</code> of the number of messages.
+     */
+    public long getMessagesProcessed()
+    {
+        return messagesProcessed.sum();
+    }
+
+    /**
+     * Accessor for the number of connections currently open
+     *
+     * @return <code>long</code> of the number of connections.
+     */
+    public long getActiveConnections()
+    {
+        // read the closed count first so a connection closing in between cannot make this negative
+        long closed = connectionsClosed.sum();
+
+        return connectionsOpened.sum() - closed;
+    }
+
+    /**
+     * Method to take a copy of the message latencies recorded so far
+     *
+     * @return <code>HistogramSnapshot</code> of the latencies in nanoseconds.
+     */
+    public HistogramSnapshot getMessageLatency()
+    {
+        return messageLatency.snapshot();
+    }
+}
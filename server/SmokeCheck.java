@@ -0,0 +1,160 @@
+package cs455.scaling.server;
+
+import cs455.scaling.client.LoadGenerator;
+import cs455.scaling.threadpool.ThreadPoolConfig;
+import cs455.scaling.threadpool.task.WireProtocol;
+import cs455.scaling.utility.Options;
+import cs455.scaling.utility.logging.Log;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A SmokeCheck class running an in-process server under a LoadGenerator for each of a set of
+ * engine and pool configurations, and failing if one stops serving. A single worker and small
+ * queue capacities keep the pool saturated, which is where the engines used to wedge.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class SmokeCheck
+{
+    /**
+     * Server options of each configuration checked, as given on the command line
+     */
+    private static final String[][] CONFIGURATIONS = {
+            {"--engine=nio"},
+            {"--engine=nio", "--dispatch=queue", "--queue-capacity=4"},
+            {"--engine=nio", "--dispatch=ring", "--reactors=2"},
+            {"--engine=virtual"},
+            {"--engine=async"},
+            {"--engine=async-pool", "--dispatch=queue", "--queue-capacity=4"},
+            {"--engine=async-pool", "--dispatch=ring", "--queue-capacity=4"},
+            {"--engine=async-pool", "--dispatch=affinity", "--queue-capacity=4"},
+    };
+
+    /**
+     * Worker threads of each server, connections and messages per second of each connection,
+     * and the seconds each configuration runs for
+     */
+    private static final int NUM_THREADS = 1;
+    private static final int NUM_CONNECTIONS = 200;
+    private static final double MESSAGE_RATE = 50;
+    private static final int DURATION = 4;
+
+    /**
+     * Least share of the messages sent that must have been answered
+     */
+    private static final double MIN_ANSWERED = 0.6;
+
+
+    /**
+     * Method to start a server with the given options on a free port, on a daemon thread as a
+     * Server cannot be stopped
+     *
+     * @param args <code>String[]</code> of the server options.
+     * @return <code>int</code> of the port the server listens on.
+     * @throws Exception if the server does not start listening.
+     */
+    private static int startServer(String[] args) throws Exception
+    {
+        ServerSocket probe = new ServerSocket(0);
+        final int port = probe.getLocalPort();
+        probe.close();
+
+        Options options = new Options(args, 0);
+        final ThreadPoolConfig config = ThreadPoolConfig.fromOptions(NUM_THREADS, options);
+        final int numReactors = options.getInt("reactors", 0);
+        final int engine = Server.parseEngine(options.getString("engine", "nio"));
+
+        Thread serverThread = new Thread("Server-" + port)
+        {
+            @Override
+            public void run()
+            {
+                Server server = new Server(port, config, numReactors, engine);
+                server.setStatsInterval(0);
+                server.run();
+            }
+        };
+
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        // wait for the server to be listening
+        for (int attempt = 0; attempt < 100; ++attempt)
+        {
+            try
+            {
+                SocketChannel.open(new InetSocketAddress("localhost", port)).close();
+                return port;
+            }
+            catch (IOException ioe)
+            {
+                Thread.sleep(50);
+            }
+        }
+
+        throw new IOException("Server did not start on port " + port);
+    }
+
+    /**
+     * Method to check one configuration
+     *
+     * @param args <code>String[]</code> of the server options.
+     * @return <code>String</code> describing the failure, or null if the server kept serving.
+     * @throws Exception if the server or the LoadGenerator cannot be set up.
+     */
+    private static String check(String[] args) throws Exception
+    {
+        int port = startServer(args);
+
+        LoadGenerator loadGenerator = new LoadGenerator(new InetSocketAddress("localhost", port), NUM_CONNECTIONS,
+                2, MESSAGE_RATE, 64, true, WireProtocol.BINARY_VERSION);
+
+        loadGenerator.run(DURATION, 0);
+
+        long sent = loadGenerator.getMessagesSent();
+        long received = loadGenerator.getResponsesReceived();
+
+        if (loadGenerator.getConnected() < NUM_CONNECTIONS)
+            return "only " + loadGenerator.getConnected() + " of " + NUM_CONNECTIONS + " connections were set up";
+
+        if (loadGenerator.getMismatches() > 0)
+            return loadGenerator.getMismatches() + " responses did not match their message";
+
+        if (received < sent * MIN_ANSWERED)
+            return "only " + received + " of " + sent + " messages were answered";
+
+        return null;
+    }
+
+    /**
+     * main method
+     *
+     * Usage: SmokeCheck
+     *
+     * Exits with status 1 if any configuration stopped serving.
+     *
+     * @param args command line arguments, unused
+     */
+    public static void main(String[] args) throws Exception
+    {
+        Log.setLevel(Log.parseLevel("warn"));
+
+        int failures = 0;
+
+        for (String[] configuration : CONFIGURATIONS)
+        {
+            String failure = check(configuration);
+
+            System.out.println(String.join(" ", configuration) + ": " + (failure == null ? "ok" : failure));
+
+            if (failure != null)
+                ++failures;
+        }
+
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,87 @@
+package cs455.scaling.server;
+
+import cs455.scaling.utility.concurrent.VirtualThreads;
+import cs455.scaling.utility.logging.Log;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ThreadPerConnectionEngine class accepting on a blocking ServerSocketChannel and serving
+ * every connection on a thread of its own, a virtual thread where the JVM has them. It is the
+ * alternative to the reactors and the thread pool.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class ThreadPerConnectionEngine implements Runnable
+{
+    /**
+     * ServerSocketChannel to accept connections from, in blocking mode
+     */
+    private final ServerSocketChannel serverSocketChannel;
+
+    /**
+     * ServerMetrics of the whole server
+     */
+    private final ServerMetrics metrics;
+
+    /**
+     * Count of all connections accepted by the server
+     */
+    private final AtomicInteger connectionCount;
+
+    /**
+     * ThreadFactory creating the connection threads
+     */
+    private final ThreadFactory threadFactory;
+
+
+    /**
+     * Constructor
+     *
+     * @param serverSocketChannel <code>ServerSocketChannel</code> in blocking mode to accept from.
+     * @param metrics             <code>ServerMetrics</code> of the whole server.
+     * @param connectionCount     <code>AtomicInteger</code> counting the connections of the whole server.
+     */
+    public ThreadPerConnectionEngine(ServerSocketChannel serverSocketChannel, ServerMetrics metrics,
+                                     AtomicInteger connectionCount)
+    {
+        this.serverSocketChannel = serverSocketChannel;
+        this.metrics = metrics;
+        this.connectionCount = connectionCount;
+        threadFactory = VirtualThreads.factory("Connection-");
+    }
+
+    @Override
+    public void run()
+    {
+        if (!VirtualThreads.isSupported())
+            Log.warn("Virtual threads are not available on this JVM, using a platform thread per connection");
+
+        while (!Thread.currentThread().isInterrupted())
+        {
+            try
+            {
+                SocketChannel socketChannel = serverSocketChannel.accept();
+
+                threadFactory.newThread(new BlockingConnectionHandler(socketChannel, metrics)).start();
+
+                int connected = connectionCount.incrementAndGet();
+
+                if (Log.isInfoEnabled())
+                    Log.info("CONNECTED: " + connected);
+            }
+            catch (IOException ioe)
+            {
+                System.err.println(ioe.getMessage());
+                ioe.printStackTrace();
+
+                if (!serverSocketChannel.isOpen())
+                    return;
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.ConnectionTask;
+import cs455.scaling.threadpool.task.Taskable;
+import cs455.scaling.threadpool.wait.Parker;
+import cs455.scaling.threadpool.wait.WaitStrategy;
+import cs455.scaling.utility.concurrent.MpmcQueue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An AffinityTaskSource class giving every worker a lane of its own and pinning each
+ * connection to one lane, so a connection's tasks always run on the same worker, one after
+ * another and in the order they were added, and its state stays in that worker's cache.
+ * Only the lane's worker takes from a lane and no worker takes from another's.
+ *
+ * A connection is only moved to another lane when it has nothing queued or running and its
+ * lane is more than the migrate threshold deeper than the shallowest lane. Having nothing in
+ * flight means nothing can overtake on the new lane, so moving never breaks the ordering.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class AffinityTaskSource implements TaskSource
+{
+    /**
+     * Default number of tasks a connection's lane must be deeper than the shallowest for it to move
+     */
+    public static final int DEFAULT_MIGRATE_THRESHOLD = 32;
+
+    /**
+     * Bits of the Affinity state holding the lane, the rest counting the tasks in flight
+     */
+    private static final int LANE_BITS = 16;
+    private static final int LANE_MASK = (1 << LANE_BITS) - 1;
+    private static final int ONE_IN_FLIGHT = 1 << LANE_BITS;
+
+    /**
+     * Lane of a connection not yet pinned to one
+     */
+    private static final int UNASSIGNED = LANE_MASK;
+
+    /**
+     * An Affinity class recording the lane a connection is pinned to and how many of its tasks
+     * are queued or running, together in one int so both change at once. Each connection owns one.
+     */
+    public static class Affinity
+    {
+        /**
+         * Tasks in flight above LANE_BITS, lane below
+         */
+        private final AtomicInteger state = new AtomicInteger(UNASSIGNED);
+    }
+
+    /**
+     * Lanes of the workers, each only taken from by its own worker
+     */
+    private final MpmcQueue<Taskable>[] lanes;
+
+    /**
+     * Task each worker is running, so its connection is let go when the worker comes back for more
+     */
+    private final Taskable[] running;
+
+    /**
+     * Parkers the workers wait on for a task in their lane
+     */
+    private final Parker[] parkers;
+
+    /**
+     * Condition of a task waiting in each lane
+     */
+    private final BooleanSupplier[] laneReady;
+
+    /**
+     * Counter spreading new connections, and tasks of no connection, over the lanes
+     */
+    private final AtomicInteger nextLane;
+
+    /**
+     * int of the number of tasks a lane must be deeper than the shallowest for a connection to leave it
+     */
+    private final int migrateThreshold;
+
+    /**
+     * Number of connections moved to another lane
+     */
+    private final AtomicInteger migrations;
+
+    /**
+     * WaitStrategy of the workers before they park
+     */
+    private final WaitStrategy waitStrategy;
+
+
+    /**
+     * Constructor
+     *
+     * @param numWorkers       <code>int</code> of the number of workers, one a lane.
+     * @param laneCapacity     <code>int</code> of the most tasks a lane holds.
+     * @param migrateThreshold <code>int</code> of the number of tasks a lane must be deeper than the
+     *                         shallowest for a connection to leave it.
+     * @param waitStrategy     <code>WaitStrategy</code> of the workers before they park.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AffinityTaskSource(int numWorkers, int laneCapacity, int migrateThreshold, WaitStrategy waitStrategy)
+    {
+        if (numWorkers > UNASSIGNED)
+            throw new IllegalArgumentException("Affinity dispatch supports at most " + UNASSIGNED + " workers");
+
+        this.migrateThreshold = migrateThreshold;
+        this.waitStrategy = waitStrategy;
+        lanes = new MpmcQueue[numWorkers];
+        running = new Taskable[numWorkers];
+        parkers = new Parker[numWorkers];
+        laneReady = new BooleanSupplier[numWorkers];
+        nextLane = new AtomicInteger();
+        migrations = new AtomicInteger();
+
+        for (int i = 0; i < numWorkers; ++i)
+        {
+            final MpmcQueue<Taskable> lane = new MpmcQueue<Taskable>(laneCapacity);
+
+            lanes[i] = lane;
+            parkers[i] = new Parker();
+            laneReady[i] = new BooleanSupplier()
+            {
+                @Override
+                public boolean getAsBoolean()
+                {
+                    return !lane.isEmpty();
+                }
+            };
+        }
+    }
+
+    /**
+     * Method to add a task to the lane of its connection and wake the lane's worker. If the
+     * lane is full the caller yields until the worker frees up a slot.
+     *
+     * @param task <code>Taskable</code> to be queued.
+     */
+    public void addTask(Taskable task)
+    {
+        int lane;
+
+        if (task instanceof ConnectionTask)
+            lane = pin(((ConnectionTask) task).getAffinity());
+        else
+            lane = (nextLane.getAndIncrement() & Integer.MAX_VALUE) % lanes.length;
+
+        while (!lanes[lane].offer(task))
+        {
+            wakeWorker(lane);
+            Thread.yield();
+        }
+
+        wakeWorker(lane);
+    }
+
+    /**
+     * Method to count a task of a connection in flight and pick its lane, moving the connection
+     * first if it has nothing else in flight and its lane is overloaded
+     *
+     * @param affinity <code>Affinity</code> of the connection.
+     * @return <code>int</code> index of the lane the task goes on.
+     */
+    private int pin(Affinity affinity)
+    {
+        while (true)
+        {
+            int state = affinity.state.get();
+            int lane = state & LANE_MASK;
+
+            // IF tasks are in flight the connection stays where they are
+            if (state >= ONE_IN_FLIGHT)
+            {
+                if (affinity.state.compareAndSet(state, state + ONE_IN_FLIGHT))
+                    return lane;
+
+                continue;
+            }
+
+            int target = lane;
+
+            // IF the connection is new give it the next lane, ELSE see if its lane is overloaded
+            if (lane == UNASSIGNED)
+                target = (nextLane.getAndIncrement() & Integer.MAX_VALUE) % lanes.length;
+            else if (lanes[lane].size() > migrateThreshold)
+                target = shallowestLane(lane);
+
+            if (affinity.state.compareAndSet(state, ONE_IN_FLIGHT | target))
+            {
+                if (target != lane && lane != UNASSIGNED)
+                    migrations.incrementAndGet();
+
+                return target;
+            }
+        }
+    }
+
+    /**
+     * Method to find the lane a connection should move to from an overloaded one
+     *
+     * @param lane <code>int</code> index of the connection's lane.
+     * @return <code>int</code> index of the shallowest lane, or the given lane if none is shallower by the threshold.
+     */
+    private int shallowestLane(int lane)
+    {
+        int depth = lanes[lane].size();
+        int best = lane;
+        int bestDepth = depth - migrateThreshold;
+
+        for (int i = 0; i < lanes.length; ++i)
+        {
+            int candidate = lanes[i].size();
+
+            if (candidate < bestDepth)
+            {
+                best = i;
+                bestDepth = candidate;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Method to unpark the worker of a lane if it is parked
+     *
+     * @param lane <code>int</code> index of the lane.
+     */
+    private void wakeWorker(int lane)
+    {
+        parkers[lane].unpark();
+    }
+
+    /**
+     * Method to take the next task from the calling worker's lane, parking while it is empty.
+     * The worker coming back means the task it last took has finished, so that task's
+     * connection is counted out first.
+     *
+     * @param workerID <code>int</code> index of the calling worker, and so of its lane.
+     * @return <code>Taskable</code> to be run.
+     * @throws InterruptedException if the calling worker is interrupted while parked.
+     */
+    @Override
+    public Taskable takeTask(int workerID) throws InterruptedException
+    {
+        Taskable finished = running[workerID];
+
+        if (finished instanceof ConnectionTask)
+            ((ConnectionTask) finished).getAffinity().state.addAndGet(-ONE_IN_FLIGHT);
+
+        running[workerID] = null;
+
+        MpmcQueue<Taskable> lane = lanes[workerID];
+
+        while (true)
+        {
+            Taskable task = lane.poll();
+
+            if (task != null)
+            {
+                running[workerID] = task;
+
+                return task;
+            }
+
+            parkers[workerID].await(waitStrategy, laneReady[workerID], this);
+        }
+    }
+
+    /**
+     * Method to get the number of tasks waiting to be picked up by a worker.
+     *
+     * @return <code>int</code> of the number of pending tasks.
+     */
+    @Override
+    public int getPendingTaskCount()
+    {
+        int pending = 0;
+
+        for (MpmcQueue<Taskable> lane : lanes)
+            pending += lane.size();
+
+        return pending;
+    }
+
+    /**
+     * Accessor for the number of times a connection has been moved to another lane
+     *
+     * @return <code>int</code> of the number of migrations.
+     */
+    public int getMigrations()
+    {
+        return migrations.get();
+    }
+}
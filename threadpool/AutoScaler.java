@@ -0,0 +1,184 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.RetireTask;
+import cs455.scaling.utility.logging.Log;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An AutoScaler class resizing a ThreadPool whose workers pull from a SharedTaskQueue. Every
+ * sample it estimates how long a newly queued task would wait, by Little's law the tasks queued
+ * over the rate the workers finish them, and adds a worker while that is over the target wait.
+ * Workers are retired once the pool has had spare workers, as measured by the time they spent
+ * busy, for a whole keep alive, so a short lull does not throw away threads a burst needs again.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class AutoScaler implements Runnable
+{
+    /**
+     * Defaults for the milliseconds a task may expect to wait before the pool grows, and the
+     * seconds the pool must have spare workers before it retires them
+     */
+    public static final long DEFAULT_TARGET_WAIT = 50;
+    public static final long DEFAULT_KEEP_ALIVE = 60;
+
+    /**
+     * Milliseconds between samples
+     */
+    private static final long SAMPLE_INTERVAL = 100;
+
+    /**
+     * ThreadPool being resized
+     */
+    private final ThreadPool threadPool;
+
+    /**
+     * SharedTaskQueue its workers pull from
+     */
+    private final SharedTaskQueue taskQueue;
+
+    /**
+     * int of the fewest and most threads the pool may have
+     */
+    private final int minThreads;
+    private final int maxThreads;
+
+    /**
+     * long of the nanoseconds a task may expect to wait, and that the pool must have spare workers for
+     */
+    private final long targetWaitNanos;
+    private final long keepAliveNanos;
+
+
+    /**
+     * Constructor
+     *
+     * @param threadPool <code>ThreadPool</code> to resize.
+     * @param taskQueue  <code>SharedTaskQueue</code> its workers pull from.
+     * @param config     <code>ThreadPoolConfig</code> with the thread bounds, target wait and keep alive.
+     */
+    public AutoScaler(ThreadPool threadPool, SharedTaskQueue taskQueue, ThreadPoolConfig config)
+    {
+        this.threadPool = threadPool;
+        this.taskQueue = taskQueue;
+        minThreads = config.getMinThreads();
+        maxThreads = config.getMaxThreads();
+        targetWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getTargetWaitMillis());
+        keepAliveNanos = TimeUnit.SECONDS.toNanos(config.getKeepAliveSeconds());
+    }
+
+    /**
+     * Method to sample the pool until interrupted, growing or shrinking it as it goes
+     */
+    @Override
+    public void run()
+    {
+        long previousTime = System.nanoTime();
+        long previousCompleted = threadPool.getCompletedTasks();
+        long previousBusy = threadPool.getBusyNanos();
+
+        // start of the window the pool has had spare workers over, and the most workers busy during it
+        long spareSince = previousTime;
+        double peakBusyThreads = 0;
+
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                Thread.sleep(SAMPLE_INTERVAL);
+
+                long now = System.nanoTime();
+                long completed = threadPool.getCompletedTasks();
+                long busy = threadPool.getBusyNanos();
+                long elapsed = now - previousTime;
+                int size = threadPool.getSize();
+                int pending = taskQueue.getPendingTaskCount();
+
+                double busyThreads = (busy - previousBusy) / (double) elapsed;
+                double expectedWait = expectedWaitNanos(pending, completed - previousCompleted, elapsed);
+
+                previousTime = now;
+                previousCompleted = completed;
+                previousBusy = busy;
+
+                if (expectedWait > targetWaitNanos)
+                {
+                    if (size < maxThreads)
+                    {
+                        threadPool.addWorker();
+
+                        Log.info("Thread pool grown to " + (size + 1) + " threads, expected wait "
+                                + (Double.isInfinite(expectedWait) ? "unbounded"
+                                : (long) (expectedWait / 1_000_000) + " ms"));
+                    }
+
+                    spareSince = now;
+                    peakBusyThreads = 0;
+                    continue;
+                }
+
+                peakBusyThreads = Math.max(peakBusyThreads, busyThreads);
+
+                // IF not even one worker has been spare, start the window again
+                if (peakBusyThreads > size - 1)
+                {
+                    spareSince = now;
+                    peakBusyThreads = busyThreads;
+                    continue;
+                }
+
+                if (now - spareSince >= keepAliveNanos && size > minThreads)
+                {
+                    int spare = Math.min(size - (int) Math.ceil(peakBusyThreads), size - minThreads);
+
+                    retire(Math.max(spare, 1));
+
+                    Log.info("Thread pool shrunk to " + threadPool.getSize() + " threads, at most "
+                            + String.format("%.1f", peakBusyThreads) + " busy over the last "
+                            + TimeUnit.NANOSECONDS.toSeconds(now - spareSince) + " s");
+
+                    spareSince = now;
+                    peakBusyThreads = 0;
+                }
+            }
+        }
+        catch (InterruptedException ie)
+        {
+            // the pool is being halted
+        }
+    }
+
+    /**
+     * Method to estimate how long a task queued now would wait for a worker
+     *
+     * @param pending   <code>int</code> of the number of tasks queued.
+     * @param completed <code>long</code> of the number of tasks finished over the sample.
+     * @param elapsed   <code>long</code> of the nanoseconds the sample took.
+     * @return <code>double</code> of the nanoseconds, infinite if tasks are queued and none finished.
+     */
+    private static double expectedWaitNanos(int pending, long completed, long elapsed)
+    {
+        if (pending == 0)
+            return 0;
+
+        if (completed == 0)
+            return Double.POSITIVE_INFINITY;
+
+        return pending * (double) elapsed / completed;
+    }
+
+    /**
+     * Method to retire workers by queueing a RetireTask for each, behind the tasks already waiting
+     *
+     * @param count <code>int</code> of the number of workers to retire.
+     */
+    private void retire(int count)
+    {
+        for (int i = 0; i < count; ++i)
+        {
+            threadPool.removeWorker();
+            taskQueue.addTask(RetireTask.INSTANCE);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.ConnectionTask;
+import cs455.scaling.threadpool.task.Taskable;
+
+/**
+ * A FairTaskSource class keeping a queue of tasks for every connection and serving the
+ * connections by deficit round robin, so a client sending far more than the rest cannot push
+ * everyone else's tasks to the back. Each turn a connection is granted the quantum, and runs
+ * tasks from its queue until it has used it up or has as many running as the in flight cap,
+ * at which point it sits out until one of them finishes.
+ *
+ * Adding and taking a task are constant time: connections with tasks to run wait their turn
+ * on a linked list threaded through their Flows. Tasks that belong to no connection share one
+ * Flow that is not capped.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class FairTaskSource implements TaskSource
+{
+    /**
+     * Defaults for the tasks a connection runs a turn, and for the tasks of one connection
+     * allowed to run at once
+     */
+    public static final int DEFAULT_QUANTUM = 1;
+    public static final int DEFAULT_CLIENT_IN_FLIGHT = 1;
+
+    /**
+     * Number of tasks a Flow starts with room for
+     */
+    private static final int INITIAL_FLOW_CAPACITY = 4;
+
+    /**
+     * A Flow class holding the tasks of one connection waiting to run. Each connection owns one,
+     * and it is only touched with the FairTaskSource's lock held.
+     */
+    public static class Flow
+    {
+        /**
+         * Ring of the queued tasks, oldest first
+         */
+        private Taskable[] tasks = new Taskable[INITIAL_FLOW_CAPACITY];
+        private int head;
+        private int count;
+
+        /**
+         * Number of the connection's tasks running
+         */
+        private int inFlight;
+
+        /**
+         * Tasks the connection may still run this turn
+         */
+        private int deficit;
+
+        /**
+         * boolean denoting whether the Flow is on the list of those waiting their turn
+         */
+        private boolean active;
+
+        /**
+         * Next Flow on the list of those waiting their turn
+         */
+        private Flow next;
+
+        /**
+         * Method to add a task behind the others of the connection
+         *
+         * @param task <code>Taskable</code> to be queued.
+         */
+        private void push(Taskable task)
+        {
+            if (count == tasks.length)
+            {
+                Taskable[] grown = new Taskable[tasks.length * 2];
+
+                // unroll the ring so the oldest task is first again
+                System.arraycopy(tasks, head, grown, 0, tasks.length - head);
+                System.arraycopy(tasks, 0, grown, tasks.length - head, head);
+
+                tasks = grown;
+                head = 0;
+            }
+
+            tasks[(head + count++) & (tasks.length - 1)] = task;
+        }
+
+        /**
+         * Method to take the oldest task of the connection
+         *
+         * @return <code>Taskable</code> that was queued first.
+         */
+        private Taskable pop()
+        {
+            Taskable task = tasks[head];
+
+            tasks[head] = null;
+            head = (head + 1) & (tasks.length - 1);
+            --count;
+
+            return task;
+        }
+    }
+
+    /**
+     * Flow shared by the tasks that belong to no connection
+     */
+    private final Flow sharedFlow;
+
+    /**
+     * First and last of the Flows waiting their turn
+     */
+    private Flow activeHead;
+    private Flow activeTail;
+
+    /**
+     * Flow of the task each worker is running, so it can be counted out when the worker comes back
+     */
+    private final Flow[] running;
+
+    /**
+     * int of the tasks a connection runs a turn, and of the tasks of one connection allowed to run at once
+     */
+    private final int quantum;
+    private final int clientInFlight;
+
+    /**
+     * Number of workers waiting for a task
+     */
+    private int waiting;
+
+    /**
+     * Number of tasks queued over all Flows
+     */
+    private volatile int pendingCount;
+
+
+    /**
+     * Constructor
+     *
+     * @param numWorkers     <code>int</code> of the number of workers pulling from this source.
+     * @param quantum        <code>int</code> of the tasks a connection runs a turn.
+     * @param clientInFlight <code>int</code> of the tasks of one connection allowed to run at once.
+     */
+    public FairTaskSource(int numWorkers, int quantum, int clientInFlight)
+    {
+        this.quantum = quantum;
+        this.clientInFlight = clientInFlight;
+        sharedFlow = new Flow();
+        running = new Flow[numWorkers];
+    }
+
+    /**
+     * Method to add a task to the queue of its connection, giving the connection a turn if it
+     * is not already waiting for one and has room to run it
+     *
+     * @param task <code>Taskable</code> to be queued.
+     */
+    public synchronized void addTask(Taskable task)
+    {
+        Flow flow = task instanceof ConnectionTask ? ((ConnectionTask) task).getFlow() : sharedFlow;
+
+        flow.push(task);
+        ++pendingCount;
+
+        if (!flow.active && isEligible(flow))
+            activate(flow);
+    }
+
+    /**
+     * Method to take the task of the connection whose turn it is, waiting while no connection
+     * has a task it may run. The task the calling worker last took has finished by the time it
+     * comes back, so that task's connection is counted out first.
+     *
+     * @param workerID <code>int</code> index of the calling worker.
+     * @return <code>Taskable</code> to be run.
+     * @throws InterruptedException if the calling worker is interrupted while waiting.
+     */
+    @Override
+    public synchronized Taskable takeTask(int workerID) throws InterruptedException
+    {
+        Flow finished = running[workerID];
+
+        if (finished != null)
+        {
+            running[workerID] = null;
+            --finished.inFlight;
+
+            if (!finished.active && finished.count > 0 && isEligible(finished))
+                activate(finished);
+        }
+
+        while (activeHead == null)
+        {
+            ++waiting;
+
+            try
+            {
+                wait();
+            }
+            finally
+            {
+                --waiting;
+            }
+        }
+
+        Flow flow = activeHead;
+
+        // IF the Flow is starting its turn grant it the quantum
+        if (flow.deficit <= 0)
+            flow.deficit += quantum;
+
+        Taskable task = flow.pop();
+
+        --pendingCount;
+        --flow.deficit;
+        ++flow.inFlight;
+        running[workerID] = flow;
+
+        if (flow.count == 0 || !isEligible(flow))
+        {
+            // out of tasks or at the cap, it waits for a new task or a finished one to come back
+            deactivateHead();
+            flow.deficit = 0;
+        }
+        else if (flow.deficit <= 0)
+        {
+            // turn over, to the back of the line
+            deactivateHead();
+            activate(flow);
+        }
+
+        // pass the wakeup along if there is still a task that may run
+        if (activeHead != null && waiting > 0)
+            notify();
+
+        return task;
+    }
+
+    /**
+     * Method to determine if a Flow has room to run another task
+     *
+     * @param flow <code>Flow</code> to check.
+     * @return <code>boolean</code> denoting whether it is under the in flight cap.
+     */
+    private boolean isEligible(Flow flow)
+    {
+        return flow == sharedFlow || flow.inFlight < clientInFlight;
+    }
+
+    /**
+     * Method to put a Flow at the back of the line and wake a waiting worker for it
+     *
+     * @param flow <code>Flow</code> with a task it may run.
+     */
+    private void activate(Flow flow)
+    {
+        flow.active = true;
+        flow.next = null;
+
+        if (activeTail == null)
+            activeHead = flow;
+        else
+            activeTail.next = flow;
+
+        activeTail = flow;
+
+        if (waiting > 0)
+            notify();
+    }
+
+    /**
+     * Method to take the Flow at the front of the line off it
+     */
+    private void deactivateHead()
+    {
+        Flow flow = activeHead;
+
+        activeHead = flow.next;
+
+        if (activeHead == null)
+            activeTail = null;
+
+        flow.next = null;
+        flow.active = false;
+    }
+
+    /**
+     * Method to get the number of tasks waiting to be picked up by a worker.
+     *
+     * @return <code>int</code> of the number of pending tasks.
+     */
+    @Override
+    public int getPendingTaskCount()
+    {
+        return pendingCount;
+    }
+}
@@ -0,0 +1,383 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.ConnectionTask;
+import cs455.scaling.threadpool.task.Taskable;
+
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A FairTaskSourceCheck class checking that a FairTaskSource hands out the connections' tasks
+ * in deficit round robin order, keeps each connection's own tasks in order, and never runs more
+ * of one connection's tasks at once than the in flight cap.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class FairTaskSourceCheck
+{
+    /**
+     * Connections, tasks per connection and workers of the concurrent check
+     */
+    private static final int NUM_CONNECTIONS = 8;
+    private static final int TASKS_PER_CONNECTION = 200;
+    private static final int NUM_WORKERS = 4;
+
+    /**
+     * Nanoseconds each task of the concurrent check runs for
+     */
+    private static final long RUN_NANOS = 100000;
+
+    /**
+     * Seconds the concurrent check may take before it counts as wedged
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * A CheckTask class standing in for the task of one connection, recording the order it ran in
+     * and how many of the connection's tasks were running alongside it
+     */
+    private static class CheckTask implements ConnectionTask
+    {
+        /**
+         * Connection the task belongs to
+         */
+        private final Connection connection;
+
+        /**
+         * Index of the task among those of its connection
+         */
+        private final int sequence;
+
+        /**
+         * Name of the task, as the connection's name and the sequence
+         */
+        private final String name;
+
+
+        /**
+         * Constructor
+         *
+         * @param connection <code>Connection</code> the task belongs to.
+         * @param sequence   <code>int</code> index of the task among those of its connection.
+         */
+        CheckTask(Connection connection, int sequence)
+        {
+            this.connection = connection;
+            this.sequence = sequence;
+            name = connection.name + sequence;
+        }
+
+        @Override
+        public SelectionKey getKey()
+        {
+            return null;
+        }
+
+        @Override
+        public AffinityTaskSource.Affinity getAffinity()
+        {
+            return null;
+        }
+
+        @Override
+        public FairTaskSource.Flow getFlow()
+        {
+            return connection.flow;
+        }
+
+        @Override
+        public void run()
+        {
+            int running = connection.running.incrementAndGet();
+            int maxRunning;
+
+            while (running > (maxRunning = connection.maxRunning.get())
+                    && !connection.maxRunning.compareAndSet(maxRunning, running))
+                ;
+
+            // IF a task overtook this one of the same connection, record it
+            if (connection.nextSequence.getAndIncrement() != sequence)
+                connection.outOfOrder.incrementAndGet();
+
+            // stay running a moment, so the other workers would have the chance to overtake it
+            LockSupport.parkNanos(RUN_NANOS);
+
+            connection.running.decrementAndGet();
+        }
+    }
+
+    /**
+     * A Connection class holding the Flow of one connection and what its tasks recorded
+     */
+    private static class Connection
+    {
+        /**
+         * Name of the connection
+         */
+        private final String name;
+
+        /**
+         * Flow of the connection's tasks
+         */
+        private final FairTaskSource.Flow flow = new FairTaskSource.Flow();
+
+        /**
+         * Tasks of the connection running now and the most seen running at once
+         */
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        /**
+         * Sequence of the task expected to start next, and the tasks that started out of turn
+         */
+        private final AtomicInteger nextSequence = new AtomicInteger();
+        private final AtomicInteger outOfOrder = new AtomicInteger();
+
+        /**
+         * Constructor
+         *
+         * @param name <code>String</code> name of the connection.
+         */
+        Connection(String name)
+        {
+            this.name = name;
+        }
+    }
+
+
+    /**
+     * Method to take tasks one at a time as a single worker and name them in the order taken
+     *
+     * @param source   <code>FairTaskSource</code> to take from.
+     * @param numTasks <code>int</code> of the number of tasks to take.
+     * @return <code>String</code> of the names of the tasks taken, space separated.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    private static String takeAll(FairTaskSource source, int numTasks) throws InterruptedException
+    {
+        StringBuilder order = new StringBuilder();
+
+        for (int i = 0; i < numTasks; ++i)
+        {
+            if (i > 0)
+                order.append(' ');
+
+            order.append(((CheckTask) source.takeTask(0)).name);
+        }
+
+        return order.toString();
+    }
+
+    /**
+     * Method to check the order one worker takes the tasks of three connections in, for a quantum
+     * of one task and of two
+     *
+     * @return <code>String</code> describing the failure, or null if the order was right.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    private static String checkOrder() throws InterruptedException
+    {
+        String[] expected = {"A0 B0 C0 A1 B1 A2 B2", "A0 A1 B0 B1 C0 A2 B2"};
+
+        for (int quantum = 1; quantum <= 2; ++quantum)
+        {
+            FairTaskSource source = new FairTaskSource(1, quantum, Integer.MAX_VALUE);
+            Connection a = new Connection("A");
+            Connection b = new Connection("B");
+            Connection c = new Connection("C");
+
+            for (int i = 0; i < 3; ++i)
+                source.addTask(new CheckTask(a, i));
+
+            for (int i = 0; i < 3; ++i)
+                source.addTask(new CheckTask(b, i));
+
+            source.addTask(new CheckTask(c, 0));
+
+            String order = takeAll(source, 7);
+
+            if (!order.equals(expected[quantum - 1]))
+                return "quantum " + quantum + " took " + order + ", expected " + expected[quantum - 1];
+
+            if (source.getPendingTaskCount() != 0)
+                return "quantum " + quantum + " left " + source.getPendingTaskCount() + " tasks pending";
+        }
+
+        return null;
+    }
+
+    /**
+     * Method to check that a connection at the in flight cap sits out until one of its tasks
+     * comes back, while the tasks of no connection are not capped
+     *
+     * @return <code>String</code> describing the failure, or null if the cap held.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    private static String checkCap() throws InterruptedException
+    {
+        final FairTaskSource source = new FairTaskSource(2, 1, 1);
+        Connection a = new Connection("A");
+
+        source.addTask(new CheckTask(a, 0));
+        source.addTask(new CheckTask(a, 1));
+
+        if (source.takeTask(0) == null)
+            return "the first task was not handed out";
+
+        // A has a task running, so a second worker must wait rather than take A1
+        final Taskable[] taken = new Taskable[1];
+        final CountDownLatch done = new CountDownLatch(1);
+
+        Thread second = new Thread("FairTaskSourceCheck-1")
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    taken[0] = source.takeTask(1);
+                }
+                catch (InterruptedException ie)
+                {
+                    // left waiting, as it should be
+                }
+
+                done.countDown();
+            }
+        };
+
+        second.start();
+
+        if (done.await(200, TimeUnit.MILLISECONDS))
+            return "a second task of a capped connection was handed out: " + ((CheckTask) taken[0]).name;
+
+        // a task of no connection is not capped, so the waiting worker takes it
+        Taskable unowned = new Taskable()
+        {
+            @Override
+            public void run()
+            {
+            }
+        };
+
+        source.addTask(unowned);
+
+        if (!done.await(TIMEOUT, TimeUnit.SECONDS) || taken[0] != unowned)
+            return "the waiting worker did not take the task of no connection";
+
+        // once A0 comes back A1 may run
+        Taskable next = source.takeTask(0);
+
+        if (!(next instanceof CheckTask) || ((CheckTask) next).sequence != 1)
+            return "A1 was not handed out once A0 had finished";
+
+        return null;
+    }
+
+    /**
+     * Method to run the tasks of several connections on several workers at once, checking each
+     * connection never runs more at once than the cap. With a cap of one a task cannot be handed
+     * out before the one ahead of it has finished, so the tasks must also start in order.
+     *
+     * @param clientInFlight <code>int</code> of the tasks of one connection allowed to run at once.
+     * @return <code>String</code> describing the failure, or null if every connection kept to the cap.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    private static String checkConcurrent(int clientInFlight) throws InterruptedException
+    {
+        final FairTaskSource source = new FairTaskSource(NUM_WORKERS, 1, clientInFlight);
+        final CountDownLatch done = new CountDownLatch(NUM_CONNECTIONS * TASKS_PER_CONNECTION);
+        List<Connection> connections = new ArrayList<Connection>();
+        List<Thread> workers = new ArrayList<Thread>();
+
+        for (int i = 0; i < NUM_WORKERS; ++i)
+        {
+            final int workerID = i;
+
+            Thread worker = new Thread("FairTaskSourceCheck-" + i)
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        while (true)
+                        {
+                            source.takeTask(workerID).run();
+                            done.countDown();
+                        }
+                    }
+                    catch (Exception e)
+                    {
+                        // halted
+                    }
+                }
+            };
+
+            worker.start();
+            workers.add(worker);
+        }
+
+        for (int i = 0; i < NUM_CONNECTIONS; ++i)
+            connections.add(new Connection("C" + i + "-"));
+
+        for (int i = 0; i < TASKS_PER_CONNECTION; ++i)
+        {
+            for (Connection connection : connections)
+                source.addTask(new CheckTask(connection, i));
+        }
+
+        boolean finished = done.await(TIMEOUT, TimeUnit.SECONDS);
+
+        for (Thread worker : workers)
+            worker.interrupt();
+
+        if (!finished)
+            return "only " + (NUM_CONNECTIONS * TASKS_PER_CONNECTION - done.getCount()) + " of "
+                    + NUM_CONNECTIONS * TASKS_PER_CONNECTION + " tasks ran";
+
+        for (Connection connection : connections)
+        {
+            if (clientInFlight == 1 && connection.outOfOrder.get() > 0)
+                return connection.outOfOrder.get() + " tasks of " + connection.name + " started out of order";
+
+            if (connection.maxRunning.get() > clientInFlight)
+                return connection.maxRunning.get() + " tasks of " + connection.name + " ran at once, over the cap of "
+                        + clientInFlight;
+        }
+
+        return null;
+    }
+
+    /**
+     * main method
+     *
+     * Usage: FairTaskSourceCheck
+     *
+     * Exits with status 1 if any check failed.
+     *
+     * @param args command line arguments, unused
+     */
+    public static void main(String[] args) throws Exception
+    {
+        String[] names = {"order", "in flight cap", "concurrent, cap 1", "concurrent, cap 2"};
+        String[] failures = {checkOrder(), checkCap(), checkConcurrent(1), checkConcurrent(2)};
+
+        int numFailed = 0;
+
+        for (int i = 0; i < names.length; ++i)
+        {
+            System.out.println(names[i] + ": " + (failures[i] == null ? "ok" : failures[i]));
+
+            if (failures[i] != null)
+                ++numFailed;
+        }
+
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+}
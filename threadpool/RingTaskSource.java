@@ -0,0 +1,382 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.server.ServerClient;
+import cs455.scaling.threadpool.task.Protocol;
+import cs455.scaling.threadpool.task.ReadTask;
+import cs455.scaling.threadpool.task.Taskable;
+import cs455.scaling.threadpool.task.WriteTask;
+import cs455.scaling.threadpool.wait.Parker;
+import cs455.scaling.threadpool.wait.WaitStrategy;
+
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A RingTaskSource class handing events from the selectors to the workers through a ring of
+ * slots allocated up front, in the manner of a Disruptor. A selector claims the next sequence,
+ * fills the slot's ReadTask or WriteTask in with the key and publishes it; nothing is allocated
+ * per event. Workers claim runs of published sequences off a shared work sequence, a fair share
+ * of what is waiting up to MAX_BATCH at a time, and run them in order.
+ *
+ * A slot is only reused once every worker has moved past it: each worker records the sequence
+ * before the run it holds, and a producer a lap ahead waits until the lowest of those, and of
+ * the work sequence, has caught up.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class RingTaskSource implements TaskSource
+{
+    /**
+     * Most sequences a worker claims at once
+     */
+    public static final int MAX_BATCH = 64;
+
+    /**
+     * Spacing of the worker sequences, keeping each on a cache line of its own
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * Worker sequence of a worker holding no slots
+     */
+    private static final long NOT_HOLDING = Long.MAX_VALUE;
+
+    /**
+     * An Event class for one slot of the ring, keeping a ReadTask and a WriteTask to fill in so
+     * the selectors never create one
+     */
+    private static class Event
+    {
+        /**
+         * Task to run for the sequence in the slot
+         */
+        private Taskable task;
+
+        /**
+         * Tasks of the slot, reset for every event
+         */
+        private final ReadTask readTask = new ReadTask();
+        private final WriteTask writeTask = new WriteTask();
+    }
+
+    /**
+     * Slots of the ring
+     */
+    private final Event[] events;
+
+    /**
+     * int of the number of slots minus one, and of the bits of a sequence the slot index takes
+     */
+    private final int mask;
+    private final int indexShift;
+
+    /**
+     * Lap of the sequence last published in each slot
+     */
+    private final AtomicIntegerArray published;
+
+    /**
+     * Next sequence for a producer to claim
+     */
+    private final AtomicLong claimSequence;
+
+    /**
+     * Last sequence claimed by a worker
+     */
+    private final AtomicLong workSequence;
+
+    /**
+     * Sequence before the run each worker holds, NOT_HOLDING between runs, PADDING apart
+     */
+    private final AtomicLongArray workerSequences;
+
+    /**
+     * Lowest sequence the workers were last seen to hold, so producers rarely need to look again
+     */
+    private volatile long gatingSequence;
+
+    /**
+     * Sequences of the run each worker is going through, only touched by that worker
+     */
+    private final long[] batchNext;
+    private final long[] batchEnd;
+
+    /**
+     * int of the number of workers
+     */
+    private final int numWorkers;
+
+    /**
+     * Parkers the workers wait on for a sequence to be published, and how many are parked
+     */
+    private final Parker[] parkers;
+    private final AtomicInteger numParked;
+
+    /**
+     * Condition of the sequence after the work sequence being published
+     */
+    private final BooleanSupplier nextPublished;
+
+    /**
+     * WaitStrategy of the workers before they park
+     */
+    private final WaitStrategy waitStrategy;
+
+
+    /**
+     * Constructor
+     *
+     * @param numWorkers   <code>int</code> of the number of workers consuming the ring.
+     * @param capacity     <code>int</code> of the least number of slots, rounded up to a power of two.
+     * @param waitStrategy <code>WaitStrategy</code> of the workers before they park.
+     */
+    public RingTaskSource(int numWorkers, int capacity, WaitStrategy waitStrategy)
+    {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+
+        this.numWorkers = numWorkers;
+        this.waitStrategy = waitStrategy;
+        events = new Event[size];
+        mask = size - 1;
+        indexShift = Integer.numberOfTrailingZeros(size);
+        published = new AtomicIntegerArray(size);
+        claimSequence = new AtomicLong();
+        workSequence = new AtomicLong(-1);
+        workerSequences = new AtomicLongArray(numWorkers * PADDING);
+        gatingSequence = -1;
+        batchNext = new long[numWorkers];
+        batchEnd = new long[numWorkers];
+        parkers = new Parker[numWorkers];
+        numParked = new AtomicInteger();
+        nextPublished = new BooleanSupplier()
+        {
+            @Override
+            public boolean getAsBoolean()
+            {
+                return isPublished(workSequence.get() + 1);
+            }
+        };
+
+        for (int i = 0; i < size; ++i)
+        {
+            events[i] = new Event();
+
+            // no lap yet
+            published.set(i, -1);
+        }
+
+        for (int i = 0; i < numWorkers; ++i)
+        {
+            workerSequences.set(i * PADDING, NOT_HOLDING);
+            batchNext[i] = 0;
+            batchEnd[i] = -1;
+            parkers[i] = new Parker(numParked);
+        }
+    }
+
+    /**
+     * Method to publish a read or write of a connection, filling in the next slot's task
+     *
+     * @param taskType     <code>int</code> of the Protocol task type, READ_TASK or WRITE_TASK.
+     * @param key          <code>SelectionKey</code> of the connection.
+     * @param serverClient <code>ServerClient</code> the task posts its ops changes to.
+     */
+    public void publish(int taskType, SelectionKey key, ServerClient serverClient)
+    {
+        long sequence = claim();
+        Event event = events[(int) sequence & mask];
+
+        if (taskType == Protocol.READ_TASK)
+        {
+            event.readTask.reset(key, serverClient);
+            event.task = event.readTask;
+        }
+        else
+        {
+            event.writeTask.reset(key, serverClient);
+            event.task = event.writeTask;
+        }
+
+        publish(sequence);
+    }
+
+    /**
+     * Method to publish a task of any kind, for the work that does not come from a selector
+     *
+     * @param task <code>Taskable</code> to be run.
+     */
+    public void addTask(Taskable task)
+    {
+        long sequence = claim();
+
+        events[(int) sequence & mask].task = task;
+
+        publish(sequence);
+    }
+
+    /**
+     * Method to claim the next sequence, waiting while its slot is a lap ahead of the workers.
+     * The caller yields meanwhile, as SharedTaskQueue does when full.
+     *
+     * @return <code>long</code> of the sequence claimed.
+     */
+    private long claim()
+    {
+        long sequence = claimSequence.getAndIncrement();
+        long wrapPoint = sequence - events.length;
+
+        if (wrapPoint > gatingSequence)
+        {
+            long gating;
+
+            while (wrapPoint > (gating = lowestHeldSequence()))
+            {
+                wakeWorker();
+                Thread.yield();
+            }
+
+            gatingSequence = gating;
+        }
+
+        return sequence;
+    }
+
+    /**
+     * Method to find the lowest sequence that may still be in use. The work sequence is read
+     * first, so a worker claiming a run after it has already recorded what it holds.
+     *
+     * @return <code>long</code> of the sequence every slot up to which is free to be reused.
+     */
+    private long lowestHeldSequence()
+    {
+        long lowest = workSequence.get();
+
+        for (int i = 0; i < numWorkers; ++i)
+            lowest = Math.min(lowest, workerSequences.get(i * PADDING));
+
+        return lowest;
+    }
+
+    /**
+     * Method to make a filled in slot visible to the workers and wake one if they are all parked
+     *
+     * @param sequence <code>long</code> of the sequence filled in.
+     */
+    private void publish(long sequence)
+    {
+        published.set((int) sequence & mask, (int) (sequence >>> indexShift));
+
+        wakeWorker();
+    }
+
+    /**
+     * Method to determine if a sequence has been published
+     *
+     * @param sequence <code>long</code> of the sequence.
+     * @return <code>boolean</code> denoting whether its slot holds it.
+     */
+    private boolean isPublished(long sequence)
+    {
+        return published.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * Method to unpark one parked worker, if any
+     */
+    private void wakeWorker()
+    {
+        if (numParked.get() == 0)
+            return;
+
+        for (Parker parker : parkers)
+        {
+            if (parker.unpark())
+                return;
+        }
+    }
+
+    /**
+     * Method to take the next task of the calling worker's run, claiming a new run once it is
+     * through, and parking while nothing is published. Coming back means the last task has
+     * finished, so a slot is never handed out while a worker is still on it.
+     *
+     * @param workerID <code>int</code> index of the calling worker.
+     * @return <code>Taskable</code> to be run.
+     * @throws InterruptedException if the calling worker is interrupted while waiting.
+     */
+    @Override
+    public Taskable takeTask(int workerID) throws InterruptedException
+    {
+        while (batchNext[workerID] > batchEnd[workerID])
+        {
+            if (claimBatch(workerID))
+                break;
+
+            parkers[workerID].await(waitStrategy, nextPublished, this);
+        }
+
+        return events[(int) batchNext[workerID]++ & mask].task;
+    }
+
+    /**
+     * Method to claim a run of published sequences for a worker, a fair share of those waiting
+     *
+     * @param workerID <code>int</code> index of the calling worker.
+     * @return <code>boolean</code> denoting whether a run was claimed, false if nothing is published.
+     */
+    private boolean claimBatch(int workerID)
+    {
+        while (true)
+        {
+            long current = workSequence.get();
+            long next = current + 1;
+
+            if (!isPublished(next))
+            {
+                workerSequences.set(workerID * PADDING, NOT_HOLDING);
+                return false;
+            }
+
+            // hold the slots from next on before claiming them
+            workerSequences.set(workerID * PADDING, current);
+
+            long end = next;
+            long limit = next + (long) MAX_BATCH * numWorkers;
+
+            while (end + 1 < limit && isPublished(end + 1))
+                ++end;
+
+            int share = (int) Math.min(MAX_BATCH, Math.max(1, (end - next + 1) / numWorkers));
+            long last = next + share - 1;
+
+            if (workSequence.compareAndSet(current, last))
+            {
+                batchNext[workerID] = next;
+                batchEnd[workerID] = last;
+
+                // pass the wakeup along if there is more than this run waiting
+                if (end > last)
+                    wakeWorker();
+
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Method to get the number of tasks waiting to be picked up by a worker.
+     *
+     * @return <code>int</code> of the number of pending tasks.
+     */
+    @Override
+    public int getPendingTaskCount()
+    {
+        long pending = claimSequence.get() - 1 - workSequence.get();
+
+        return (int) Math.max(0, Math.min(pending, Integer.MAX_VALUE));
+    }
+}
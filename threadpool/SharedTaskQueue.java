@@ -0,0 +1,191 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.Taskable;
+import cs455.scaling.threadpool.wait.Parker;
+import cs455.scaling.threadpool.wait.WaitStrategy;
+import cs455.scaling.utility.concurrent.MpmcQueue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A SharedTaskQueue class that workers pull their tasks from directly. Tasks are
+ * handed off through a bounded lock-free queue and workers with nothing to do
+ * wait as the WaitStrategy says, then park until a producer unparks them.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class SharedTaskQueue implements TaskSource
+{
+    /**
+     * Time a worker parks for when it could not register itself as idle
+     */
+    private static final long IDLE_FALLBACK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * An IdleWorker class for the Parker a worker waits on, which puts itself on the idle queue
+     * as it announces it is parking. A waker has to clear its parked flag to wake it, so an entry
+     * the worker has since withdrawn, or that a retired worker left behind, is skipped instead of
+     * taking the wakeup.
+     */
+    private class IdleWorker extends Parker
+    {
+        /**
+         * boolean denoting whether the entry is on the idle queue, so a worker is never on it twice
+         */
+        private volatile boolean queued;
+
+        @Override
+        protected void announced()
+        {
+            // a worker still on the queue from an earlier wait is found there by the flag alone
+            if (!queued)
+            {
+                queued = true;
+
+                if (!idleWorkers.offer(this))
+                    queued = false;
+            }
+        }
+
+        @Override
+        protected void park(Object blocker)
+        {
+            if (queued)
+                LockSupport.park(blocker);
+            else
+                LockSupport.parkNanos(blocker, IDLE_FALLBACK_NANOS);
+        }
+    }
+
+    /**
+     * Queue holding the tasks to be done
+     */
+    private final MpmcQueue<Taskable> pendingTasks;
+
+    /**
+     * Queue of the workers that are parked waiting for a task, oldest first
+     */
+    private final MpmcQueue<IdleWorker> idleWorkers;
+
+    /**
+     * Entry of each worker for the idle queue
+     */
+    private final ThreadLocal<IdleWorker> idleWorker;
+
+    /**
+     * WaitStrategy of the workers before they park
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * Condition of a task being queued
+     */
+    private final BooleanSupplier taskQueued;
+
+
+    /**
+     * Constructor
+     *
+     * @param capacity     <code>int</code> of the maximum number of pending tasks.
+     * @param numWorkers   <code>int</code> of the most workers that will pull from this queue at once.
+     * @param waitStrategy <code>WaitStrategy</code> of the workers before they park.
+     */
+    public SharedTaskQueue(int capacity, int numWorkers, WaitStrategy waitStrategy)
+    {
+        this.waitStrategy = waitStrategy;
+        pendingTasks = new MpmcQueue<Taskable>(capacity);
+        idleWorkers = new MpmcQueue<IdleWorker>(numWorkers * 2);
+        idleWorker = new ThreadLocal<IdleWorker>()
+        {
+            @Override
+            protected IdleWorker initialValue()
+            {
+                return new IdleWorker();
+            }
+        };
+        taskQueued = new BooleanSupplier()
+        {
+            @Override
+            public boolean getAsBoolean()
+            {
+                return !pendingTasks.isEmpty();
+            }
+        };
+    }
+
+    /**
+     * Method to add a task to the queue and wake an idle worker for it. If the queue is full the caller
+     * yields until a worker frees up a slot.
+     *
+     * @param task <code>Taskable</code> to be queued.
+     */
+    public void addTask(Taskable task)
+    {
+        while (!pendingTasks.offer(task))
+        {
+            wakeIdleWorker();
+            Thread.yield();
+        }
+
+        wakeIdleWorker();
+    }
+
+    /**
+     * Method to take the next task, parking the calling worker while the queue is empty.
+     *
+     * @param workerID <code>int</code> index of the calling worker, unused as all workers share the queue.
+     * @return <code>Taskable</code> to be run.
+     * @throws InterruptedException if the calling worker is interrupted while parked.
+     */
+    @Override
+    public Taskable takeTask(int workerID) throws InterruptedException
+    {
+        while (true)
+        {
+            Taskable task = pendingTasks.poll();
+
+            if (task != null)
+            {
+                // pass the wakeup along if there is still work queued behind this task
+                if (!pendingTasks.isEmpty())
+                    wakeIdleWorker();
+
+                return task;
+            }
+
+            idleWorker.get().await(waitStrategy, taskQueued, this);
+        }
+    }
+
+    /**
+     * Method to unpark the longest idle worker, if any. Entries whose worker has since found a
+     * task or retired are dropped, as waking that worker would lose the wakeup.
+     */
+    private void wakeIdleWorker()
+    {
+        IdleWorker worker;
+
+        while ((worker = idleWorkers.poll()) != null)
+        {
+            // clear queued first, so a worker setting its flag meanwhile either sees it cleared and
+            // queues itself again, or has its flag seen here
+            worker.queued = false;
+
+            if (worker.unpark())
+                return;
+        }
+    }
+
+    /**
+     * Method to get the number of tasks waiting to be picked up by a worker.
+     *
+     * @return <code>int</code> of the number of pending tasks.
+     */
+    @Override
+    public int getPendingTaskCount()
+    {
+        return pendingTasks.size();
+    }
+}
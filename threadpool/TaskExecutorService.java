@@ -0,0 +1,152 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.RunnableTask;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A TaskExecutorService class presenting a ThreadPoolManager as an ExecutorService, so code
+ * written against java.util.concurrent, such as an AsynchronousChannelGroup, can run on our
+ * own pool. Shutting it down halts the pool, dropping any tasks not yet started.
+ *
+ * A worker of the pool submitting a task runs it itself instead, as a channel group does with
+ * its completions. Adding to a full source waits for a worker to free up a slot, and with every
+ * worker waiting on it the pool would never drain.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class TaskExecutorService extends AbstractExecutorService
+{
+    /**
+     * ThreadPoolManager running the tasks
+     */
+    private final ThreadPoolManager threadPoolManager;
+
+    /**
+     * boolean denoting whether the executor has been shut down
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * Latch released once the pool has been halted
+     */
+    private final CountDownLatch terminated;
+
+    /**
+     * Commands submitted by each worker while it is already running one, run in turn once it is
+     * done so they never nest on the stack. Null while the worker is not running one.
+     */
+    private final ThreadLocal<Deque<Runnable>> inlineCommands;
+
+
+    /**
+     * Constructor
+     *
+     * @param threadPoolManager <code>ThreadPoolManager</code> to run the tasks, started by the caller.
+     */
+    public TaskExecutorService(ThreadPoolManager threadPoolManager)
+    {
+        this.threadPoolManager = threadPoolManager;
+        terminated = new CountDownLatch(1);
+        inlineCommands = new ThreadLocal<Deque<Runnable>>();
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        if (shutdown)
+            throw new RejectedExecutionException("Executor has been shut down");
+
+        if (threadPoolManager.isPoolThread())
+        {
+            runInline(command);
+            return;
+        }
+
+        threadPoolManager.addTask(new RunnableTask(command));
+    }
+
+    /**
+     * Method to run a command on the calling worker, along with any it submits meanwhile
+     *
+     * @param command <code>Runnable</code> to be run.
+     */
+    private void runInline(Runnable command)
+    {
+        Deque<Runnable> pending = inlineCommands.get();
+
+        // IF a command is already running further up the stack, it runs this one once it is done
+        if (pending != null)
+        {
+            pending.add(command);
+            return;
+        }
+
+        pending = new ArrayDeque<Runnable>();
+        inlineCommands.set(pending);
+
+        try
+        {
+            for (Runnable next = command; next != null; next = pending.poll())
+            {
+                try
+                {
+                    next.run();
+                }
+                catch (RuntimeException re)
+                {
+                    // keep going, the commands queued behind it belong to other operations
+                    re.printStackTrace();
+                }
+            }
+        }
+        finally
+        {
+            inlineCommands.remove();
+        }
+    }
+
+    @Override
+    public synchronized void shutdown()
+    {
+        if (shutdown)
+            return;
+
+        shutdown = true;
+        threadPoolManager.halt();
+        terminated.countDown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow()
+    {
+        shutdown();
+
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated()
+    {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return terminated.await(timeout, unit);
+    }
+}
@@ -0,0 +1,28 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.Taskable;
+
+/**
+ * A TaskSource interface to define where workers that pull their own
+ * jobs get them from.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public interface TaskSource
+{
+    /**
+     * Method to retrieve the next task, blocking the calling worker until one is available.
+     *
+     * @param workerID <code>int</code> index of the calling worker within its pool.
+     * @return <code>Taskable</code> to be run by the calling worker.
+     * @throws InterruptedException if the calling worker is interrupted while waiting.
+     */
+    public Taskable takeTask(int workerID) throws InterruptedException;
+
+    /**
+     * Method to get the number of tasks waiting to be picked up by a worker.
+     *
+     * @return <code>int</code> of the number of pending tasks.
+     */
+    public int getPendingTaskCount();
+}
@@ -15,4 +15,11 @@ public interface ThreadHandler
      */
     public void processCompletedThread(Thread thread);
 
+    /**
+     * Method to account for time a thread has spent running a job.
+     *
+     * @param nanos <code>long</code> of the nanoseconds the job took.
+     */
+    public void addBusyTime(long nanos);
+
 }
@@ -1,11 +1,20 @@
 package cs455.scaling.threadpool;
 
 import cs455.scaling.threadpool.exceptions.InvalidThreadCountException;
+import cs455.scaling.threadpool.task.QueueWorker;
 import cs455.scaling.threadpool.task.Worker;
+import cs455.scaling.threadpool.wait.BlockingWaitStrategy;
+import cs455.scaling.threadpool.wait.Parker;
+import cs455.scaling.threadpool.wait.WaitStrategy;
 
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 
 /**
  * A ThreadPool class
@@ -14,6 +23,21 @@ import java.util.LinkedList;
  */
 public class ThreadPool implements ThreadHandler
 {
+    /**
+     * TaskSource the workers pull from, or null if the manager hands tasks to free workers
+     */
+    private final TaskSource taskSource;
+
+    /**
+     * ThreadGroup every thread created by this pool belongs to, so they can be told apart
+     */
+    private final ThreadGroup workerGroup;
+
+    /**
+     * List of every thread created by this pool
+     */
+    private final List<Thread> threads;
+
     /**
      * Queue for the available threads
      */
@@ -30,15 +54,46 @@ public class ThreadPool implements ThreadHandler
     private final HashMap<String, Worker> workerHashMap;
 
     /**
-     * int for the number of threads this pool is to manage.
+     * int for the number of threads this pool is to manage. Only changes when a pool whose
+     * workers pull their own tasks is resized.
+     */
+    private volatile int numTotalThreads;
+
+    /**
+     * int of the ID the next worker started is given
      */
-    private final int numTotalThreads;
+    private int nextWorkerID;
 
     /**
      * int for the number of threads currently available
      */
     private volatile int numAvailableThreads;
 
+    /**
+     * WaitStrategy of the managed workers, and of the dispatcher waiting for one of them
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * Parker the dispatcher waits on for a worker
+     */
+    private final Parker dispatcherParker;
+
+    /**
+     * Condition of a worker being available
+     */
+    private final BooleanSupplier workerAvailable;
+
+    /**
+     * Nanoseconds the workers have spent running tasks
+     */
+    private final LongAdder busyNanos;
+
+    /**
+     * Number of tasks the workers have finished
+     */
+    private final LongAdder completedTasks;
+
 
     /**
      * Constructor
@@ -46,14 +101,65 @@ public class ThreadPool implements ThreadHandler
      * @param initialThreadCount <code>int</code> of the number of initial threads the pool is to have.
      */
     public ThreadPool(int initialThreadCount) throws InvalidThreadCountException
+    {
+        this(initialThreadCount, null);
+    }
+
+    /**
+     * Constructor for a pool whose workers pull their own tasks. The free and working
+     * queues are not needed in this case as no one hands out workers.
+     *
+     * @param initialThreadCount <code>int</code> of the number of initial threads the pool is to have.
+     * @param taskSource         <code>TaskSource</code> the workers pull from, or null for managed workers.
+     */
+    public ThreadPool(int initialThreadCount, TaskSource taskSource) throws InvalidThreadCountException
+    {
+        this(initialThreadCount, taskSource, new BlockingWaitStrategy());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param initialThreadCount <code>int</code> of the number of initial threads the pool is to have.
+     * @param taskSource         <code>TaskSource</code> the workers pull from, or null for managed workers.
+     * @param waitStrategy       <code>WaitStrategy</code> of managed workers waiting for a task, and of the
+     *                           dispatcher waiting for a worker.
+     */
+    public ThreadPool(int initialThreadCount, TaskSource taskSource, WaitStrategy waitStrategy)
+            throws InvalidThreadCountException
     {
         if (initialThreadCount < 1)
             throw new InvalidThreadCountException("Threadpool cannot be created with less than 1 thread!");
 
         numTotalThreads = initialThreadCount;
-        freeQueue = new LinkedList<Thread>();
-        workingQueue = new LinkedList<Thread>();
-        workerHashMap = new HashMap<String, Worker>();
+        this.taskSource = taskSource;
+        this.waitStrategy = waitStrategy;
+        workerGroup = new ThreadGroup("ThreadPool");
+        threads = new ArrayList<Thread>(initialThreadCount);
+        busyNanos = new LongAdder();
+        completedTasks = new LongAdder();
+        dispatcherParker = new Parker();
+        workerAvailable = new BooleanSupplier()
+        {
+            @Override
+            public boolean getAsBoolean()
+            {
+                return numAvailableThreads > 0;
+            }
+        };
+
+        if (taskSource == null)
+        {
+            freeQueue = new LinkedList<Thread>();
+            workingQueue = new LinkedList<Thread>();
+            workerHashMap = new HashMap<String, Worker>();
+        }
+        else
+        {
+            freeQueue = null;
+            workingQueue = null;
+            workerHashMap = null;
+        }
     }
 
     /**
@@ -93,12 +199,13 @@ public class ThreadPool implements ThreadHandler
     }
 
     /**
-     * Method to take a thread from the working queue and put them on the free queue
+     * Method to take a thread from the working queue and put them on the free queue. Synchronized
+     * with getWorker, as the workers finishing at once would otherwise lose each other's count.
      *
      * @param thread <code>Thread</code> that has finished its task.
      */
     @Override
-    public void processCompletedThread(Thread thread)
+    public synchronized void processCompletedThread(Thread thread)
     {
         synchronized (workingQueue)
         {
@@ -113,25 +220,101 @@ public class ThreadPool implements ThreadHandler
 
         ++numAvailableThreads;
 
+        // wake the dispatcher if it is waiting for a worker
+        dispatcherParker.unpark();
+
 //        System.out.println("Thread [" + thread.getName() + "] returned to pool.");
     }
 
+    /**
+     * Method to wait, as the WaitStrategy says, until a thread is available for work. Only the
+     * count is watched, without the lock, so the dispatcher does not starve the workers trying
+     * to return themselves.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void awaitWorker() throws InterruptedException
+    {
+        dispatcherParker.await(waitStrategy, workerAvailable, this);
+    }
+
+    @Override
+    public void addBusyTime(long nanos)
+    {
+        busyNanos.add(nanos);
+        completedTasks.increment();
+    }
+
+    /**
+     * Accessor for the time the workers have spent running tasks
+     *
+     * @return <code>long</code> of the nanoseconds.
+     */
+    public long getBusyNanos()
+    {
+        return busyNanos.sum();
+    }
+
+    /**
+     * Accessor for the number of tasks the workers have finished
+     *
+     * @return <code>long</code> of the number of tasks.
+     */
+    public long getCompletedTasks()
+    {
+        return completedTasks.sum();
+    }
+
+    /**
+     * Accessor for the number of threads in the pool
+     *
+     * @return <code>int</code> of the number of threads.
+     */
+    public int getSize()
+    {
+        return numTotalThreads;
+    }
+
+    /**
+     * Method to determine if a thread is one of this pool's workers
+     *
+     * @param thread <code>Thread</code> to check.
+     * @return <code>boolean</code> denoting whether the pool created the thread and it is still running.
+     */
+    public boolean isPoolThread(Thread thread)
+    {
+        return thread.getThreadGroup() == workerGroup;
+    }
+
     /**
      * Method to create the threads to be used in our thread pool
      */
     public void initializer()
     {
+        // IF the workers pull their own tasks there is no bookkeeping to do
+        if (taskSource != null)
+        {
+            synchronized (threads)
+            {
+                for (int i = 0; i < numTotalThreads; ++i)
+                    startQueueWorker();
+            }
+
+            return;
+        }
+
         /**
          * Creates n amount of threads for our pool
          */
         for (int i = 0; i < numTotalThreads; ++i)
         {
             String threadID = Integer.toString(i);
-            Worker newWorker = new Worker(this);
-            Thread newThread = new Thread(newWorker, threadID);
+            Worker newWorker = new Worker(this, waitStrategy);
+            Thread newThread = new Thread(workerGroup, newWorker, threadID);
 
             newThread.start();
 
+            threads.add(newThread);
             freeQueue.add(newThread);
             workerHashMap.put(threadID, newWorker);
 
@@ -141,11 +324,68 @@ public class ThreadPool implements ThreadHandler
 
     }
 
+    /**
+     * Method to add a worker to a pool whose workers pull their own tasks
+     */
+    public void addWorker()
+    {
+        synchronized (threads)
+        {
+            // forget the workers that have retired since
+            for (Iterator<Thread> it = threads.iterator(); it.hasNext(); )
+            {
+                if (!it.next().isAlive())
+                    it.remove();
+            }
+
+            startQueueWorker();
+            ++numTotalThreads;
+        }
+    }
+
+    /**
+     * Method to count a worker out of the pool once a RetireTask is on its way to one
+     */
+    public void removeWorker()
+    {
+        synchronized (threads)
+        {
+            --numTotalThreads;
+        }
+    }
+
+    /**
+     * Method to start a QueueWorker with the next worker ID, the threads lock being held
+     */
+    private void startQueueWorker()
+    {
+        int workerID = nextWorkerID++;
+        Thread newThread = new Thread(workerGroup, new QueueWorker(taskSource, workerID, this),
+                Integer.toString(workerID));
+
+        newThread.start();
+
+        threads.add(newThread);
+    }
+
     /**
      * Method to terminate all threads and destroy references to its queue items.
      */
     public void halt()
     {
+        if (taskSource != null)
+        {
+            synchronized (threads)
+            {
+                for (Thread t : threads)
+                {
+                    t.interrupt();
+                }
+            }
+
+            return;
+        }
+
         synchronized (freeQueue)
         {
             for (Thread t : freeQueue)
@@ -164,7 +404,5 @@ public class ThreadPool implements ThreadHandler
 
         workerHashMap.clear();
 
-        Thread.currentThread().interrupt();
-
     }
 }
@@ -0,0 +1,394 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.wait.BlockingWaitStrategy;
+import cs455.scaling.threadpool.wait.BusySpinWaitStrategy;
+import cs455.scaling.threadpool.wait.ParkingWaitStrategy;
+import cs455.scaling.threadpool.wait.WaitStrategy;
+import cs455.scaling.threadpool.wait.YieldingWaitStrategy;
+import cs455.scaling.utility.Options;
+
+/**
+ * A ThreadPoolConfig class holding the settings a ThreadPoolManager is created with.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class ThreadPoolConfig
+{
+    /**
+     * Default number of checks the yielding and parking wait strategies spin for
+     */
+    public static final int DEFAULT_SPIN_COUNT = 1000;
+
+    /**
+     * int for the number of threads in the pool
+     */
+    private final int numThreads;
+
+    /**
+     * int of the ThreadPoolManager dispatch mode
+     */
+    private int dispatchMode;
+
+    /**
+     * int of the maximum number of tasks waiting for a worker. The shared queue is sized to it,
+     * and the reactors stop dispatching reads while it is reached, whatever the dispatch mode.
+     */
+    private int queueCapacity;
+
+    /**
+     * int of the WorkStealingTaskSource distribution policy
+     */
+    private int distribution;
+
+    /**
+     * WaitStrategy of the workers waiting for a task and of the dispatcher waiting for a task or a worker
+     */
+    private WaitStrategy waitStrategy;
+
+    /**
+     * int of the number of tasks a lane must be deeper than the shallowest for a connection to
+     * leave it under affinity dispatch
+     */
+    private int migrateThreshold;
+
+    /**
+     * int of the tasks a connection runs a turn, and of the tasks of one connection allowed to
+     * run at once, under fair dispatch
+     */
+    private int fairQuantum;
+    private int clientInFlight;
+
+    /**
+     * int of the fewest and most threads the pool may have. The pool is fixed at the number
+     * of threads unless they differ, which only queue dispatch supports.
+     */
+    private int minThreads;
+    private int maxThreads;
+
+    /**
+     * long of the milliseconds a task may expect to wait for a worker before the pool grows
+     */
+    private long targetWaitMillis;
+
+    /**
+     * long of the seconds the pool must have a spare worker before it retires one
+     */
+    private long keepAliveSeconds;
+
+
+    /**
+     * Constructor using managed dispatch and default settings
+     *
+     * @param numThreads <code>int</code> of the number of threads in the pool.
+     */
+    public ThreadPoolConfig(int numThreads)
+    {
+        this.numThreads = numThreads;
+        dispatchMode = ThreadPoolManager.MANAGED_DISPATCH;
+        queueCapacity = ThreadPoolManager.DEFAULT_QUEUE_CAPACITY;
+        distribution = WorkStealingTaskSource.CONNECTION_DISTRIBUTION;
+        waitStrategy = new BlockingWaitStrategy();
+        migrateThreshold = AffinityTaskSource.DEFAULT_MIGRATE_THRESHOLD;
+        fairQuantum = FairTaskSource.DEFAULT_QUANTUM;
+        clientInFlight = FairTaskSource.DEFAULT_CLIENT_IN_FLIGHT;
+        minThreads = numThreads;
+        maxThreads = numThreads;
+        targetWaitMillis = AutoScaler.DEFAULT_TARGET_WAIT;
+        keepAliveSeconds = AutoScaler.DEFAULT_KEEP_ALIVE;
+    }
+
+    /**
+     * Method to build a configuration from the command line options
+     *
+     * Options: --dispatch=managed|queue|stealing|affinity|fair|ring --queue-capacity=n
+     *          --distribution=connection|roundrobin --migrate-threshold=n --fair-quantum=n --client-in-flight=n
+     *          --min-threads=n --max-threads=n --target-wait=milliseconds --keep-alive=seconds
+     *          --wait=blocking|spin|yield|park --spin-count=n
+     *
+     * @param numThreads <code>int</code> of the number of threads in the pool.
+     * @param options    <code>Options</code> given on the command line.
+     * @return <code>ThreadPoolConfig</code> with the given options applied.
+     * @throws IllegalArgumentException if an option has an unknown value.
+     */
+    public static ThreadPoolConfig fromOptions(int numThreads, Options options)
+    {
+        ThreadPoolConfig config = new ThreadPoolConfig(numThreads);
+
+        String dispatch = options.getString("dispatch", "managed");
+
+        if (dispatch.equals("managed"))
+            config.setDispatchMode(ThreadPoolManager.MANAGED_DISPATCH);
+        else if (dispatch.equals("queue"))
+            config.setDispatchMode(ThreadPoolManager.QUEUE_DISPATCH);
+        else if (dispatch.equals("stealing"))
+            config.setDispatchMode(ThreadPoolManager.STEALING_DISPATCH);
+        else if (dispatch.equals("affinity"))
+            config.setDispatchMode(ThreadPoolManager.AFFINITY_DISPATCH);
+        else if (dispatch.equals("fair"))
+            config.setDispatchMode(ThreadPoolManager.FAIR_DISPATCH);
+        else if (dispatch.equals("ring"))
+            config.setDispatchMode(ThreadPoolManager.RING_DISPATCH);
+        else
+            throw new IllegalArgumentException("Unknown dispatch mode: " + dispatch);
+
+        config.setQueueCapacity(options.getInt("queue-capacity", ThreadPoolManager.DEFAULT_QUEUE_CAPACITY));
+
+        String distribution = options.getString("distribution", "connection");
+
+        if (distribution.equals("connection"))
+            config.setDistribution(WorkStealingTaskSource.CONNECTION_DISTRIBUTION);
+        else if (distribution.equals("roundrobin"))
+            config.setDistribution(WorkStealingTaskSource.ROUND_ROBIN_DISTRIBUTION);
+        else
+            throw new IllegalArgumentException("Unknown distribution: " + distribution);
+
+        config.setWaitStrategy(parseWaitStrategy(options.getString("wait", "blocking"),
+                options.getInt("spin-count", DEFAULT_SPIN_COUNT)));
+        config.setMigrateThreshold(options.getInt("migrate-threshold", AffinityTaskSource.DEFAULT_MIGRATE_THRESHOLD));
+        config.setFairQuantum(options.getInt("fair-quantum", FairTaskSource.DEFAULT_QUANTUM));
+        config.setClientInFlight(options.getInt("client-in-flight", FairTaskSource.DEFAULT_CLIENT_IN_FLIGHT));
+        config.setThreadBounds(options.getInt("min-threads", numThreads), options.getInt("max-threads", numThreads));
+        config.setTargetWaitMillis(options.getInt("target-wait", (int) AutoScaler.DEFAULT_TARGET_WAIT));
+        config.setKeepAliveSeconds(options.getInt("keep-alive", (int) AutoScaler.DEFAULT_KEEP_ALIVE));
+        config.validate();
+
+        return config;
+    }
+
+    /**
+     * Method to map a wait strategy name to a WaitStrategy
+     *
+     * @param name  <code>String</code> of the strategy, blocking, spin, yield or park.
+     * @param spins <code>int</code> of the checks the yield and park strategies spin for first.
+     * @return <code>WaitStrategy</code> of the name.
+     * @throws IllegalArgumentException if the name is not a strategy.
+     */
+    public static WaitStrategy parseWaitStrategy(String name, int spins)
+    {
+        if (spins < 0)
+            throw new IllegalArgumentException("Spin count cannot be negative");
+
+        if (name.equals("blocking"))
+            return new BlockingWaitStrategy();
+        else if (name.equals("spin"))
+            return new BusySpinWaitStrategy();
+        else if (name.equals("yield"))
+            return new YieldingWaitStrategy(spins);
+        else if (name.equals("park"))
+            return new ParkingWaitStrategy(spins);
+
+        throw new IllegalArgumentException("Unknown wait strategy: " + name + ", expected blocking, spin, yield or park");
+    }
+
+    /**
+     * Method to check the settings fit together
+     *
+     * @throws IllegalArgumentException if the thread bounds do not hold the number of threads, or
+     *                                  the pool is to resize without queue dispatch.
+     */
+    public void validate()
+    {
+        if (minThreads < 1 || minThreads > numThreads || maxThreads < numThreads)
+            throw new IllegalArgumentException("Thread bounds " + minThreads + " to " + maxThreads
+                    + " must hold the " + numThreads + " starting threads");
+
+        if (isResizable() && dispatchMode != ThreadPoolManager.QUEUE_DISPATCH)
+            throw new IllegalArgumentException("Only queue dispatch can resize the pool");
+
+        if (migrateThreshold < 0)
+            throw new IllegalArgumentException("Migrate threshold cannot be negative");
+
+        if (fairQuantum < 1 || clientInFlight < 1)
+            throw new IllegalArgumentException("Fair quantum and client in flight must be positive");
+
+        if (targetWaitMillis < 1 || keepAliveSeconds < 1)
+            throw new IllegalArgumentException("Target wait and keep alive must be positive");
+    }
+
+    /**
+     * Method to determine if the pool may change size
+     *
+     * @return <code>boolean</code> denoting whether the thread bounds differ.
+     */
+    public boolean isResizable()
+    {
+        return minThreads != maxThreads;
+    }
+
+    /**
+     * Accessor for the number of threads in the pool
+     */
+    public int getNumThreads()
+    {
+        return numThreads;
+    }
+
+    /**
+     * Accessor for the ThreadPoolManager dispatch mode
+     */
+    public int getDispatchMode()
+    {
+        return dispatchMode;
+    }
+
+    /**
+     * Mutator for the ThreadPoolManager dispatch mode
+     */
+    public void setDispatchMode(int dispatchMode)
+    {
+        this.dispatchMode = dispatchMode;
+    }
+
+    /**
+     * Accessor for the maximum number of tasks in the shared queue
+     */
+    public int getQueueCapacity()
+    {
+        return queueCapacity;
+    }
+
+    /**
+     * Mutator for the maximum number of tasks in the shared queue
+     */
+    public void setQueueCapacity(int queueCapacity)
+    {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Accessor for the WorkStealingTaskSource distribution policy
+     */
+    public int getDistribution()
+    {
+        return distribution;
+    }
+
+    /**
+     * Mutator for the WorkStealingTaskSource distribution policy
+     */
+    public void setDistribution(int distribution)
+    {
+        this.distribution = distribution;
+    }
+
+    /**
+     * Accessor for the WaitStrategy of the workers and the dispatcher
+     */
+    public WaitStrategy getWaitStrategy()
+    {
+        return waitStrategy;
+    }
+
+    /**
+     * Mutator for the WaitStrategy of the workers and the dispatcher
+     */
+    public void setWaitStrategy(WaitStrategy waitStrategy)
+    {
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Accessor for the number of tasks a lane must be deeper than the shallowest for a connection to leave it
+     */
+    public int getMigrateThreshold()
+    {
+        return migrateThreshold;
+    }
+
+    /**
+     * Mutator for the number of tasks a lane must be deeper than the shallowest for a connection to leave it
+     */
+    public void setMigrateThreshold(int migrateThreshold)
+    {
+        this.migrateThreshold = migrateThreshold;
+    }
+
+    /**
+     * Accessor for the tasks a connection runs a turn under fair dispatch
+     */
+    public int getFairQuantum()
+    {
+        return fairQuantum;
+    }
+
+    /**
+     * Mutator for the tasks a connection runs a turn under fair dispatch
+     */
+    public void setFairQuantum(int fairQuantum)
+    {
+        this.fairQuantum = fairQuantum;
+    }
+
+    /**
+     * Accessor for the tasks of one connection allowed to run at once under fair dispatch
+     */
+    public int getClientInFlight()
+    {
+        return clientInFlight;
+    }
+
+    /**
+     * Mutator for the tasks of one connection allowed to run at once under fair dispatch
+     */
+    public void setClientInFlight(int clientInFlight)
+    {
+        this.clientInFlight = clientInFlight;
+    }
+
+    /**
+     * Accessor for the fewest threads the pool may have
+     */
+    public int getMinThreads()
+    {
+        return minThreads;
+    }
+
+    /**
+     * Accessor for the most threads the pool may have
+     */
+    public int getMaxThreads()
+    {
+        return maxThreads;
+    }
+
+    /**
+     * Mutator for the fewest and most threads the pool may have
+     */
+    public void setThreadBounds(int minThreads, int maxThreads)
+    {
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Accessor for the milliseconds a task may expect to wait before the pool grows
+     */
+    public long getTargetWaitMillis()
+    {
+        return targetWaitMillis;
+    }
+
+    /**
+     * Mutator for the milliseconds a task may expect to wait before the pool grows
+     */
+    public void setTargetWaitMillis(long targetWaitMillis)
+    {
+        this.targetWaitMillis = targetWaitMillis;
+    }
+
+    /**
+     * Accessor for the seconds the pool must have a spare worker before it retires one
+     */
+    public long getKeepAliveSeconds()
+    {
+        return keepAliveSeconds;
+    }
+
+    /**
+     * Mutator for the seconds the pool must have a spare worker before it retires one
+     */
+    public void setKeepAliveSeconds(long keepAliveSeconds)
+    {
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+}
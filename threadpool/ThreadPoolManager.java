@@ -1,12 +1,18 @@
 package cs455.scaling.threadpool;
 
 
+import cs455.scaling.server.ServerClient;
 import cs455.scaling.threadpool.exceptions.InvalidThreadCountException;
+import cs455.scaling.threadpool.task.TaskFactory;
 import cs455.scaling.threadpool.task.Taskable;
 import cs455.scaling.threadpool.task.Worker;
+import cs455.scaling.threadpool.wait.Parker;
+import cs455.scaling.threadpool.wait.WaitStrategy;
 
+import java.nio.channels.SelectionKey;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.function.BooleanSupplier;
 
 /**
  * A ThreadPoolManager class
@@ -15,6 +21,66 @@ import java.util.LinkedList;
  */
 public class ThreadPoolManager extends Thread
 {
+    /**
+     * Dispatch modes. Managed dispatch has this thread hand each task to a free worker,
+     * queue dispatch has the workers pull tasks straight from a shared lock-free queue
+     * and stealing dispatch gives each worker its own deque that idle workers steal from.
+     * Affinity dispatch pins each connection to one worker's lane, moving it only when idle,
+     * and fair dispatch serves each connection's own queue of tasks in turn. Ring dispatch has
+     * the selectors fill in tasks kept in the slots of a preallocated ring the workers consume.
+     */
+    public static final int MANAGED_DISPATCH = 0;
+    public static final int QUEUE_DISPATCH = 1;
+    public static final int STEALING_DISPATCH = 2;
+    public static final int AFFINITY_DISPATCH = 3;
+    public static final int FAIR_DISPATCH = 4;
+    public static final int RING_DISPATCH = 5;
+
+    /**
+     * Default maximum number of tasks waiting for a worker
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+
+    /**
+     * int of the dispatch mode in use
+     */
+    private final int dispatchMode;
+
+    /**
+     * int of the number of waiting tasks at which the pool counts as saturated
+     */
+    private final int queueCapacity;
+
+    /**
+     * Queue the workers pull from when using queue dispatch
+     */
+    private final SharedTaskQueue taskQueue;
+
+    /**
+     * Per worker deques the workers pull from when using stealing dispatch
+     */
+    private final WorkStealingTaskSource stealingSource;
+
+    /**
+     * Per worker lanes the workers pull from when using affinity dispatch
+     */
+    private final AffinityTaskSource affinitySource;
+
+    /**
+     * Per connection queues the workers are served from in turn when using fair dispatch
+     */
+    private final FairTaskSource fairSource;
+
+    /**
+     * Ring of preallocated tasks the workers consume when using ring dispatch
+     */
+    private final RingTaskSource ringSource;
+
+    /**
+     * AutoScaler resizing the pool, or null if the pool is fixed
+     */
+    private final AutoScaler autoScaler;
+
     /**
      * ThreadPool to be used by the manager
      */
@@ -26,9 +92,24 @@ public class ThreadPoolManager extends Thread
     private final Deque<Taskable> pendingTasks;
 
     /**
-     * Object for lock
+     * Number of tasks in pendingTasks, watched by the dispatcher without taking its lock
      */
-    private final Object lock;
+    private volatile int numPendingTasks;
+
+    /**
+     * WaitStrategy of the dispatcher waiting for a task
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * Parker the dispatcher waits on for a task
+     */
+    private final Parker parker;
+
+    /**
+     * Condition of a task waiting to be handed out
+     */
+    private final BooleanSupplier taskPending;
 
 
     /**
@@ -38,13 +119,128 @@ public class ThreadPoolManager extends Thread
      */
     public ThreadPoolManager(int numThreads) throws InvalidThreadCountException
     {
-        threadPool = new ThreadPool(numThreads);
+        this(numThreads, MANAGED_DISPATCH);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param numThreads   <code>int</code> denoting the number of threads this manager is supposed to coordinate.
+     * @param dispatchMode <code>int</code> of the dispatch mode to use.
+     */
+    public ThreadPoolManager(int numThreads, int dispatchMode) throws InvalidThreadCountException
+    {
+        this(configFor(numThreads, dispatchMode));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param config <code>ThreadPoolConfig</code> with the pool size, dispatch mode and queue settings.
+     */
+    public ThreadPoolManager(ThreadPoolConfig config) throws InvalidThreadCountException
+    {
+        dispatchMode = config.getDispatchMode();
+        queueCapacity = config.getQueueCapacity();
         pendingTasks = new LinkedList<Taskable>();
-        lock = new Object();
+        waitStrategy = config.getWaitStrategy();
+        parker = new Parker();
+        taskPending = new BooleanSupplier()
+        {
+            @Override
+            public boolean getAsBoolean()
+            {
+                return numPendingTasks > 0;
+            }
+        };
+
+        int numThreads = config.getNumThreads();
+
+        config.validate();
+
+        switch (dispatchMode)
+        {
+            case MANAGED_DISPATCH:
+                taskQueue = null;
+                stealingSource = null;
+                affinitySource = null;
+                fairSource = null;
+                ringSource = null;
+                threadPool = new ThreadPool(numThreads, null, waitStrategy);
+                break;
+
+            case QUEUE_DISPATCH:
+                taskQueue = new SharedTaskQueue(config.getQueueCapacity(), config.getMaxThreads(), waitStrategy);
+                stealingSource = null;
+                affinitySource = null;
+                fairSource = null;
+                ringSource = null;
+                threadPool = new ThreadPool(numThreads, taskQueue);
+                break;
+
+            case STEALING_DISPATCH:
+                taskQueue = null;
+                stealingSource = new WorkStealingTaskSource(numThreads, config.getDistribution(), waitStrategy);
+                affinitySource = null;
+                fairSource = null;
+                ringSource = null;
+                threadPool = new ThreadPool(numThreads, stealingSource);
+                break;
+
+            case AFFINITY_DISPATCH:
+                taskQueue = null;
+                stealingSource = null;
+                affinitySource = new AffinityTaskSource(numThreads, config.getQueueCapacity(),
+                        config.getMigrateThreshold(), waitStrategy);
+                fairSource = null;
+                ringSource = null;
+                threadPool = new ThreadPool(numThreads, affinitySource);
+                break;
+
+            case FAIR_DISPATCH:
+                taskQueue = null;
+                stealingSource = null;
+                affinitySource = null;
+                fairSource = new FairTaskSource(numThreads, config.getFairQuantum(), config.getClientInFlight());
+                ringSource = null;
+                threadPool = new ThreadPool(numThreads, fairSource);
+                break;
+
+            case RING_DISPATCH:
+                taskQueue = null;
+                stealingSource = null;
+                affinitySource = null;
+                fairSource = null;
+                ringSource = new RingTaskSource(numThreads, config.getQueueCapacity(), waitStrategy);
+                threadPool = new ThreadPool(numThreads, ringSource);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown dispatch mode: " + dispatchMode);
+        }
+
+        autoScaler = config.isResizable() ? new AutoScaler(threadPool, taskQueue, config) : null;
+    }
+
+    /**
+     * Method to create a default configuration with the given dispatch mode
+     *
+     * @param numThreads   <code>int</code> of the number of threads in the pool.
+     * @param dispatchMode <code>int</code> of the dispatch mode to use.
+     * @return <code>ThreadPoolConfig</code> for the pool.
+     */
+    private static ThreadPoolConfig configFor(int numThreads, int dispatchMode)
+    {
+        ThreadPoolConfig config = new ThreadPoolConfig(numThreads);
+        config.setDispatchMode(dispatchMode);
+
+        return config;
     }
 
     /**
-     * Method to add tasks to the server pool as worker threads are available.
+     * Method to add tasks to the server pool as worker threads are available. With queue, stealing,
+     * affinity, fair or ring dispatch the workers fetch their own tasks, so this thread only starts them and exits,
+     * unless the pool is resizable, in which case it stays to run the AutoScaler.
      */
     @Override
     public void run()
@@ -52,13 +248,22 @@ public class ThreadPoolManager extends Thread
         // initialize all of the thread pools threads
         threadPool.initializer();
 
+        if (autoScaler != null)
+        {
+            autoScaler.run();
+            return;
+        }
+
+        if (dispatchMode != MANAGED_DISPATCH)
+            return;
+
 
 
         while (!Thread.currentThread().isInterrupted())
         {
 
             // IF we have tasks that have not been completed
-            if (pendingTasks.size() > 0)
+            if (numPendingTasks > 0)
             {
                 Worker worker = threadPool.getWorker();
 
@@ -66,45 +271,58 @@ public class ThreadPoolManager extends Thread
                 // IF the worker was not null
                 if (worker != null)
                 {
-                    // assign the task to the worker
+                    // assign the task to the worker, waking it if it is parked
                     worker.setTask(getNextTask());
 
-                    synchronized (worker)
-                    {
-                        // notify the worker of its new task
-                        worker.notify();
-                    }
-
 //                    System.out.println("Thread [" + worker.getID() + "] tasked with job.");
 
                 }
-//                else
-//                    System.err.println("WORKER NULL");
+                else
+                {
+                    try
+                    {
+                        threadPool.awaitWorker();
+                    }
+                    catch (InterruptedException ie)
+                    {
+                        // we have been halted, keep the flag so the loop exits
+                        Thread.currentThread().interrupt();
+                    }
+                }
 
 
             }
             else
             {
+                awaitTask();
+            }
+        }
 
-                /**
-                 * Wait for the queue to grow
-                 */
-                try
-                {
-                    synchronized (lock)
-//                    synchronized (this)
-                    {
-                        lock.wait();
-                    }
-                }
-                catch (InterruptedException ie)
-                {
-                    ie.printStackTrace();
-                }
+    }
 
-            }
+    /**
+     * Method to wait, as the WaitStrategy says, for the queue to grow or the dispatcher to be halted
+     */
+    private void awaitTask()
+    {
+        try
+        {
+            parker.await(waitStrategy, taskPending, this);
         }
+        catch (InterruptedException ie)
+        {
+            // we have been halted, keep the flag so the loop exits
+            Thread.currentThread().interrupt();
+        }
+    }
 
+    /**
+     * Method to stop the dispatcher and every worker of the pool. Tasks not yet started are dropped.
+     */
+    public void halt()
+    {
+        threadPool.halt();
+        interrupt();
     }
 
     /**
@@ -119,32 +337,134 @@ public class ThreadPoolManager extends Thread
         synchronized (pendingTasks)
         {
             task = pendingTasks.poll();
+            numPendingTasks = pendingTasks.size();
         }
 
         return task;
     }
 
     /**
-     * Method to add a task to be processed by the thread pool.
+     * Method to get the number of tasks waiting for a worker
      *
-     * @param task <code>Taskable</code> the Thread is to execute.
+     * @return <code>int</code> of the number of tasks.
      */
-    public void addTask(Taskable task)
+    public int getPendingTaskCount()
     {
-        synchronized (lock)
-        {
+        if (dispatchMode == QUEUE_DISPATCH)
+            return taskQueue.getPendingTaskCount();
+        else if (dispatchMode == STEALING_DISPATCH)
+            return stealingSource.getPendingTaskCount();
+        else if (dispatchMode == AFFINITY_DISPATCH)
+            return affinitySource.getPendingTaskCount();
+        else if (dispatchMode == FAIR_DISPATCH)
+            return fairSource.getPendingTaskCount();
+        else if (dispatchMode == RING_DISPATCH)
+            return ringSource.getPendingTaskCount();
+
+        return numPendingTasks;
+    }
 
+    /**
+     * Method to determine if the pool has as many tasks waiting as it should hold. Producers able
+     * to hold work back, such as the reactors deferring reads, stop adding tasks while it is.
+     *
+     * @return <code>boolean</code> denoting whether the pool is saturated.
+     */
+    public boolean isSaturated()
+    {
+        return getPendingTaskCount() >= queueCapacity;
+    }
 
-            synchronized (pendingTasks)
-            {
-                pendingTasks.add(task);
-            }
+    /**
+     * Accessor for the number of worker threads in the pool, which changes over time if it is resizable
+     *
+     * @return <code>int</code> of the number of threads.
+     */
+    public int getPoolSize()
+    {
+        return threadPool.getSize();
+    }
 
+    /**
+     * Method to determine if the calling thread is one of the pool's workers
+     *
+     * @return <code>boolean</code> denoting whether the caller is a worker.
+     */
+    public boolean isPoolThread()
+    {
+        return threadPool.isPoolThread(Thread.currentThread());
+    }
+
+    /**
+     * Accessor for the time the workers have spent running tasks
+     *
+     * @return <code>long</code> of the nanoseconds.
+     */
+    public long getBusyNanos()
+    {
+        return threadPool.getBusyNanos();
+    }
 
-            lock.notify();
+    /**
+     * Method to add a read or write of a connection to be processed by the thread pool. Ring dispatch
+     * fills in a task kept in the ring, the other modes create one with the TaskFactory.
+     *
+     * @param taskType     <code>int</code> of the Protocol task type.
+     * @param key          <code>SelectionKey</code> of the connection.
+     * @param serverClient <code>ServerClient</code> the task posts its ops changes to.
+     */
+    public void dispatch(int taskType, SelectionKey key, ServerClient serverClient)
+    {
+        if (dispatchMode == RING_DISPATCH)
+        {
+            ringSource.publish(taskType, key, serverClient);
+            return;
         }
 
+        addTask(TaskFactory.createTask(taskType, key, serverClient));
+    }
+
+    /**
+     * Method to add a task to be processed by the thread pool.
+     *
+     * @param task <code>Taskable</code> the Thread is to execute.
+     */
+    public void addTask(Taskable task)
+    {
+        if (dispatchMode == QUEUE_DISPATCH)
+        {
+            taskQueue.addTask(task);
+            return;
+        }
+        else if (dispatchMode == STEALING_DISPATCH)
+        {
+            stealingSource.addTask(task);
+            return;
+        }
+        else if (dispatchMode == AFFINITY_DISPATCH)
+        {
+            affinitySource.addTask(task);
+            return;
+        }
+        else if (dispatchMode == FAIR_DISPATCH)
+        {
+            fairSource.addTask(task);
+            return;
+        }
+        else if (dispatchMode == RING_DISPATCH)
+        {
+            ringSource.addTask(task);
+            return;
+        }
+
+        synchronized (pendingTasks)
+        {
+            pendingTasks.add(task);
+            numPendingTasks = pendingTasks.size();
+        }
 
+        // wake the dispatcher if it is parked waiting for a task
+        parker.unpark();
     }
 
 }
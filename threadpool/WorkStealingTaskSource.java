@@ -0,0 +1,197 @@
+package cs455.scaling.threadpool;
+
+import cs455.scaling.threadpool.task.ConnectionTask;
+import cs455.scaling.threadpool.task.Taskable;
+import cs455.scaling.threadpool.wait.Parker;
+import cs455.scaling.threadpool.wait.WaitStrategy;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A WorkStealingTaskSource class giving every worker its own deque. Tasks are
+ * distributed over the deques either round-robin or by connection, workers take
+ * from the head of their own deque and, once it runs dry, steal from the tail of
+ * the other workers' deques.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class WorkStealingTaskSource implements TaskSource
+{
+    /**
+     * Distribution policies. Round-robin spreads tasks evenly, connection distribution
+     * sends every task of a connection to the same worker so its state stays in that
+     * worker's cache.
+     */
+    public static final int ROUND_ROBIN_DISTRIBUTION = 0;
+    public static final int CONNECTION_DISTRIBUTION = 1;
+
+    /**
+     * Deques owned by each of the workers
+     */
+    private final Deque<Taskable>[] deques;
+
+    /**
+     * Parkers the workers wait on for a task
+     */
+    private final Parker[] parkers;
+
+    /**
+     * Counter used for round-robin distribution
+     */
+    private final AtomicInteger nextWorker;
+
+    /**
+     * int of the distribution policy in use
+     */
+    private final int distribution;
+
+    /**
+     * Number of tasks queued over all deques, kept alongside as the deques cannot count cheaply
+     */
+    private final AtomicInteger pendingCount;
+
+    /**
+     * Condition of a task waiting in any deque
+     */
+    private final BooleanSupplier taskPending;
+
+    /**
+     * WaitStrategy of the workers before they park
+     */
+    private final WaitStrategy waitStrategy;
+
+
+    /**
+     * Constructor
+     *
+     * @param numWorkers   <code>int</code> of the number of workers pulling from this source.
+     * @param distribution <code>int</code> of the distribution policy, ROUND_ROBIN_DISTRIBUTION or
+     *                     CONNECTION_DISTRIBUTION.
+     * @param waitStrategy <code>WaitStrategy</code> of the workers before they park.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public WorkStealingTaskSource(int numWorkers, int distribution, WaitStrategy waitStrategy)
+    {
+        this.distribution = distribution;
+        this.waitStrategy = waitStrategy;
+        deques = new Deque[numWorkers];
+        parkers = new Parker[numWorkers];
+        nextWorker = new AtomicInteger();
+        pendingCount = new AtomicInteger();
+        taskPending = new BooleanSupplier()
+        {
+            @Override
+            public boolean getAsBoolean()
+            {
+                return pendingCount.get() > 0;
+            }
+        };
+
+        for (int i = 0; i < numWorkers; ++i)
+        {
+            deques[i] = new ConcurrentLinkedDeque<Taskable>();
+            parkers[i] = new Parker();
+        }
+    }
+
+    /**
+     * Method to add a task to the deque of the worker it is distributed to and make
+     * sure someone is awake to run it.
+     *
+     * @param task <code>Taskable</code> to be queued.
+     */
+    public void addTask(Taskable task)
+    {
+        int owner = selectWorker(task);
+
+        pendingCount.incrementAndGet();
+        deques[owner].offerLast(task);
+
+        // IF the owner is parked wake it, otherwise let an idle worker steal the task
+        if (!parkers[owner].unpark())
+            wakeIdleWorker(owner);
+    }
+
+    /**
+     * Method to pick the worker whose deque a task is to be put on
+     *
+     * @param task <code>Taskable</code> being distributed.
+     * @return <code>int</code> index of the owning worker.
+     */
+    private int selectWorker(Taskable task)
+    {
+        if (distribution == CONNECTION_DISTRIBUTION && task instanceof ConnectionTask)
+            return (((ConnectionTask) task).getKey().hashCode() & Integer.MAX_VALUE) % deques.length;
+
+        return (nextWorker.getAndIncrement() & Integer.MAX_VALUE) % deques.length;
+    }
+
+    /**
+     * Method to unpark one parked worker, starting the search after the given worker.
+     *
+     * @param from <code>int</code> index of the worker to start searching after.
+     */
+    private void wakeIdleWorker(int from)
+    {
+        for (int i = 1; i < deques.length; ++i)
+        {
+            if (parkers[(from + i) % deques.length].unpark())
+                return;
+        }
+    }
+
+    /**
+     * Method to take the next task from the calling worker's own deque, stealing from
+     * the others when it is empty and parking when there is nothing left anywhere.
+     *
+     * @param workerID <code>int</code> index of the calling worker.
+     * @return <code>Taskable</code> to be run.
+     * @throws InterruptedException if the calling worker is interrupted while parked.
+     */
+    @Override
+    public Taskable takeTask(int workerID) throws InterruptedException
+    {
+        while (true)
+        {
+            Taskable task = findTask(workerID);
+
+            if (task != null)
+                return task;
+
+            parkers[workerID].await(waitStrategy, taskPending, this);
+        }
+    }
+
+    /**
+     * Method to poll the worker's own deque, then steal from the tail of the others.
+     *
+     * @param workerID <code>int</code> index of the calling worker.
+     * @return <code>Taskable</code> found, or null if every deque is empty.
+     */
+    private Taskable findTask(int workerID)
+    {
+        Taskable task = deques[workerID].pollFirst();
+
+        for (int i = 1; task == null && i < deques.length; ++i)
+            task = deques[(workerID + i) % deques.length].pollLast();
+
+        if (task != null)
+            pendingCount.decrementAndGet();
+
+        return task;
+    }
+
+    /**
+     * Method to get the number of tasks waiting to be picked up by a worker.
+     *
+     * @return <code>int</code> of the number of pending tasks.
+     */
+    @Override
+    public int getPendingTaskCount()
+    {
+        return pendingCount.get();
+    }
+}
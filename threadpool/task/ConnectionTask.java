@@ -0,0 +1,36 @@
+package cs455.scaling.threadpool.task;
+
+import cs455.scaling.threadpool.AffinityTaskSource;
+import cs455.scaling.threadpool.FairTaskSource;
+
+import java.nio.channels.SelectionKey;
+
+/**
+ * A ConnectionTask interface for tasks that work on a single client connection,
+ * so schedulers can keep a connection's tasks together.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public interface ConnectionTask extends Taskable
+{
+    /**
+     * Accessor for the key of the connection this task works on
+     *
+     * @return <code>SelectionKey</code> of the connection.
+     */
+    public SelectionKey getKey();
+
+    /**
+     * Accessor for the lane affinity of the connection this task works on
+     *
+     * @return <code>AffinityTaskSource.Affinity</code> of the connection.
+     */
+    public AffinityTaskSource.Affinity getAffinity();
+
+    /**
+     * Accessor for the fair queuing Flow of the connection this task works on
+     *
+     * @return <code>FairTaskSource.Flow</code> of the connection.
+     */
+    public FairTaskSource.Flow getFlow();
+}
@@ -0,0 +1,87 @@
+package cs455.scaling.threadpool.task;
+
+import cs455.scaling.threadpool.TaskSource;
+import cs455.scaling.threadpool.ThreadHandler;
+import cs455.scaling.utility.buffer.BufferPool;
+
+import java.io.IOException;
+
+/**
+ * A QueueWorker class that pulls its own tasks from a TaskSource instead of
+ * waiting for the ThreadPoolManager to hand them over. It ends when it takes a
+ * RetireTask, handing its cached buffers back on the way out.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class QueueWorker implements Runnable
+{
+    /**
+     * TaskSource this worker pulls its jobs from
+     */
+    private final TaskSource taskSource;
+
+    /**
+     * int index of this worker within its pool
+     */
+    private final int workerID;
+
+    /**
+     * ThreadHandler reference to account the time spent on jobs to
+     */
+    private final ThreadHandler caller;
+
+
+    /**
+     * Constructor
+     *
+     * @param taskSource <code>TaskSource</code> to pull jobs from.
+     * @param workerID   <code>int</code> index of this worker within its pool.
+     * @param caller     <code>ThreadHandler</code> reference to the pool of this worker.
+     */
+    public QueueWorker(TaskSource taskSource, int workerID, ThreadHandler caller)
+    {
+        this.taskSource = taskSource;
+        this.workerID = workerID;
+        this.caller = caller;
+    }
+
+    @Override
+    public void run()
+    {
+        while (!Thread.currentThread().isInterrupted())
+        {
+            try
+            {
+                Taskable task = taskSource.takeTask(workerID);
+
+                // IF the pool is shrinking, this worker is the one to go
+                if (task == RetireTask.INSTANCE)
+                {
+                    BufferPool.getPoolInstance().releaseThreadCache();
+                    return;
+                }
+
+                long start = System.nanoTime();
+
+                try
+                {
+                    task.run();
+                }
+                finally
+                {
+                    caller.addBusyTime(System.nanoTime() - start);
+                }
+            }
+            catch (InterruptedException ie)
+            {
+                // we have been halted, keep the flag so the loop exits
+                Thread.currentThread().interrupt();
+            }
+            catch (IOException ioe)
+            {
+                System.err.println(ioe.getMessage());
+                ioe.printStackTrace();
+            }
+        }
+    }
+}
@@ -1,22 +1,24 @@
 package cs455.scaling.threadpool.task;
 
 import cs455.scaling.server.ClientInfo;
+import cs455.scaling.server.MessageCodec;
 import cs455.scaling.server.ServerClient;
+import cs455.scaling.threadpool.AffinityTaskSource;
+import cs455.scaling.threadpool.FairTaskSource;
 import cs455.scaling.utility.OpsChangeRequest;
-import cs455.scaling.utility.Util;
+import cs455.scaling.utility.logging.Log;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
-import java.security.NoSuchAlgorithmException;
 
 /**
  * A WriteTask class
  *
  * @author ahrtmn, 04 03 2014
  */
-public class ReadTask implements Taskable
+public class ReadTask implements ConnectionTask
 {
     /**
      * SelectionKey associated with the channel to be read from
@@ -40,6 +42,24 @@ public class ReadTask implements Taskable
      * @param key <code>SelectionKey</code> representing the connection to accept.
      */
     public ReadTask(SelectionKey key, ServerClient serverClient)
+    {
+        reset(key, serverClient);
+    }
+
+    /**
+     * Constructor for a task kept in a RingTaskSource slot, to be reset before each run
+     */
+    public ReadTask()
+    {
+    }
+
+    /**
+     * Method to point the task at another connection, so one task can be run for event after event
+     *
+     * @param key          <code>SelectionKey</code> of the connection.
+     * @param serverClient <code>ServerClient</code> managing change ops requests.
+     */
+    public void reset(SelectionKey key, ServerClient serverClient)
     {
         this.key = key;
         this.serverClient = serverClient;
@@ -47,30 +67,48 @@ public class ReadTask implements Taskable
     }
 
 
+    @Override
+    public SelectionKey getKey()
+    {
+        return key;
+    }
+
+    @Override
+    public AffinityTaskSource.Affinity getAffinity()
+    {
+        return ((ClientInfo) key.attachment()).getAffinity();
+    }
+
+    @Override
+    public FairTaskSource.Flow getFlow()
+    {
+        return ((ClientInfo) key.attachment()).getFlow();
+    }
+
     @Override
     public void run() throws IOException
     {
         /**
-         * ByteBuffer to store the data read from client
+         * ClientInfo of the current key
          */
-        ByteBuffer buffer = ByteBuffer.allocate(Util.BUFFER_SIZE);
+        ClientInfo clientInfo = (ClientInfo) key.attachment();
 
         /**
-         * ClientInfo of the current key
+         * ByteBuffer accumulating the message, which may already hold part of it from an earlier read
          */
-        ClientInfo clientInfo = (ClientInfo) key.attachment();
+        ByteBuffer buffer = clientInfo.getReadBuffer();
 
 
         int read = 0;
 
         /**
-         * Try to read the data from the client
+         * Try to read whatever the client has sent so far, without waiting for the rest
          */
         try
         {
-            // WHILE there is more to read
-            while (buffer.hasRemaining() && read != -1)
-                read = socketChannel.read(buffer);
+            // WHILE there is room left and the channel has data for us
+            while (buffer.hasRemaining() && (read = socketChannel.read(buffer)) > 0)
+                ;
 
         }
         catch (IOException e)
@@ -95,57 +133,72 @@ public class ReadTask implements Taskable
             return;
         }
 
+        long readTime = System.nanoTime();
 
-        buffer.flip();
-
-        byte[] bufferBytes = new byte[Util.BUFFER_SIZE];
-
-        buffer.get(bufferBytes);
-
-        try
+        // IF the message is incomplete, go back to waiting on the selector for the rest
+        if (!MessageCodec.negotiate(clientInfo, buffer) || buffer.hasRemaining())
         {
-            byte[] hash = Util.SHA1FromBytes(buffer.array()).getBytes();
+            if (!clientInfo.hasPartialRead())
+                clientInfo.releaseReadBuffer();
 
-            if (hash.length < 40)
-            {
-                byte[] fullHash = new byte[40];
+            clientInfo.recordRead(readTime, !clientInfo.hasPartialRead());
 
-                // get the number of zeroes we need to pad
-                int difference = 40 - hash.length;
+            // keep draining any backlog of hashes while we wait
+            int ops = clientInfo.hasWrites() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
 
-                // pad with zeroes
-                for (int i = 0; i < difference; ++i)
-                    fullHash[i] = 0;
+            serverClient.addOpsChangeRequest(OpsChangeRequest.obtain(socketChannel, OpsChangeRequest.CHANGEOPS, ops));
+            return;
+        }
 
-                // add the remaining hash
-                for (int i = difference, j = 0; i < 40; ++i, ++j)
-                    fullHash[i] = hash[j];
 
-                hash = fullHash;
+        clientInfo.recordRead(readTime, true);
 
+        buffer.flip();
 
-            }
+        try
+        {
+            // hash straight out of the read buffer into the write buffer, as hex or raw as the client asked
+            ByteBuffer hashBuffer = MessageCodec.encodeResponse(clientInfo, buffer);
 
             // Get the client info associated with this key and add the hash of the data read to it
-            clientInfo.addPendingWrite(hash);
+            clientInfo.addPendingWrite(hashBuffer, readTime);
 
-            System.out.println("Data read from client [Address: " + clientInfo.getRemoteAddress() + "].\n\tCreating Hash..\n");
+            if (Log.isDebugEnabled())
+                Log.debug("Data read from client [Address: " + clientInfo.getRemoteAddress() + "]. Hash created.");
         }
-        catch (NoSuchAlgorithmException nsae)
+        finally
         {
-            System.err.println(nsae.getMessage());
-            nsae.printStackTrace();
+            clientInfo.releaseReadBuffer();
         }
 
-        serverClient.addOpsChangeRequest(new OpsChangeRequest(socketChannel, OpsChangeRequest.CHANGEOPS,
-                SelectionKey.OP_WRITE));
+        try
+        {
+            // write the hash back straight away, so writing never waits on the client going quiet
+            clientInfo.writePendingWrites(socketChannel);
+        }
+        catch (IOException ioe)
+        {
+            /**
+             * Abnormal termination
+             */
+            clientInfo.disconnect();
+
+            key.cancel();
+
+            return;
+        }
+
+        // read the next message, also writing whatever the socket did not take unless the backlog is too long
+        int ops = SelectionKey.OP_READ;
+
+        if (clientInfo.hasWrites())
+            ops = clientInfo.shouldRead() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_WRITE;
+
+        serverClient.addOpsChangeRequest(OpsChangeRequest.obtain(socketChannel, OpsChangeRequest.CHANGEOPS, ops));
 
         // change the interested operation to writing
 //        key.interestOps(SelectionKey.OP_WRITE);
 
-        // need to recognize the changes
-        key.selector().wakeup();
-
 
     }
 
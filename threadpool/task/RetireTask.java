@@ -0,0 +1,30 @@
+package cs455.scaling.threadpool.task;
+
+/**
+ * A RetireTask class telling the QueueWorker that takes it to end, so a pool can shrink
+ * by queueing it behind the work already waiting rather than interrupting anyone.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class RetireTask implements Taskable
+{
+    /**
+     * The one RetireTask, recognised by identity
+     */
+    public static final RetireTask INSTANCE = new RetireTask();
+
+
+    /**
+     * Constructor
+     */
+    private RetireTask()
+    {
+
+    }
+
+    @Override
+    public void run()
+    {
+        // nothing to do, the worker taking it ends instead
+    }
+}
@@ -0,0 +1,31 @@
+package cs455.scaling.threadpool.task;
+
+/**
+ * A RunnableTask class letting a plain Runnable be run by the thread pool
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class RunnableTask implements Taskable
+{
+    /**
+     * Runnable to be run
+     */
+    private final Runnable runnable;
+
+
+    /**
+     * Constructor
+     *
+     * @param runnable <code>Runnable</code> to be run.
+     */
+    public RunnableTask(Runnable runnable)
+    {
+        this.runnable = runnable;
+    }
+
+    @Override
+    public void run()
+    {
+        runnable.run();
+    }
+}
@@ -0,0 +1,42 @@
+package cs455.scaling.threadpool.task;
+
+/**
+ * A WireProtocol interface holding the constants of the handshake a client may open
+ * its connection with to choose how the server sends back its hashes.
+ *
+ * A handshake is the 8 byte magic followed by a version byte and a flags byte, and the
+ * server answers with the same layout carrying the version and flags it accepted. A
+ * client that does not open with the magic is a legacy client and gets hex hashes.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public interface WireProtocol
+{
+    /**
+     * Magic opening a handshake, "CS455SHA" in ASCII. A legacy client opens with 8kb of
+     * random data, which matches it once in 2^64 connections.
+     */
+    public static final long HANDSHAKE_MAGIC = 0x4353343535534841L;
+
+    /**
+     * Length of the handshake and of its acknowledgement in bytes
+     */
+    public static final int HANDSHAKE_LENGTH = 10;
+
+    /**
+     * Protocol versions. Not yet negotiated, 40 byte hex hashes, or 20 byte raw digests.
+     */
+    public static final byte UNNEGOTIATED = 0;
+    public static final byte HEX_VERSION = 1;
+    public static final byte BINARY_VERSION = 2;
+
+    /**
+     * Flag asking for every binary digest to be preceded by the message sequence number
+     */
+    public static final byte SEQUENCE_FLAG = 0x01;
+
+    /**
+     * Length of a message sequence number in bytes
+     */
+    public static final int SEQUENCE_LENGTH = 8;
+}
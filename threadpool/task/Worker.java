@@ -1,8 +1,12 @@
 package cs455.scaling.threadpool.task;
 
 import cs455.scaling.threadpool.ThreadHandler;
+import cs455.scaling.threadpool.wait.BlockingWaitStrategy;
+import cs455.scaling.threadpool.wait.Parker;
+import cs455.scaling.threadpool.wait.WaitStrategy;
 
 import java.io.IOException;
+import java.util.function.BooleanSupplier;
 
 /**
  * A Worker class
@@ -12,15 +16,30 @@ import java.io.IOException;
 public class Worker implements Runnable
 {
     /**
-     * Runnable for the job that is to be loaded in
+     * Runnable for the job that is to be loaded in, handed over by the manager
      */
-    private Taskable task;
+    private volatile Taskable task;
 
     /**
      * ThreadHandler reference to notify manager when we have finished a job
      */
     private final ThreadHandler caller;
 
+    /**
+     * WaitStrategy used while there is no job
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * Parker the worker waits on for a job
+     */
+    private final Parker parker;
+
+    /**
+     * Condition of a job having been handed over
+     */
+    private final BooleanSupplier taskReady;
+
 
     /**
      * Constructor
@@ -30,6 +49,17 @@ public class Worker implements Runnable
         this(null, caller);
     }
 
+    /**
+     * Constructor
+     *
+     * @param caller       <code>ThreadHandler</code> reference to the manager of this thread.
+     * @param waitStrategy <code>WaitStrategy</code> to use while there is no job.
+     */
+    public Worker(ThreadHandler caller, WaitStrategy waitStrategy)
+    {
+        this(null, caller, waitStrategy);
+    }
+
     /**
      * Constructor
      *
@@ -37,23 +67,55 @@ public class Worker implements Runnable
      * @param caller <code>ThreadHandler</code> reference to the manager of this thread.
      */
     public Worker(Taskable task, ThreadHandler caller)
+    {
+        this(task, caller, new BlockingWaitStrategy());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param task         <code>Taskable</code> to be completed by the thread holding this worker.
+     * @param caller       <code>ThreadHandler</code> reference to the manager of this thread.
+     * @param waitStrategy <code>WaitStrategy</code> to use while there is no job.
+     */
+    public Worker(Taskable task, ThreadHandler caller, WaitStrategy waitStrategy)
     {
         this.task = task;
         this.caller = caller;
+        this.waitStrategy = waitStrategy;
+        parker = new Parker();
+        taskReady = new BooleanSupplier()
+        {
+            @Override
+            public boolean getAsBoolean()
+            {
+                return Worker.this.task != null;
+            }
+        };
     }
 
     @Override
-    public synchronized void run()
+    public void run()
     {
-
         while (!Thread.currentThread().isInterrupted())
         {
             try
             {
+                Taskable current = task;
+
                 // IF there is a task available
-                if (task != null)
+                if (current != null)
                 {
-                    task.run();
+                    long start = System.nanoTime();
+
+                    try
+                    {
+                        current.run();
+                    }
+                    finally
+                    {
+                        caller.addBusyTime(System.nanoTime() - start);
+                    }
 
                     // we have completed our task
                     task = null;
@@ -62,12 +124,7 @@ public class Worker implements Runnable
                     caller.processCompletedThread(Thread.currentThread());
                 }
 
-                wait();
-            }
-            catch (InterruptedException ie)
-            {
-                System.err.println(ie.getMessage());
-                ie.printStackTrace();
+                awaitTask();
             }
             catch (IOException ioe)
             {
@@ -79,9 +136,32 @@ public class Worker implements Runnable
     }
 
 
+    /**
+     * Method to wait, as the WaitStrategy says, until a job is handed over or the worker is halted
+     */
+    private void awaitTask()
+    {
+        try
+        {
+            parker.await(waitStrategy, taskReady, this);
+        }
+        catch (InterruptedException ie)
+        {
+            // we have been halted, keep the flag so the loop exits
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method to hand the worker its next job, waking it if it is parked
+     *
+     * @param task <code>Taskable</code> to be completed.
+     */
     public void setTask(Taskable task)
     {
         this.task = task;
+
+        parker.unpark();
     }
 
 }
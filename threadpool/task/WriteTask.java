@@ -2,10 +2,12 @@ package cs455.scaling.threadpool.task;
 
 import cs455.scaling.server.ClientInfo;
 import cs455.scaling.server.ServerClient;
+import cs455.scaling.threadpool.AffinityTaskSource;
+import cs455.scaling.threadpool.FairTaskSource;
 import cs455.scaling.utility.OpsChangeRequest;
+import cs455.scaling.utility.logging.Log;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 
@@ -14,7 +16,7 @@ import java.nio.channels.SocketChannel;
  *
  * @author ahrtmn, 04 03 2014
  */
-public class WriteTask implements Taskable
+public class WriteTask implements ConnectionTask
 {
     /**
      * SelectionKey associated with the channel to be read from
@@ -39,6 +41,24 @@ public class WriteTask implements Taskable
      * @param key <code>SelectionKey</code> representing the connection to accept.
      */
     public WriteTask(SelectionKey key, ServerClient serverClient)
+    {
+        reset(key, serverClient);
+    }
+
+    /**
+     * Constructor for a task kept in a RingTaskSource slot, to be reset before each run
+     */
+    public WriteTask()
+    {
+    }
+
+    /**
+     * Method to point the task at another connection, so one task can be run for event after event
+     *
+     * @param key          <code>SelectionKey</code> of the connection.
+     * @param serverClient <code>ServerClient</code> managing change ops requests.
+     */
+    public void reset(SelectionKey key, ServerClient serverClient)
     {
         this.key = key;
         this.serverClient = serverClient;
@@ -47,43 +67,61 @@ public class WriteTask implements Taskable
 
 
     @Override
-    public void run() throws IOException
+    public SelectionKey getKey()
     {
+        return key;
+    }
 
-        /**
-         * ByteBuffer to read data from when its available
-         */
-        ByteBuffer byteBuffer;          // = ByteBuffer.allocate(Util.HASH_BUFFER_SIZE);
+    @Override
+    public AffinityTaskSource.Affinity getAffinity()
+    {
+        return ((ClientInfo) key.attachment()).getAffinity();
+    }
+
+    @Override
+    public FairTaskSource.Flow getFlow()
+    {
+        return ((ClientInfo) key.attachment()).getFlow();
+    }
+
+    @Override
+    public void run() throws IOException
+    {
 
         /**
          * ClientInfo of the current key
          */
         ClientInfo clientInfo = (ClientInfo) key.attachment();
 
-        /**
-         * Clients hash that is being written
-         */
-        byte[] hash;
+        long written;
 
-
-        // WHILE there is more to be written for this client
-        while (clientInfo.hasWrites())
+        try
         {
-            hash = clientInfo.getPendingWrite();
-
-            byteBuffer = ByteBuffer.wrap(hash);
+            // write as much of the backlog as the socket takes in one go
+            written = clientInfo.writePendingWrites(socketChannel);
+        }
+        catch (IOException ioe)
+        {
+            /**
+             * Abnormal termination
+             */
+            clientInfo.disconnect();
 
-            socketChannel.write(byteBuffer);
+            key.cancel();
 
-            System.out.println("Hash: " + new String(hash) + " written to client [Address: " + clientInfo.getRemoteAddress() + "]\n");
+            return;
         }
 
-        serverClient.addOpsChangeRequest(new OpsChangeRequest(socketChannel, OpsChangeRequest.CHANGEOPS,
-                SelectionKey.OP_READ));
+        if (Log.isDebugEnabled())
+            Log.debug(written + " bytes of hashes written to client [Address: " + clientInfo.getRemoteAddress() + "]");
+
+        // keep writing until the backlog is empty, reading alongside unless the backlog is too long
+        int ops = SelectionKey.OP_READ;
+
+        if (clientInfo.hasWrites())
+            ops = clientInfo.shouldRead() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_WRITE;
 
-//        key.interestOps(SelectionKey.OP_READ);
-        // need to recognize the changes
-        key.selector().wakeup();
+        serverClient.addOpsChangeRequest(OpsChangeRequest.obtain(socketChannel, OpsChangeRequest.CHANGEOPS, ops));
     }
 
 }
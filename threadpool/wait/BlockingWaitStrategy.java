@@ -0,0 +1,16 @@
+package cs455.scaling.threadpool.wait;
+
+/**
+ * A BlockingWaitStrategy class parking the waiter straight away, using no CPU while it waits
+ * at the cost of a wake up for every handoff.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class BlockingWaitStrategy implements WaitStrategy
+{
+    @Override
+    public boolean idle(int attempt)
+    {
+        return false;
+    }
+}
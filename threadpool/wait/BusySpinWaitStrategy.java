@@ -0,0 +1,18 @@
+package cs455.scaling.threadpool.wait;
+
+/**
+ * A BusySpinWaitStrategy class never letting the waiter go, for the lowest handoff latency
+ * where every waiter has a core of its own to burn.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class BusySpinWaitStrategy implements WaitStrategy
+{
+    @Override
+    public boolean idle(int attempt)
+    {
+        Thread.onSpinWait();
+
+        return true;
+    }
+}
@@ -0,0 +1,128 @@
+package cs455.scaling.threadpool.wait;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A Parker class for one waiting thread. It waits as a WaitStrategy says until its condition is
+ * ready, and when told to park it first sets its parked flag, then checks the condition once more.
+ * A waker makes the condition ready before calling unpark, so whichever way the two cross, either
+ * the waiter sees the condition or the waker sees the flag, and no wakeup is lost.
+ *
+ * Only the waker that clears the flag unparks the thread, so of several wakers racing for the
+ * same Parker only one counts as having woken it.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class Parker
+{
+    /**
+     * Flag for the thread being parked, 1 if parked or about to be
+     */
+    private final AtomicInteger parked;
+
+    /**
+     * Count of the parked threads of a group of Parkers, so wakers can skip looking, or null
+     */
+    private final AtomicInteger numParked;
+
+    /**
+     * Thread that last waited on this Parker
+     */
+    private volatile Thread thread;
+
+
+    /**
+     * Constructor
+     */
+    public Parker()
+    {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param numParked <code>AtomicInteger</code> counting the parked threads of a group of Parkers, or null.
+     */
+    public Parker(AtomicInteger numParked)
+    {
+        this.numParked = numParked;
+        parked = new AtomicInteger();
+    }
+
+    /**
+     * Method to wait until a condition is ready, spinning while the WaitStrategy says to and
+     * parking after. Returns at once if it is ready already.
+     *
+     * @param waitStrategy <code>WaitStrategy</code> saying how long to spin before parking.
+     * @param ready        <code>BooleanSupplier</code> of the condition waited for.
+     * @param blocker      <code>Object</code> the thread is parked on, shown in thread dumps.
+     * @throws InterruptedException if the calling thread is interrupted while the condition is not ready.
+     */
+    public void await(WaitStrategy waitStrategy, BooleanSupplier ready, Object blocker) throws InterruptedException
+    {
+        for (int attempt = 0; !ready.getAsBoolean(); ++attempt)
+        {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+
+            if (waitStrategy.idle(attempt))
+                continue;
+
+            thread = Thread.currentThread();
+
+            // announce we are about to park, then check once more so no wakeup is lost
+            parked.set(1);
+
+            if (numParked != null)
+                numParked.incrementAndGet();
+
+            announced();
+
+            if (!ready.getAsBoolean())
+                park(blocker);
+
+            // IF no waker cleared the flag meanwhile, withdraw it ourselves
+            if (parked.compareAndSet(1, 0) && numParked != null)
+                numParked.decrementAndGet();
+        }
+    }
+
+    /**
+     * Method called once the parked flag is set and before the last check, for Parkers that
+     * also have to make themselves known to their wakers
+     */
+    protected void announced()
+    {
+    }
+
+    /**
+     * Method to park the calling thread until it is unparked
+     *
+     * @param blocker <code>Object</code> the thread is parked on.
+     */
+    protected void park(Object blocker)
+    {
+        LockSupport.park(blocker);
+    }
+
+    /**
+     * Method to unpark the waiting thread if it is parked, or about to be
+     *
+     * @return <code>boolean</code> denoting whether this call cleared the flag and woke the thread.
+     */
+    public boolean unpark()
+    {
+        if (parked.get() == 0 || !parked.compareAndSet(1, 0))
+            return false;
+
+        if (numParked != null)
+            numParked.decrementAndGet();
+
+        LockSupport.unpark(thread);
+
+        return true;
+    }
+}
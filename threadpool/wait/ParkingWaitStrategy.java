@@ -0,0 +1,37 @@
+package cs455.scaling.threadpool.wait;
+
+/**
+ * A ParkingWaitStrategy class spinning for a bounded number of checks and then parking,
+ * catching the handoffs that come quickly without burning a core through a long lull.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class ParkingWaitStrategy implements WaitStrategy
+{
+    /**
+     * int of the number of checks to spin for before parking
+     */
+    private final int spins;
+
+
+    /**
+     * Constructor
+     *
+     * @param spins <code>int</code> of the number of checks to spin for before parking.
+     */
+    public ParkingWaitStrategy(int spins)
+    {
+        this.spins = spins;
+    }
+
+    @Override
+    public boolean idle(int attempt)
+    {
+        if (attempt >= spins)
+            return false;
+
+        Thread.onSpinWait();
+
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package cs455.scaling.threadpool.wait;
+
+/**
+ * A WaitStrategy interface to define how a thread passes the time while what it is waiting
+ * for, such as a task or a free worker, is not there yet. The waiter checks its condition,
+ * calls idle, and checks again; once idle says to stop it parks until it is signalled. Spinning
+ * longer costs CPU but skips the wake up, a context switch of tens of microseconds.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public interface WaitStrategy
+{
+    /**
+     * Method to pass the time once more while the waiter's condition is not met.
+     *
+     * @param attempt <code>int</code> of the number of times idle has been called during this wait, from 0.
+     * @return <code>boolean</code> true if the waiter should check again, false if it should park
+     *         until signalled.
+     */
+    public boolean idle(int attempt);
+}
@@ -0,0 +1,37 @@
+package cs455.scaling.threadpool.wait;
+
+/**
+ * A YieldingWaitStrategy class spinning for a while, then yielding the core on every check
+ * after, so other runnable threads get to run while the waiter still never sleeps.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class YieldingWaitStrategy implements WaitStrategy
+{
+    /**
+     * int of the number of checks to spin for before yielding
+     */
+    private final int spins;
+
+
+    /**
+     * Constructor
+     *
+     * @param spins <code>int</code> of the number of checks to spin for before yielding.
+     */
+    public YieldingWaitStrategy(int spins)
+    {
+        this.spins = spins;
+    }
+
+    @Override
+    public boolean idle(int attempt)
+    {
+        if (attempt < spins)
+            Thread.onSpinWait();
+        else
+            Thread.yield();
+
+        return true;
+    }
+}
@@ -0,0 +1,213 @@
+package cs455.scaling.utility;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A HashUtil class to compute SHA1 digests without allocating. Each thread keeps its
+ * own MessageDigest, digests are computed straight from the caller's buffers and hex
+ * is written through a lookup table into a caller-supplied array or buffer, always as
+ * the full 40 characters.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class HashUtil
+{
+    /**
+     * Length of a raw SHA1 digest in bytes
+     */
+    public static final int DIGEST_LENGTH = 20;
+
+    /**
+     * Length of a hex encoded SHA1 digest in bytes
+     */
+    public static final int HEX_DIGEST_LENGTH = 2 * DIGEST_LENGTH;
+
+    /**
+     * Lookup table of the lower case hex digits
+     */
+    private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7',
+            '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    /**
+     * Per thread MessageDigest, saving a provider lookup per message
+     */
+    private static final ThreadLocal<MessageDigest> threadDigest = new ThreadLocal<MessageDigest>()
+    {
+        @Override
+        protected MessageDigest initialValue()
+        {
+            try
+            {
+                return MessageDigest.getInstance("SHA1");
+            }
+            catch (NoSuchAlgorithmException nsae)
+            {
+                // every Java platform is required to support SHA1
+                throw new IllegalStateException(nsae);
+            }
+        }
+    };
+
+    /**
+     * Per thread scratch array the raw digest is produced into before hex encoding
+     */
+    private static final ThreadLocal<byte[]> threadScratch = new ThreadLocal<byte[]>()
+    {
+        @Override
+        protected byte[] initialValue()
+        {
+            return new byte[DIGEST_LENGTH];
+        }
+    };
+
+
+    private HashUtil()
+    {
+
+    }
+
+    /**
+     * Method to compute the raw digest of the remaining bytes of a buffer in place.
+     *
+     * @param data   <code>ByteBuffer</code> to digest. Its position is moved to its limit.
+     * @param digest <code>byte[]</code> receiving the digest.
+     * @param offset <code>int</code> index in digest to write the 20 bytes at.
+     */
+    public static void digest(ByteBuffer data, byte[] digest, int offset)
+    {
+        MessageDigest messageDigest = threadDigest.get();
+
+        messageDigest.update(data);
+
+        try
+        {
+            messageDigest.digest(digest, offset, DIGEST_LENGTH);
+        }
+        catch (DigestException de)
+        {
+            throw new IllegalArgumentException("No room for the digest at offset " + offset, de);
+        }
+    }
+
+    /**
+     * Method to compute the raw digest of part of an array.
+     *
+     * @param data   <code>byte[]</code> to digest.
+     * @param from   <code>int</code> index of the first byte to digest.
+     * @param length <code>int</code> number of bytes to digest.
+     * @param digest <code>byte[]</code> receiving the digest.
+     * @param offset <code>int</code> index in digest to write the 20 bytes at.
+     */
+    public static void digest(byte[] data, int from, int length, byte[] digest, int offset)
+    {
+        MessageDigest messageDigest = threadDigest.get();
+
+        messageDigest.update(data, from, length);
+
+        try
+        {
+            messageDigest.digest(digest, offset, DIGEST_LENGTH);
+        }
+        catch (DigestException de)
+        {
+            throw new IllegalArgumentException("No room for the digest at offset " + offset, de);
+        }
+    }
+
+    /**
+     * Method to compute the raw digest of the remaining bytes of a buffer and put it into another buffer.
+     *
+     * @param data   <code>ByteBuffer</code> to digest. Its position is moved to its limit.
+     * @param digest <code>ByteBuffer</code> receiving the 20 byte digest at its position.
+     */
+    public static void digest(ByteBuffer data, ByteBuffer digest)
+    {
+        byte[] scratch = threadScratch.get();
+
+        digest(data, scratch, 0);
+
+        digest.put(scratch);
+    }
+
+    /**
+     * Method to compute the hex digest of the remaining bytes of a buffer and put it into another buffer.
+     *
+     * @param data <code>ByteBuffer</code> to digest. Its position is moved to its limit.
+     * @param hex  <code>ByteBuffer</code> receiving the 40 hex characters at its position.
+     */
+    public static void digestHex(ByteBuffer data, ByteBuffer hex)
+    {
+        byte[] scratch = threadScratch.get();
+
+        digest(data, scratch, 0);
+
+        for (int i = 0; i < DIGEST_LENGTH; ++i)
+        {
+            hex.put(HEX_DIGITS[(scratch[i] >> 4) & 0xf]);
+            hex.put(HEX_DIGITS[scratch[i] & 0xf]);
+        }
+    }
+
+    /**
+     * Method to compute the hex digest of part of an array into another array.
+     *
+     * @param data   <code>byte[]</code> to digest.
+     * @param from   <code>int</code> index of the first byte to digest.
+     * @param length <code>int</code> number of bytes to digest.
+     * @param hex    <code>byte[]</code> receiving the 40 hex characters.
+     * @param offset <code>int</code> index in hex to write the characters at.
+     */
+    public static void digestHex(byte[] data, int from, int length, byte[] hex, int offset)
+    {
+        byte[] scratch = threadScratch.get();
+
+        digest(data, from, length, scratch, 0);
+
+        toHex(scratch, 0, hex, offset);
+    }
+
+    /**
+     * Method to hex encode a raw digest into an array.
+     *
+     * @param digest       <code>byte[]</code> holding the raw digest.
+     * @param digestOffset <code>int</code> index of the digest in its array.
+     * @param hex          <code>byte[]</code> receiving the 40 hex characters.
+     * @param offset       <code>int</code> index in hex to write the characters at.
+     */
+    public static void toHex(byte[] digest, int digestOffset, byte[] hex, int offset)
+    {
+        for (int i = 0; i < DIGEST_LENGTH; ++i)
+        {
+            byte b = digest[digestOffset + i];
+
+            hex[offset++] = HEX_DIGITS[(b >> 4) & 0xf];
+            hex[offset++] = HEX_DIGITS[b & 0xf];
+        }
+    }
+
+    /**
+     * Method to decode 40 hex characters back into a raw digest.
+     *
+     * @param hex       <code>byte[]</code> holding the hex characters, in either case.
+     * @param hexOffset <code>int</code> index of the first character.
+     * @param digest    <code>byte[]</code> receiving the 20 byte digest.
+     * @param offset    <code>int</code> index in digest to write the bytes at.
+     * @throws IllegalArgumentException if a character is not a hex digit.
+     */
+    public static void fromHex(byte[] hex, int hexOffset, byte[] digest, int offset)
+    {
+        for (int i = 0; i < DIGEST_LENGTH; ++i)
+        {
+            int high = Character.digit(hex[hexOffset++], 16);
+            int low = Character.digit(hex[hexOffset++], 16);
+
+            if ((high | low) < 0)
+                throw new IllegalArgumentException("Not a hex digest");
+
+            digest[offset + i] = (byte) ((high << 4) | low);
+        }
+    }
+}
@@ -1,16 +1,32 @@
 package cs455.scaling.utility;
 
+import cs455.scaling.utility.concurrent.MpmcQueue;
+import cs455.scaling.utility.concurrent.MpscQueue;
+
 import java.nio.channels.SocketChannel;
 
 /**
  * A OpsChangeRequest class
  *
+ * Requests link themselves into the selector thread's MpscQueue, and are recycled into a
+ * shared pool once applied so that steady state traffic allocates none.
+ *
  * @author ahrtmn, 09 03 2014
  */
-public class OpsChangeRequest
+public class OpsChangeRequest extends MpscQueue.Node
 {
     public static final int CHANGEOPS = 2;
 
+    /**
+     * Maximum number of recycled requests kept for reuse
+     */
+    private static final int POOL_CAPACITY = 4096;
+
+    /**
+     * Pool of requests available for reuse
+     */
+    private static final MpmcQueue<OpsChangeRequest> pool = new MpmcQueue<OpsChangeRequest>(POOL_CAPACITY);
+
     public SocketChannel socket;
     public int type;
     public int ops;
@@ -21,4 +37,37 @@ public class OpsChangeRequest
         this.type = type;
         this.ops = ops;
     }
+
+    /**
+     * Method to get a request, reusing a recycled one when available.
+     *
+     * @param socket <code>SocketChannel</code> whose key is to change.
+     * @param type   <code>int</code> of the change type.
+     * @param ops    <code>int</code> of the new interest ops.
+     * @return <code>OpsChangeRequest</code> to hand to the selector thread.
+     */
+    public static OpsChangeRequest obtain(SocketChannel socket, int type, int ops)
+    {
+        OpsChangeRequest request = pool.poll();
+
+        if (request == null)
+            return new OpsChangeRequest(socket, type, ops);
+
+        request.socket = socket;
+        request.type = type;
+        request.ops = ops;
+
+        return request;
+    }
+
+    /**
+     * Method to hand this request back for reuse once the selector thread has applied it.
+     * The request must not be touched afterwards.
+     */
+    public void recycle()
+    {
+        socket = null;
+
+        pool.offer(this);
+    }
 }
@@ -0,0 +1,89 @@
+package cs455.scaling.utility;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A Options class to parse the optional <code>--name=value</code> command line
+ * arguments that follow the positional ones.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class Options
+{
+    /**
+     * Map of option names to their values
+     */
+    private final Map<String, String> values;
+
+
+    /**
+     * Constructor
+     *
+     * @param args   <code>String[]</code> of the command line arguments.
+     * @param offset <code>int</code> index of the first optional argument.
+     */
+    public Options(String[] args, int offset)
+    {
+        values = new HashMap<String, String>();
+
+        for (int i = offset; i < args.length; ++i)
+        {
+            String arg = args[i];
+
+            if (!arg.startsWith("--") || arg.length() == 2)
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+
+            int split = arg.indexOf('=');
+
+            // a bare flag is the same as setting it to true
+            if (split < 0)
+                values.put(arg.substring(2), "true");
+            else
+                values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+    }
+
+    /**
+     * Method to get the value of an option as a String
+     *
+     * @param name         <code>String</code> of the option name.
+     * @param defaultValue <code>String</code> to return if the option was not given.
+     * @return <code>String</code> value of the option.
+     */
+    public String getString(String name, String defaultValue)
+    {
+        String value = values.get(name);
+
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Method to get the value of an option as an int
+     *
+     * @param name         <code>String</code> of the option name.
+     * @param defaultValue <code>int</code> to return if the option was not given.
+     * @return <code>int</code> value of the option.
+     * @throws NumberFormatException if the value is not an integer.
+     */
+    public int getInt(String name, int defaultValue)
+    {
+        String value = values.get(name);
+
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Method to get the value of an option as a boolean. A bare <code>--name</code> counts as true.
+     *
+     * @param name         <code>String</code> of the option name.
+     * @param defaultValue <code>boolean</code> to return if the option was not given.
+     * @return <code>boolean</code> value of the option.
+     */
+    public boolean getBoolean(String name, boolean defaultValue)
+    {
+        String value = values.get(name);
+
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
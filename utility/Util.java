@@ -1,7 +1,7 @@
 package cs455.scaling.utility;
 
-import java.math.BigInteger;
-import java.security.MessageDigest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 
 /**
@@ -25,18 +25,31 @@ public class Util
      * Method to calculate the SHA1 Hash of a given byte array.
      *
      * @param data <code>byte[]</code> for hash to be computed on.
-     * @return <code>String</code> of hash value in hex format.
+     * @return <code>String</code> of hash value in hex format, always the full 40 characters.
      * @throws java.security.NoSuchAlgorithmException
      */
     public static String SHA1FromBytes(byte[] data) throws NoSuchAlgorithmException
     {
+        byte[] hex = new byte[HASH_BUFFER_SIZE];
 
-        MessageDigest digest = MessageDigest.getInstance("SHA1");
+        HashUtil.digestHex(data, 0, data.length, hex, 0);
 
-        byte[] hash = digest.digest(data);
+        return new String(hex, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Method to calculate the SHA1 Hash of the remaining bytes of a buffer without copying them out.
+     *
+     * @param data <code>ByteBuffer</code> for hash to be computed on. Its position is moved to its limit.
+     * @return <code>String</code> of hash value in hex format, always the full 40 characters.
+     * @throws java.security.NoSuchAlgorithmException
+     */
+    public static String SHA1FromBuffer(ByteBuffer data) throws NoSuchAlgorithmException
+    {
+        ByteBuffer hex = ByteBuffer.allocate(HASH_BUFFER_SIZE);
 
-        BigInteger hashInt = new BigInteger(1, hash);
+        HashUtil.digestHex(data, hex);
 
-        return hashInt.toString(16);
+        return new String(hex.array(), StandardCharsets.US_ASCII);
     }
 }
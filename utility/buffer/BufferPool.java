@@ -0,0 +1,341 @@
+package cs455.scaling.utility.buffer;
+
+import cs455.scaling.utility.Util;
+import cs455.scaling.utility.concurrent.MpmcQueue;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A BufferPool class handing out direct ByteBuffers so the read and write paths do not
+ * allocate per message. Buffers come in size classes carved out of shared slabs of direct
+ * memory, and every thread keeps a small cache of each class in front of the shared free
+ * lists so most acquires and releases touch no shared state at all.
+ *
+ * Leak detection is enabled with -Dcs455.scaling.buffer.debug=true, in which case every
+ * outstanding buffer is tracked with the stack of its acquire, double releases throw and
+ * any buffers still outstanding at exit are reported.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class BufferPool
+{
+    /**
+     * Size classes. Small buffers hold a hash, large buffers hold a full message.
+     */
+    public static final int SMALL_BUFFER_SIZE = 64;
+    public static final int LARGE_BUFFER_SIZE = Util.BUFFER_SIZE;
+
+    /**
+     * Number of buffers of each class carved out of a slab
+     */
+    private static final int SLAB_BUFFERS = 256;
+
+    /**
+     * Maximum number of free buffers of each class kept by the shared free lists
+     */
+    private static final int SHARED_CAPACITY = 16384;
+
+    /**
+     * Maximum number of free buffers of each class kept by a single thread
+     */
+    private static final int THREAD_CACHE_SIZE = 32;
+
+    /**
+     * Singleton instance shared by the whole process
+     */
+    private static final BufferPool poolInstance = new BufferPool(Boolean.getBoolean("cs455.scaling.buffer.debug"));
+
+    /**
+     * Sizes of the buffers in each class, smallest first
+     */
+    private final int[] classSizes;
+
+    /**
+     * Shared free lists, one per class
+     */
+    private final MpmcQueue<ByteBuffer>[] sharedFree;
+
+    /**
+     * Per thread caches of free buffers
+     */
+    private final ThreadLocal<ByteBuffer[][]> threadCaches;
+
+    /**
+     * Per thread number of cached buffers in each class
+     */
+    private final ThreadLocal<int[]> threadCacheCounts;
+
+    /**
+     * Count of the slabs allocated so far
+     */
+    private final AtomicLong slabsAllocated;
+
+    /**
+     * boolean denoting whether outstanding buffers are tracked
+     */
+    private final boolean debug;
+
+    /**
+     * Map of the outstanding buffers to the stack of their acquire, only used in debug mode
+     */
+    private final Map<ByteBuffer, Throwable> outstanding;
+
+
+    /**
+     * Constructor
+     *
+     * @param debug <code>boolean</code> denoting whether to track outstanding buffers for leak detection.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BufferPool(boolean debug)
+    {
+        this.debug = debug;
+        classSizes = new int[]{SMALL_BUFFER_SIZE, LARGE_BUFFER_SIZE};
+        sharedFree = new MpmcQueue[classSizes.length];
+        slabsAllocated = new AtomicLong();
+
+        for (int i = 0; i < classSizes.length; ++i)
+            sharedFree[i] = new MpmcQueue<ByteBuffer>(SHARED_CAPACITY);
+
+        threadCaches = new ThreadLocal<ByteBuffer[][]>()
+        {
+            @Override
+            protected ByteBuffer[][] initialValue()
+            {
+                return new ByteBuffer[classSizes.length][THREAD_CACHE_SIZE];
+            }
+        };
+
+        threadCacheCounts = new ThreadLocal<int[]>()
+        {
+            @Override
+            protected int[] initialValue()
+            {
+                return new int[classSizes.length];
+            }
+        };
+
+        if (debug)
+        {
+            outstanding = Collections.synchronizedMap(new IdentityHashMap<ByteBuffer, Throwable>());
+
+            Runtime.getRuntime().addShutdownHook(new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    reportLeaks();
+                }
+            });
+        }
+        else
+            outstanding = null;
+    }
+
+    /**
+     * Accessor for the shared pool
+     *
+     * @return <code>BufferPool</code> shared by the whole process.
+     */
+    public static BufferPool getPoolInstance()
+    {
+        return poolInstance;
+    }
+
+    /**
+     * Method to borrow a cleared buffer with room for at least the given number of bytes. The
+     * buffer must be given back with release once it is no longer used.
+     *
+     * @param size <code>int</code> of the number of bytes needed.
+     * @return <code>ByteBuffer</code> with its limit set to the requested size.
+     */
+    public ByteBuffer acquire(int size)
+    {
+        int sizeClass = classFor(size);
+
+        ByteBuffer buffer;
+
+        // IF the request is larger than every class it is not pooled
+        if (sizeClass < 0)
+            buffer = ByteBuffer.allocateDirect(size);
+        else
+        {
+            int[] counts = threadCacheCounts.get();
+
+            if (counts[sizeClass] > 0)
+            {
+                ByteBuffer[] cache = threadCaches.get()[sizeClass];
+
+                buffer = cache[--counts[sizeClass]];
+                cache[counts[sizeClass]] = null;
+            }
+            else
+            {
+                buffer = sharedFree[sizeClass].poll();
+
+                if (buffer == null)
+                    buffer = allocateSlab(sizeClass);
+            }
+        }
+
+        buffer.clear();
+        buffer.limit(size);
+
+        if (debug)
+            outstanding.put(buffer, new Throwable("Buffer of " + size + " bytes acquired here"));
+
+        return buffer;
+    }
+
+    /**
+     * Method to give a buffer back to the pool. Buffers the pool did not hand out, such as
+     * heap buffers wrapping an array, are ignored.
+     *
+     * @param buffer <code>ByteBuffer</code> no longer in use. Must not be touched after this call.
+     * @throws IllegalStateException in debug mode, if the buffer is not outstanding.
+     */
+    public void release(ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect())
+            return;
+
+        // untrack it first, as the oversized buffers acquire hands out unpooled are tracked too
+        boolean wasOutstanding = debug && outstanding.remove(buffer) != null;
+
+        int sizeClass = classFor(buffer.capacity());
+
+        if (sizeClass < 0 || classSizes[sizeClass] != buffer.capacity())
+            return;
+
+        if (debug && !wasOutstanding)
+            throw new IllegalStateException("Buffer released twice or not acquired from this pool");
+
+        int[] counts = threadCacheCounts.get();
+
+        if (counts[sizeClass] < THREAD_CACHE_SIZE)
+            threadCaches.get()[sizeClass][counts[sizeClass]++] = buffer;
+        else
+            sharedFree[sizeClass].offer(buffer);
+    }
+
+    /**
+     * Method to hand the calling thread's cached buffers back to the shared free lists. Threads
+     * that end while the pool lives on, such as a thread per connection, call this on their way
+     * out or the buffers in their cache are lost with them.
+     */
+    public void releaseThreadCache()
+    {
+        int[] counts = threadCacheCounts.get();
+        ByteBuffer[][] caches = threadCaches.get();
+
+        for (int sizeClass = 0; sizeClass < counts.length; ++sizeClass)
+        {
+            while (counts[sizeClass] > 0)
+            {
+                ByteBuffer buffer = caches[sizeClass][--counts[sizeClass]];
+                caches[sizeClass][counts[sizeClass]] = null;
+
+                sharedFree[sizeClass].offer(buffer);
+            }
+        }
+
+        threadCaches.remove();
+        threadCacheCounts.remove();
+    }
+
+    /**
+     * Method to find the smallest class able to hold the given number of bytes
+     *
+     * @param size <code>int</code> of the number of bytes.
+     * @return <code>int</code> index of the class, or -1 if none is large enough.
+     */
+    private int classFor(int size)
+    {
+        for (int i = 0; i < classSizes.length; ++i)
+        {
+            if (size <= classSizes[i])
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Method to allocate a new slab for a class, keep one of its buffers for the caller and
+     * put the rest on the shared free list.
+     *
+     * @param sizeClass <code>int</code> index of the class.
+     * @return <code>ByteBuffer</code> for the caller.
+     */
+    private ByteBuffer allocateSlab(int sizeClass)
+    {
+        int bufferSize = classSizes[sizeClass];
+
+        ByteBuffer slab = ByteBuffer.allocateDirect(bufferSize * SLAB_BUFFERS);
+
+        slabsAllocated.incrementAndGet();
+
+        ByteBuffer first = null;
+
+        for (int i = 0; i < SLAB_BUFFERS; ++i)
+        {
+            slab.limit((i + 1) * bufferSize);
+            slab.position(i * bufferSize);
+
+            ByteBuffer buffer = slab.slice();
+
+            if (first == null)
+                first = buffer;
+            else if (!sharedFree[sizeClass].offer(buffer))
+                break;
+        }
+
+        return first;
+    }
+
+    /**
+     * Accessor for the number of slabs allocated so far, which stops growing once the pool
+     * has warmed up.
+     *
+     * @return <code>long</code> of the number of slabs.
+     */
+    public long getSlabsAllocated()
+    {
+        return slabsAllocated.get();
+    }
+
+    /**
+     * Method to get the number of buffers currently borrowed. Only tracked in debug mode.
+     *
+     * @return <code>int</code> of the number of outstanding buffers, or -1 if not in debug mode.
+     */
+    public int getOutstandingCount()
+    {
+        return debug ? outstanding.size() : -1;
+    }
+
+    /**
+     * Method to print every buffer still outstanding along with where it was acquired.
+     * Only does anything in debug mode.
+     */
+    public void reportLeaks()
+    {
+        if (!debug)
+            return;
+
+        synchronized (outstanding)
+        {
+            if (outstanding.isEmpty())
+                return;
+
+            System.err.println("BufferPool: " + outstanding.size() + " buffers were never released");
+
+            for (Throwable acquireSite : outstanding.values())
+                acquireSite.printStackTrace();
+        }
+    }
+}
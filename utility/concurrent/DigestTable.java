@@ -0,0 +1,341 @@
+package cs455.scaling.utility.concurrent;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A DigestTable class mapping raw 20 byte SHA1 digests to a long, such as the time a message
+ * was sent. The table is split into segments, each an open addressing table with linear probing
+ * guarded by its own lock, so threads adding and removing digests rarely meet on the same one.
+ *
+ * An entry is four longs in a LongBuffer, on the heap or off it: the digest packed into the first
+ * three and the value in the fourth, about 43 bytes an entry at the highest load against well over
+ * a hundred for a hex String in a HashMap. Deleting shifts the entries after it back instead of
+ * leaving tombstones, so a table that is always being added to and removed from never clogs up.
+ * The all zero digest marks a free slot and cannot be stored.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class DigestTable
+{
+    /**
+     * Value returned by remove when the digest is not in the table
+     */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    /**
+     * Number of longs an entry takes
+     */
+    private static final int ENTRY_LONGS = 4;
+
+    /**
+     * Number of segments, a power of two
+     */
+    private static final int NUM_SEGMENTS = 16;
+
+    /**
+     * Number of slots a segment starts with at least, a power of two
+     */
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    /**
+     * One open addressing table of the DigestTable and the lock guarding it
+     */
+    private static class Segment
+    {
+        /**
+         * Entries of the segment, ENTRY_LONGS longs a slot
+         */
+        private LongBuffer entries;
+
+        /**
+         * Number of slots minus one
+         */
+        private int mask;
+
+        /**
+         * Number of entries in the segment
+         */
+        private int size;
+    }
+
+    /**
+     * Segments of the table, chosen by bits of the digest the slot index does not use
+     */
+    private final Segment[] segments;
+
+    /**
+     * boolean denoting whether the entries are kept off the heap
+     */
+    private final boolean direct;
+
+
+    /**
+     * Constructor
+     *
+     * @param expectedSize <code>int</code> of the number of entries expected at once, to size the segments.
+     * @param direct       <code>boolean</code> denoting whether to keep the entries off the heap.
+     */
+    public DigestTable(int expectedSize, boolean direct)
+    {
+        this.direct = direct;
+        segments = new Segment[NUM_SEGMENTS];
+
+        int capacity = MIN_SEGMENT_CAPACITY;
+
+        // room for the expected entries at below three quarters full
+        while (capacity * 3 / 4 * NUM_SEGMENTS < expectedSize)
+            capacity <<= 1;
+
+        for (int i = 0; i < NUM_SEGMENTS; ++i)
+        {
+            Segment segment = new Segment();
+            segment.entries = allocate(capacity);
+            segment.mask = capacity - 1;
+
+            segments[i] = segment;
+        }
+    }
+
+    /**
+     * Method to allocate the entries of a segment
+     *
+     * @param capacity <code>int</code> of the number of slots.
+     * @return <code>LongBuffer</code> of zeroed, so free, slots.
+     */
+    private LongBuffer allocate(int capacity)
+    {
+        if (direct)
+            return ByteBuffer.allocateDirect(capacity * ENTRY_LONGS * Long.BYTES).order(ByteOrder.nativeOrder())
+                    .asLongBuffer();
+
+        return LongBuffer.allocate(capacity * ENTRY_LONGS);
+    }
+
+    /**
+     * Method to add a digest to the table, replacing its value if it is already there
+     *
+     * @param digest <code>byte[]</code> holding the raw digest.
+     * @param offset <code>int</code> index of the digest in the array.
+     * @param value  <code>long</code> to map the digest to.
+     */
+    public void put(byte[] digest, int offset, long value)
+    {
+        long k0 = getLong(digest, offset);
+        long k1 = getLong(digest, offset + 8);
+        long k2 = getInt(digest, offset + 16);
+
+        if ((k0 | k1 | k2) == 0)
+            throw new IllegalArgumentException("The all zero digest cannot be stored");
+
+        Segment segment = segmentFor(k0);
+
+        synchronized (segment)
+        {
+            // grow before going over three quarters full, keeping the probe sequences short
+            if ((segment.size + 1) * 4 > (segment.mask + 1) * 3)
+                grow(segment);
+
+            LongBuffer entries = segment.entries;
+            int slot = (int) k0 & segment.mask;
+
+            while (true)
+            {
+                int base = slot * ENTRY_LONGS;
+                long e0 = entries.get(base);
+                long e1 = entries.get(base + 1);
+                long e2 = entries.get(base + 2);
+
+                if ((e0 | e1 | e2) == 0)
+                {
+                    entries.put(base, k0);
+                    entries.put(base + 1, k1);
+                    entries.put(base + 2, k2);
+                    entries.put(base + 3, value);
+
+                    ++segment.size;
+                    return;
+                }
+
+                if (e0 == k0 && e1 == k1 && e2 == k2)
+                {
+                    entries.put(base + 3, value);
+                    return;
+                }
+
+                slot = (slot + 1) & segment.mask;
+            }
+        }
+    }
+
+    /**
+     * Method to take a digest out of the table
+     *
+     * @param digest <code>byte[]</code> holding the raw digest.
+     * @param offset <code>int</code> index of the digest in the array.
+     * @return <code>long</code> value the digest was mapped to, NO_VALUE if it was not in the table.
+     */
+    public long remove(byte[] digest, int offset)
+    {
+        long k0 = getLong(digest, offset);
+        long k1 = getLong(digest, offset + 8);
+        long k2 = getInt(digest, offset + 16);
+
+        Segment segment = segmentFor(k0);
+
+        synchronized (segment)
+        {
+            LongBuffer entries = segment.entries;
+            int mask = segment.mask;
+            int slot = (int) k0 & mask;
+
+            while (true)
+            {
+                int base = slot * ENTRY_LONGS;
+                long e0 = entries.get(base);
+                long e1 = entries.get(base + 1);
+                long e2 = entries.get(base + 2);
+
+                if ((e0 | e1 | e2) == 0)
+                    return NO_VALUE;
+
+                if (e0 == k0 && e1 == k1 && e2 == k2)
+                    break;
+
+                slot = (slot + 1) & mask;
+            }
+
+            long value = entries.get(slot * ENTRY_LONGS + 3);
+
+            // shift back every later entry of the run that may sit in the hole, then free the last hole
+            int hole = slot;
+            int next = (hole + 1) & mask;
+
+            while (true)
+            {
+                int base = next * ENTRY_LONGS;
+                long e0 = entries.get(base);
+
+                if ((e0 | entries.get(base + 1) | entries.get(base + 2)) == 0)
+                    break;
+
+                int home = (int) e0 & mask;
+
+                // IF the entry's home is not cyclically within (hole, next] it can move back to the hole
+                if (((next - home) & mask) >= ((next - hole) & mask))
+                {
+                    int holeBase = hole * ENTRY_LONGS;
+
+                    for (int i = 0; i < ENTRY_LONGS; ++i)
+                        entries.put(holeBase + i, entries.get(base + i));
+
+                    hole = next;
+                }
+
+                next = (next + 1) & mask;
+            }
+
+            int holeBase = hole * ENTRY_LONGS;
+
+            for (int i = 0; i < ENTRY_LONGS; ++i)
+                entries.put(holeBase + i, 0);
+
+            --segment.size;
+
+            return value;
+        }
+    }
+
+    /**
+     * Accessor for the number of entries in the table. Not a snapshot while others are changing it.
+     *
+     * @return <code>int</code> of the number of entries.
+     */
+    public int size()
+    {
+        int size = 0;
+
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                size += segment.size;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Method to pick the segment of a digest. The digest is uniformly random, so its high bits
+     * choose the segment while its low bits choose the slot.
+     *
+     * @param k0 <code>long</code> of the first eight bytes of the digest.
+     * @return <code>Segment</code> holding the digest.
+     */
+    private Segment segmentFor(long k0)
+    {
+        return segments[(int) (k0 >>> 32) & (NUM_SEGMENTS - 1)];
+    }
+
+    /**
+     * Method to double the slots of a segment, moving every entry to its new place
+     *
+     * @param segment <code>Segment</code> to grow, whose lock is held.
+     */
+    private void grow(Segment segment)
+    {
+        LongBuffer old = segment.entries;
+        int oldCapacity = segment.mask + 1;
+        int capacity = oldCapacity * 2;
+        LongBuffer entries = allocate(capacity);
+        int mask = capacity - 1;
+
+        for (int i = 0; i < oldCapacity; ++i)
+        {
+            int base = i * ENTRY_LONGS;
+            long e0 = old.get(base);
+
+            if ((e0 | old.get(base + 1) | old.get(base + 2)) == 0)
+                continue;
+
+            int slot = (int) e0 & mask;
+
+            while (entries.get(slot * ENTRY_LONGS) != 0 || entries.get(slot * ENTRY_LONGS + 1) != 0
+                    || entries.get(slot * ENTRY_LONGS + 2) != 0)
+                slot = (slot + 1) & mask;
+
+            for (int j = 0; j < ENTRY_LONGS; ++j)
+                entries.put(slot * ENTRY_LONGS + j, old.get(base + j));
+        }
+
+        segment.entries = entries;
+        segment.mask = mask;
+    }
+
+    /**
+     * Method to read eight bytes of an array as a big endian long
+     *
+     * @param bytes  <code>byte[]</code> to read.
+     * @param offset <code>int</code> index of the first byte.
+     * @return <code>long</code> of the bytes.
+     */
+    private static long getLong(byte[] bytes, int offset)
+    {
+        return (getInt(bytes, offset) << 32) | getInt(bytes, offset + 4);
+    }
+
+    /**
+     * Method to read four bytes of an array as an unsigned big endian int
+     *
+     * @param bytes  <code>byte[]</code> to read.
+     * @param offset <code>int</code> index of the first byte.
+     * @return <code>long</code> of the bytes, from 0 to 2^32 - 1.
+     */
+    private static long getInt(byte[] bytes, int offset)
+    {
+        return ((bytes[offset] & 0xffL) << 24) | ((bytes[offset + 1] & 0xffL) << 16)
+                | ((bytes[offset + 2] & 0xffL) << 8) | (bytes[offset + 3] & 0xffL);
+    }
+}
@@ -0,0 +1,189 @@
+package cs455.scaling.utility.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A DigestTableCheck class checking that deleting from a DigestTable leaves every other entry
+ * reachable. Its digests are made up so their home slots collide and wrap round the end of a
+ * segment, where the backward shift of a delete has the most ways to go wrong.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class DigestTableCheck
+{
+    /**
+     * Home slots of the colliding digests of the cluster check, wrapping round a segment of 16 slots
+     */
+    private static final int[] CLUSTER_HOMES = {14, 14, 15, 15, 15, 0, 0, 1, 14, 1};
+
+    /**
+     * Home slots of the digests of the random check, at either end of segments of 16, 32 and 64 slots
+     */
+    private static final int[] RANDOM_HOMES = {0, 1, 13, 14, 15, 29, 30, 31, 61, 62, 63};
+
+    /**
+     * Removal orders tried by the cluster check, and operations run by the random check
+     */
+    private static final int NUM_ORDERS = 500;
+    private static final int NUM_OPERATIONS = 200000;
+
+
+    /**
+     * Method to make up a digest in the given segment with the given home slot, told apart from
+     * the others by its id
+     *
+     * @param segment <code>int</code> of the segment, from 0 to 15.
+     * @param home    <code>int</code> of the home slot, at most the slots of the segment less one.
+     * @param id      <code>int</code> telling the digest apart.
+     * @return <code>byte[]</code> holding the 20 byte digest.
+     */
+    private static byte[] digest(int segment, int home, int id)
+    {
+        byte[] digest = new byte[20];
+
+        // the segment is picked by the low bits of the first int, the slot by the low bits of the second
+        digest[3] = (byte) segment;
+        digest[6] = (byte) (home >>> 8);
+        digest[7] = (byte) home;
+
+        digest[8] = (byte) (id >>> 24);
+        digest[9] = (byte) (id >>> 16);
+        digest[10] = (byte) (id >>> 8);
+        digest[11] = (byte) id;
+        digest[19] = 1;
+
+        return digest;
+    }
+
+    /**
+     * Method to fill a segment with one cluster of colliding digests, then take them all out again
+     * in many orders, checking each is still found with its value and found only once
+     *
+     * @param direct <code>boolean</code> denoting whether the table keeps its entries off the heap.
+     * @return <code>String</code> describing the failure, or null if every digest was found.
+     */
+    private static String checkCluster(boolean direct)
+    {
+        Random random = new Random(17);
+        byte[][] digests = new byte[CLUSTER_HOMES.length][];
+        List<Integer> order = new ArrayList<Integer>();
+
+        for (int i = 0; i < digests.length; ++i)
+        {
+            digests[i] = digest(0, CLUSTER_HOMES[i], i);
+            order.add(i);
+        }
+
+        for (int attempt = 0; attempt < NUM_ORDERS; ++attempt)
+        {
+            // few enough entries that the segment keeps its 16 slots
+            DigestTable table = new DigestTable(0, direct);
+
+            for (int i = 0; i < digests.length; ++i)
+                table.put(digests[i], 0, i);
+
+            Collections.shuffle(order, random);
+
+            for (int removed = 0; removed < order.size(); ++removed)
+            {
+                int i = order.get(removed);
+                long value = table.remove(digests[i], 0);
+
+                if (value != i)
+                    return "digest " + i + " at home " + CLUSTER_HOMES[i] + " was lost after removing "
+                            + order.subList(0, removed);
+
+                if (table.remove(digests[i], 0) != DigestTable.NO_VALUE)
+                    return "digest " + i + " was still there after being removed, order " + order;
+
+                if (table.size() != digests.length - removed - 1)
+                    return "size is " + table.size() + " after " + (removed + 1) + " removals, order " + order;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Method to run random puts and removes of colliding digests against a HashMap, across two
+     * segments and while they grow, checking the table always agrees with the map
+     *
+     * @param direct <code>boolean</code> denoting whether the table keeps its entries off the heap.
+     * @return <code>String</code> describing the failure, or null if the table agreed throughout.
+     */
+    private static String checkRandom(boolean direct)
+    {
+        Random random = new Random(19);
+        DigestTable table = new DigestTable(0, direct);
+        Map<Integer, Long> expected = new HashMap<Integer, Long>();
+        byte[][] digests = new byte[RANDOM_HOMES.length * 2 * 4][];
+
+        for (int i = 0; i < digests.length; ++i)
+            digests[i] = digest(i % 2, RANDOM_HOMES[i / 2 % RANDOM_HOMES.length], i);
+
+        for (int operation = 0; operation < NUM_OPERATIONS; ++operation)
+        {
+            int i = random.nextInt(digests.length);
+
+            if (random.nextBoolean())
+            {
+                long value = random.nextInt(1000000);
+
+                table.put(digests[i], 0, value);
+                expected.put(i, value);
+            }
+            else
+            {
+                Long value = expected.remove(i);
+                long removed = table.remove(digests[i], 0);
+
+                if (removed != (value == null ? DigestTable.NO_VALUE : value))
+                    return "removing digest " + i + " gave " + removed + ", expected " + value + " at operation "
+                            + operation;
+            }
+
+            if (table.size() != expected.size())
+                return "size is " + table.size() + ", expected " + expected.size() + " at operation " + operation;
+        }
+
+        for (Map.Entry<Integer, Long> entry : expected.entrySet())
+        {
+            if (table.remove(digests[entry.getKey()], 0) != entry.getValue())
+                return "digest " + entry.getKey() + " was lost by the end";
+        }
+
+        return null;
+    }
+
+    /**
+     * main method
+     *
+     * Usage: DigestTableCheck
+     *
+     * Exits with status 1 if any check failed.
+     *
+     * @param args command line arguments, unused
+     */
+    public static void main(String[] args)
+    {
+        String[] names = {"cluster, heap", "cluster, direct", "random, heap", "random, direct"};
+        String[] failures = {checkCluster(false), checkCluster(true), checkRandom(false), checkRandom(true)};
+
+        int numFailed = 0;
+
+        for (int i = 0; i < names.length; ++i)
+        {
+            System.out.println(names[i] + ": " + (failures[i] == null ? "ok" : failures[i]));
+
+            if (failures[i] != null)
+                ++numFailed;
+        }
+
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+}
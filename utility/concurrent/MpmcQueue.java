@@ -0,0 +1,179 @@
+package cs455.scaling.utility.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free, multi-producer multi-consumer queue backed by a ring
+ * of slots. Every slot carries a sequence number telling producers and consumers
+ * whose turn it is, so a hand-off costs a single CAS on each side and no monitor.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class MpmcQueue<E>
+{
+    /**
+     * Mask used to turn a position into a slot index
+     */
+    private final int mask;
+
+    /**
+     * Slots holding the queued elements
+     */
+    private final Object[] buffer;
+
+    /**
+     * Per slot sequence numbers used to publish and release the slots
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Next position a producer will claim
+     */
+    private final AtomicLong enqueuePosition;
+
+    /**
+     * Next position a consumer will claim
+     */
+    private final AtomicLong dequeuePosition;
+
+
+    /**
+     * Constructor
+     *
+     * @param capacity <code>int</code> of the minimum number of elements the queue can hold. Rounded up to
+     *                 the next power of two.
+     */
+    public MpmcQueue(int capacity)
+    {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Queue capacity must be at least 1!");
+
+        int size = Integer.highestOneBit(capacity);
+
+        if (size < capacity)
+            size <<= 1;
+
+        mask = size - 1;
+        buffer = new Object[size];
+        sequences = new AtomicLongArray(size);
+        enqueuePosition = new AtomicLong();
+        dequeuePosition = new AtomicLong();
+
+        for (int i = 0; i < size; ++i)
+            sequences.set(i, i);
+    }
+
+    /**
+     * Method to add an element to the tail of the queue.
+     *
+     * @param element <code>E</code> to be added. Must not be null.
+     * @return <code>boolean</code> denoting whether the element was added, false if the queue is full.
+     */
+    public boolean offer(E element)
+    {
+        long position = enqueuePosition.get();
+
+        while (true)
+        {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+
+            // IF the slot is free for this position
+            if (difference == 0)
+            {
+                if (enqueuePosition.compareAndSet(position, position + 1))
+                {
+                    buffer[index] = element;
+
+                    // publish the slot to the consumers
+                    sequences.set(index, position + 1);
+
+                    return true;
+                }
+
+                position = enqueuePosition.get();
+            }
+            // ELSE IF the slot still holds an element from the previous lap
+            else if (difference < 0)
+                return false;
+            else
+                position = enqueuePosition.get();
+        }
+    }
+
+    /**
+     * Method to remove the element at the head of the queue.
+     *
+     * @return <code>E</code> at the head of the queue, or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll()
+    {
+        long position = dequeuePosition.get();
+
+        while (true)
+        {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+
+            // IF the slot has been published for this position
+            if (difference == 0)
+            {
+                if (dequeuePosition.compareAndSet(position, position + 1))
+                {
+                    E element = (E) buffer[index];
+                    buffer[index] = null;
+
+                    // release the slot to the producers of the next lap
+                    sequences.set(index, position + mask + 1);
+
+                    return element;
+                }
+
+                position = dequeuePosition.get();
+            }
+            // ELSE IF nothing has been published yet
+            else if (difference < 0)
+                return null;
+            else
+                position = dequeuePosition.get();
+        }
+    }
+
+    /**
+     * Method to determine if the queue currently holds no elements
+     *
+     * @return <code>boolean</code> denoting whether the queue is empty.
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Method to get an estimate of the number of elements in the queue. The value is exact
+     * when there are no concurrent producers or consumers.
+     *
+     * @return <code>int</code> of the number of queued elements.
+     */
+    public int size()
+    {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+
+        if (size < 0)
+            return 0;
+
+        return (int) Math.min(size, buffer.length);
+    }
+
+    /**
+     * Accessor for the capacity of the queue
+     *
+     * @return <code>int</code> of the maximum number of elements the queue can hold.
+     */
+    public int capacity()
+    {
+        return buffer.length;
+    }
+}
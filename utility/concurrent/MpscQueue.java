@@ -0,0 +1,139 @@
+package cs455.scaling.utility.concurrent;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A unbounded, lock-free, multi-producer single-consumer queue. The queue is intrusive:
+ * elements extend Node and are linked through it, so nothing is allocated per offer and
+ * elements can be reused once polled. Producers pay one atomic swap each, the consumer
+ * pays no atomic operation at all in the common case.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class MpscQueue<E extends MpscQueue.Node>
+{
+    /**
+     * A Node class elements of the queue extend. A node may only be in one queue at a time.
+     */
+    public static class Node
+    {
+        /**
+         * Next node in the queue, written by a producer and read by the consumer
+         */
+        private volatile Node next;
+    }
+
+    /**
+     * Updater used to link nodes without a full fence
+     */
+    private static final AtomicReferenceFieldUpdater<Node, Node> nextUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    /**
+     * Placeholder node keeping the queue non-empty when all elements have been polled
+     */
+    private final Node stub;
+
+    /**
+     * Last node of the queue, swapped in by the producers
+     */
+    private final AtomicReference<Node> tail;
+
+    /**
+     * First node of the queue, only touched by the consumer
+     */
+    private Node head;
+
+
+    /**
+     * Constructor
+     */
+    public MpscQueue()
+    {
+        stub = new Node();
+        tail = new AtomicReference<Node>(stub);
+        head = stub;
+    }
+
+    /**
+     * Method to add an element to the tail of the queue. May be called from any thread.
+     *
+     * @param element <code>E</code> to be added. Must not currently be in a queue.
+     */
+    public void offer(E element)
+    {
+        link(element);
+    }
+
+    /**
+     * Method to link a node after the current tail
+     *
+     * @param node <code>Node</code> to be linked.
+     */
+    private void link(Node node)
+    {
+        nextUpdater.lazySet(node, null);
+
+        Node previous = tail.getAndSet(node);
+
+        previous.next = node;
+    }
+
+    /**
+     * Method to remove the element at the head of the queue. May only be called from the consumer thread.
+     * An element whose producer has not finished linking it is not yet visible.
+     *
+     * @return <code>E</code> at the head of the queue, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll()
+    {
+        Node first = head;
+        Node next = first.next;
+
+        // skip over the stub
+        if (first == stub)
+        {
+            if (next == null)
+                return null;
+
+            head = next;
+            first = next;
+            next = next.next;
+        }
+
+        if (next != null)
+        {
+            head = next;
+            return (E) first;
+        }
+
+        // IF a producer is half way through linking after this node
+        if (first != tail.get())
+            return null;
+
+        // put the stub back behind the last element so it can be taken out
+        link(stub);
+
+        next = first.next;
+
+        if (next != null)
+        {
+            head = next;
+            return (E) first;
+        }
+
+        return null;
+    }
+
+    /**
+     * Method to determine if the queue appears empty. May only be called from the consumer thread.
+     *
+     * @return <code>boolean</code> denoting whether there is nothing to poll.
+     */
+    public boolean isEmpty()
+    {
+        return head == stub && stub.next == null;
+    }
+}
@@ -0,0 +1,102 @@
+package cs455.scaling.utility.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A VirtualThreads class handing out factories for virtual threads where the running JVM has
+ * them (Java 21 on), and for ordinary platform threads where it does not. The virtual thread
+ * builder is looked up reflectively so the code still builds and runs on older JVMs.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class VirtualThreads
+{
+    /**
+     * Thread.ofVirtual(), or null if the JVM has no virtual threads
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * Thread.Builder.name(String, long) and Thread.Builder.factory()
+     */
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+
+    static
+    {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+
+        try
+        {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+        }
+        catch (ReflectiveOperationException roe)
+        {
+            // no virtual threads before Java 21
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+    }
+
+
+    private VirtualThreads()
+    {
+
+    }
+
+    /**
+     * Method to determine if the JVM supports virtual threads
+     *
+     * @return <code>boolean</code> denoting whether virtual threads are available.
+     */
+    public static boolean isSupported()
+    {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Method to get a factory for virtual threads named prefix followed by a counter, falling back
+     * to platform threads named the same way if the JVM has no virtual threads.
+     *
+     * @param prefix <code>String</code> to start the thread names with.
+     * @return <code>ThreadFactory</code> for the threads.
+     */
+    public static ThreadFactory factory(final String prefix)
+    {
+        if (OF_VIRTUAL != null)
+        {
+            try
+            {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            }
+            catch (ReflectiveOperationException roe)
+            {
+                // fall through to platform threads
+            }
+        }
+
+        final AtomicLong counter = new AtomicLong();
+
+        return new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                return new Thread(runnable, prefix + counter.getAndIncrement());
+            }
+        };
+    }
+}
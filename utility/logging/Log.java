@@ -0,0 +1,365 @@
+package cs455.scaling.utility.logging;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A Log class for logging off the hot paths. Logging threads claim a slot in a lock-free
+ * ring and return straight away, a background flusher thread formats the entries and
+ * writes them out in batches, so no worker ever waits on the stdout lock. When the ring
+ * is full entries are dropped and counted rather than blocking the caller.
+ *
+ * Callers check the level before building a message, so a disabled log statement costs a
+ * field read and allocates nothing:
+ *
+ * <pre>
+ * if (Log.isDebugEnabled())
+ *     Log.debug("Data read from client [Address: " + clientInfo.getRemoteAddress() + "]");
+ * </pre>
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class Log
+{
+    /**
+     * Log levels, from the most to the least verbose
+     */
+    public static final int TRACE = 0;
+    public static final int DEBUG = 1;
+    public static final int INFO = 2;
+    public static final int WARN = 3;
+    public static final int ERROR = 4;
+    public static final int OFF = 5;
+
+    /**
+     * Names of the levels, indexed by level
+     */
+    private static final String[] LEVEL_NAMES = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR"};
+
+    /**
+     * Number of entries the ring holds, a power of two
+     */
+    private static final int RING_SIZE = 8192;
+
+    /**
+     * Time the flusher sleeps for when the ring is empty
+     */
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Current level, entries below it are not logged. Per message logging is at DEBUG and so off by default.
+     */
+    private static volatile int level = INFO;
+
+    /**
+     * Ring of entries. A slot's sequence tells whether it is free for a producer or ready for the flusher.
+     */
+    private static final AtomicLongArray sequences = new AtomicLongArray(RING_SIZE);
+    private static final int[] levels = new int[RING_SIZE];
+    private static final long[] timestamps = new long[RING_SIZE];
+    private static final String[] threadNames = new String[RING_SIZE];
+    private static final String[] messages = new String[RING_SIZE];
+
+    /**
+     * Next position a producer will claim
+     */
+    private static final AtomicLong claimPosition = new AtomicLong();
+
+    /**
+     * Next position the flusher will write out, only touched by the flusher
+     */
+    private static long flushPosition;
+
+    /**
+     * Count of the entries dropped because the ring was full
+     */
+    private static final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Background thread writing the entries out
+     */
+    private static final Thread flusher;
+
+    static
+    {
+        for (int i = 0; i < RING_SIZE; ++i)
+            sequences.set(i, i);
+
+        flusher = new Thread("LogFlusher")
+        {
+            @Override
+            public void run()
+            {
+                flushLoop();
+            }
+        };
+
+        flusher.setDaemon(true);
+        flusher.start();
+
+        // write out whatever is left when the process exits
+        Runtime.getRuntime().addShutdownHook(new Thread()
+        {
+            @Override
+            public void run()
+            {
+                flusher.interrupt();
+
+                try
+                {
+                    flusher.join(1000);
+                }
+                catch (InterruptedException ie)
+                {
+                    // exiting anyway
+                }
+            }
+        });
+    }
+
+
+    private Log()
+    {
+
+    }
+
+    /**
+     * Method to parse a level name, as given on the command line
+     *
+     * @param name <code>String</code> of the level name, case insensitive.
+     * @return <code>int</code> of the level.
+     * @throws IllegalArgumentException if the name is not a level.
+     */
+    public static int parseLevel(String name)
+    {
+        for (int i = 0; i < LEVEL_NAMES.length; ++i)
+        {
+            if (LEVEL_NAMES[i].equalsIgnoreCase(name))
+                return i;
+        }
+
+        if (name.equalsIgnoreCase("OFF"))
+            return OFF;
+
+        throw new IllegalArgumentException("Unknown log level: " + name);
+    }
+
+    /**
+     * Mutator for the current log level
+     *
+     * @param newLevel <code>int</code> of the level, entries below it are not logged.
+     */
+    public static void setLevel(int newLevel)
+    {
+        level = newLevel;
+    }
+
+    /**
+     * Method to determine if entries of a level are logged
+     *
+     * @param entryLevel <code>int</code> of the level.
+     * @return <code>boolean</code> denoting whether the level is enabled.
+     */
+    public static boolean isEnabled(int entryLevel)
+    {
+        return entryLevel >= level;
+    }
+
+    /**
+     * Method to determine if TRACE entries are logged
+     */
+    public static boolean isTraceEnabled()
+    {
+        return TRACE >= level;
+    }
+
+    /**
+     * Method to determine if DEBUG entries are logged
+     */
+    public static boolean isDebugEnabled()
+    {
+        return DEBUG >= level;
+    }
+
+    /**
+     * Method to determine if INFO entries are logged
+     */
+    public static boolean isInfoEnabled()
+    {
+        return INFO >= level;
+    }
+
+    /**
+     * Method to log a message at TRACE level
+     */
+    public static void trace(String message)
+    {
+        log(TRACE, message);
+    }
+
+    /**
+     * Method to log a message at DEBUG level
+     */
+    public static void debug(String message)
+    {
+        log(DEBUG, message);
+    }
+
+    /**
+     * Method to log a message at INFO level
+     */
+    public static void info(String message)
+    {
+        log(INFO, message);
+    }
+
+    /**
+     * Method to log a message at WARN level
+     */
+    public static void warn(String message)
+    {
+        log(WARN, message);
+    }
+
+    /**
+     * Method to log a message at ERROR level
+     */
+    public static void error(String message)
+    {
+        log(ERROR, message);
+    }
+
+    /**
+     * Method to log a message, if its level is enabled. Never blocks, the message is dropped if the ring is full.
+     *
+     * @param entryLevel <code>int</code> of the level of the message.
+     * @param message    <code>String</code> to be logged.
+     */
+    public static void log(int entryLevel, String message)
+    {
+        if (entryLevel < level)
+            return;
+
+        long position = claimPosition.get();
+
+        while (true)
+        {
+            int index = (int) position & (RING_SIZE - 1);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0)
+            {
+                if (claimPosition.compareAndSet(position, position + 1))
+                {
+                    levels[index] = entryLevel;
+                    timestamps[index] = System.currentTimeMillis();
+                    threadNames[index] = Thread.currentThread().getName();
+                    messages[index] = message;
+
+                    // publish the slot to the flusher
+                    sequences.set(index, position + 1);
+                    return;
+                }
+
+                position = claimPosition.get();
+            }
+            // ELSE IF the flusher has not caught up with this slot yet
+            else if (difference < 0)
+            {
+                dropped.incrementAndGet();
+                return;
+            }
+            else
+                position = claimPosition.get();
+        }
+    }
+
+    /**
+     * Accessor for the number of entries dropped because the ring was full
+     *
+     * @return <code>long</code> of the number of dropped entries.
+     */
+    public static long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Method run by the flusher thread, writing out entries in batches until interrupted.
+     */
+    private static void flushLoop()
+    {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)), 1 << 16);
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        Date date = new Date();
+        StringBuilder line = new StringBuilder(256);
+        long reportedDropped = 0;
+
+        try
+        {
+            while (true)
+            {
+                boolean interrupted = Thread.interrupted();
+                boolean wrote = false;
+
+                int index = (int) flushPosition & (RING_SIZE - 1);
+
+                // WHILE the next slot has been published
+                while (sequences.get(index) == flushPosition + 1)
+                {
+                    date.setTime(timestamps[index]);
+
+                    line.setLength(0);
+                    line.append(timeFormat.format(date)).append(' ')
+                            .append(LEVEL_NAMES[levels[index]]).append(" [")
+                            .append(threadNames[index]).append("] ")
+                            .append(messages[index]).append('\n');
+
+                    messages[index] = null;
+                    threadNames[index] = null;
+
+                    // hand the slot back to the producers of the next lap
+                    sequences.set(index, flushPosition + RING_SIZE);
+                    ++flushPosition;
+
+                    out.append(line);
+                    wrote = true;
+
+                    index = (int) flushPosition & (RING_SIZE - 1);
+                }
+
+                long droppedNow = dropped.get();
+
+                if (droppedNow != reportedDropped)
+                {
+                    out.append("Log: ").append(Long.toString(droppedNow - reportedDropped))
+                            .append(" entries dropped, ring full\n");
+                    reportedDropped = droppedNow;
+                    wrote = true;
+                }
+
+                if (wrote)
+                    out.flush();
+
+                if (interrupted)
+                    return;
+
+                LockSupport.parkNanos(FLUSH_INTERVAL_NANOS);
+            }
+        }
+        catch (IOException ioe)
+        {
+            System.err.println("Log flusher stopped: " + ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package cs455.scaling.utility.metrics;
+
+/**
+ * A HistogramSnapshot class holding a copy of a LatencyHistogram's buckets and answering
+ * questions about the values recorded in it.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class HistogramSnapshot
+{
+    /**
+     * Count of the values in each bucket
+     */
+    private final long[] counts;
+
+    /**
+     * Total number of values
+     */
+    private final long totalCount;
+
+    /**
+     * Largest value recorded by the histogram up to the snapshot
+     */
+    private final long max;
+
+
+    /**
+     * Constructor
+     *
+     * @param counts <code>long[]</code> of the bucket counts, owned by the snapshot from now on.
+     * @param max    <code>long</code> of the largest value recorded.
+     */
+    HistogramSnapshot(long[] counts, long max)
+    {
+        this.counts = counts;
+        this.max = max;
+
+        long total = 0;
+
+        for (long count : counts)
+            total += count;
+
+        totalCount = total;
+    }
+
+    /**
+     * Method to get the values recorded since an earlier snapshot of the same histogram.
+     * The maximum of the result is the overall maximum, not the maximum of the interval.
+     *
+     * @param earlier <code>HistogramSnapshot</code> taken before this one.
+     * @return <code>HistogramSnapshot</code> of the values recorded in between.
+     */
+    public HistogramSnapshot since(HistogramSnapshot earlier)
+    {
+        long[] difference = new long[counts.length];
+
+        for (int i = 0; i < counts.length; ++i)
+            difference[i] = counts[i] - earlier.counts[i];
+
+        return new HistogramSnapshot(difference, max);
+    }
+
+    /**
+     * Accessor for the number of values in the snapshot
+     *
+     * @return <code>long</code> of the number of values.
+     */
+    public long getCount()
+    {
+        return totalCount;
+    }
+
+    /**
+     * Accessor for the largest value recorded
+     *
+     * @return <code>long</code> of the largest value.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Method to get the value below which the given percentage of the values fall. The answer
+     * is the top of the bucket holding that value, so it is at most 1/16th too high.
+     *
+     * @param percentile <code>double</code> between 0 and 100.
+     * @return <code>long</code> of the value at the percentile, 0 if the snapshot is empty.
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if (totalCount == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+
+        if (rank < 1)
+            rank = 1;
+
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; ++i)
+        {
+            seen += counts[i];
+
+            if (seen >= rank)
+                return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+        }
+
+        return max;
+    }
+
+    /**
+     * Method to get the mean of the values, using the top of each bucket
+     *
+     * @return <code>double</code> of the mean, 0 if the snapshot is empty.
+     */
+    public double getMean()
+    {
+        if (totalCount == 0)
+            return 0;
+
+        double sum = 0;
+
+        for (int i = 0; i < counts.length; ++i)
+        {
+            if (counts[i] != 0)
+                sum += (double) counts[i] * LatencyHistogram.bucketUpperBound(i);
+        }
+
+        return sum / totalCount;
+    }
+}
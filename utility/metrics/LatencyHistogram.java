@@ -0,0 +1,120 @@
+package cs455.scaling.utility.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A LatencyHistogram class recording values, typically nanoseconds, into fixed log-linear
+ * buckets: every power of two range is split into 16 equal buckets, which keeps the error
+ * of any reported value under 1/16th across the whole range of a long. Recording is a
+ * couple of atomic increments with no allocation and no lock, so any number of threads
+ * may record at once.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class LatencyHistogram
+{
+    /**
+     * Number of bits of linear resolution within each power of two
+     */
+    static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of linear buckets within each power of two
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Total number of buckets needed to cover every non-negative long
+     */
+    static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * Count of the values recorded in each bucket
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * Largest value recorded
+     */
+    private final AtomicLong max;
+
+
+    /**
+     * Constructor
+     */
+    public LatencyHistogram()
+    {
+        counts = new AtomicLongArray(BUCKET_COUNT);
+        max = new AtomicLong();
+    }
+
+    /**
+     * Method to record a value. Negative values are recorded as 0.
+     *
+     * @param value <code>long</code> to be recorded.
+     */
+    public void record(long value)
+    {
+        if (value < 0)
+            value = 0;
+
+        counts.incrementAndGet(bucketIndex(value));
+
+        long currentMax = max.get();
+
+        while (value > currentMax && !max.compareAndSet(currentMax, value))
+            currentMax = max.get();
+    }
+
+    /**
+     * Method to find the bucket a value falls in
+     *
+     * @param value <code>long</code> non-negative value.
+     * @return <code>int</code> index of the bucket.
+     */
+    static int bucketIndex(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Method to get the highest value that falls in a bucket
+     *
+     * @param index <code>int</code> index of the bucket.
+     * @return <code>long</code> of the highest value of the bucket.
+     */
+    static long bucketUpperBound(int index)
+    {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Method to take a copy of the histogram as it is now. Values recorded while the copy is
+     * taken may or may not be part of it.
+     *
+     * @return <code>HistogramSnapshot</code> of the recorded values.
+     */
+    public HistogramSnapshot snapshot()
+    {
+        long[] copy = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; ++i)
+            copy[i] = counts.get(i);
+
+        return new HistogramSnapshot(copy, max.get());
+    }
+}
@@ -0,0 +1,19 @@
+package cs455.scaling.utility.timer;
+
+/**
+ * A TimeoutHandler interface for whoever drives a TimingWheel to be told of the timers
+ * that have come due.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public interface TimeoutHandler
+{
+    /**
+     * Method called for every timer whose deadline has passed. The timer is no longer
+     * scheduled when this is called, and may be scheduled again from within it.
+     *
+     * @param timer <code>TimingWheel.Timer</code> that came due.
+     * @param now   <code>long</code> System.nanoTime() of the wheel advancing.
+     */
+    public void timedOut(TimingWheel.Timer timer, long now);
+}
@@ -0,0 +1,255 @@
+package cs455.scaling.utility.timer;
+
+/**
+ * A hashed timing wheel: a ring of slots, each a list of the timers due within one tick.
+ * Scheduling, rescheduling and cancelling a timer are O(1) and allocate nothing, as the timers
+ * link themselves into the slots. Timers further out than one turn of the wheel are parked in
+ * the furthest slot and moved on when it comes round. Not thread safe: one thread, such as a
+ * selector thread, owns the wheel.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class TimingWheel
+{
+    /**
+     * A Timer owned by one client of the wheel and scheduled over and over
+     */
+    public static class Timer
+    {
+        /**
+         * Object the timer belongs to
+         */
+        private final Object attachment;
+
+        /**
+         * Neighbours in the slot list, null when not scheduled
+         */
+        private Timer previous;
+        private Timer next;
+
+        /**
+         * System.nanoTime() the timer is due at
+         */
+        private long deadline;
+
+        /**
+         * Constructor
+         *
+         * @param attachment <code>Object</code> the timer belongs to.
+         */
+        public Timer(Object attachment)
+        {
+            this.attachment = attachment;
+        }
+
+        /**
+         * Accessor for the object the timer belongs to
+         *
+         * @return <code>Object</code> given at construction.
+         */
+        public Object getAttachment()
+        {
+            return attachment;
+        }
+
+        /**
+         * Method to determine if the timer is on the wheel
+         *
+         * @return <code>boolean</code> denoting whether the timer is scheduled.
+         */
+        public boolean isScheduled()
+        {
+            return previous != null;
+        }
+    }
+
+    /**
+     * Sentinel heads of the slot lists
+     */
+    private final Timer[] slots;
+
+    /**
+     * Mask used to turn a tick count into a slot index
+     */
+    private final int mask;
+
+    /**
+     * Nanoseconds covered by a slot
+     */
+    private final long tickNanos;
+
+    /**
+     * Index of the slot holding the current tick
+     */
+    private int cursor;
+
+    /**
+     * System.nanoTime() the current tick started at
+     */
+    private long tickStart;
+
+    /**
+     * Number of timers scheduled
+     */
+    private int size;
+
+
+    /**
+     * Constructor
+     *
+     * @param tickNanos <code>long</code> of the nanoseconds covered by a slot.
+     * @param numSlots  <code>int</code> of the number of slots, rounded up to a power of two.
+     * @param now       <code>long</code> System.nanoTime() the wheel starts at.
+     */
+    public TimingWheel(long tickNanos, int numSlots, long now)
+    {
+        int capacity = 2;
+
+        while (capacity < numSlots)
+            capacity <<= 1;
+
+        this.tickNanos = tickNanos;
+        slots = new Timer[capacity];
+        mask = capacity - 1;
+        tickStart = now;
+
+        for (int i = 0; i < capacity; ++i)
+        {
+            Timer head = new Timer(null);
+            head.previous = head;
+            head.next = head;
+
+            slots[i] = head;
+        }
+    }
+
+    /**
+     * Method to schedule a timer, moving it if it is already scheduled
+     *
+     * @param timer    <code>Timer</code> to schedule.
+     * @param deadline <code>long</code> System.nanoTime() the timer is due at.
+     */
+    public void schedule(Timer timer, long deadline)
+    {
+        if (timer.isScheduled())
+            unlink(timer);
+
+        timer.deadline = deadline;
+
+        // a slot is handled once its tick is over, so a timer goes in the slot whose tick ends at or after it
+        long ticks = (deadline - tickStart + tickNanos - 1) / tickNanos;
+
+        // anything already due goes in the next slot, anything past one turn in the last
+        if (ticks < 1)
+            ticks = 1;
+        else if (ticks > mask)
+            ticks = mask;
+
+        Timer head = slots[(cursor + (int) ticks) & mask];
+
+        timer.previous = head.previous;
+        timer.next = head;
+        head.previous.next = timer;
+        head.previous = timer;
+
+        ++size;
+    }
+
+    /**
+     * Method to take a timer off the wheel. Does nothing if it is not scheduled.
+     *
+     * @param timer <code>Timer</code> to cancel.
+     */
+    public void cancel(Timer timer)
+    {
+        if (timer.isScheduled())
+            unlink(timer);
+    }
+
+    /**
+     * Method to take a scheduled timer out of its slot list
+     *
+     * @param timer <code>Timer</code> to unlink.
+     */
+    private void unlink(Timer timer)
+    {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+
+        --size;
+    }
+
+    /**
+     * Method to move the wheel on to the given time, handing every timer that has come due to
+     * the handler. Timers parked for a later turn are scheduled again where they belong.
+     *
+     * @param now     <code>long</code> System.nanoTime() to advance to.
+     * @param handler <code>TimeoutHandler</code> to hand the due timers to.
+     */
+    public void advance(long now, TimeoutHandler handler)
+    {
+        // IF nothing is scheduled there is nothing to step through, however long it has been
+        if (size == 0)
+        {
+            tickStart += (now - tickStart) / tickNanos * tickNanos;
+            return;
+        }
+
+        while (now - tickStart >= tickNanos)
+        {
+            tickStart += tickNanos;
+            cursor = (cursor + 1) & mask;
+
+            Timer head = slots[cursor];
+
+            if (head.next == head)
+                continue;
+
+            // detach the whole slot first, so timers scheduled from the handler cannot land back in it
+            Timer timer = head.next;
+
+            head.previous.next = null;
+            head.next = head;
+            head.previous = head;
+
+            while (timer != null)
+            {
+                Timer next = timer.next;
+
+                timer.previous = null;
+                timer.next = null;
+                --size;
+
+                if (timer.deadline - now <= 0)
+                    handler.timedOut(timer, now);
+                else
+                    schedule(timer, timer.deadline);
+
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Method to get how long until the wheel next needs advancing
+     *
+     * @param now <code>long</code> System.nanoTime() now.
+     * @return <code>long</code> of the nanoseconds until the next tick, at least 0.
+     */
+    public long nanosUntilNextTick(long now)
+    {
+        return Math.max(0, tickStart + tickNanos - now);
+    }
+
+    /**
+     * Method to determine if there are no timers on the wheel
+     *
+     * @return <code>boolean</code> denoting whether the wheel is empty.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+}
@@ -0,0 +1,313 @@
+package cs455.scaling.utility.timer;
+
+import java.util.Random;
+
+/**
+ * A TimingWheelCheck class checking that a TimingWheel fires every timer once, never before its
+ * deadline and no later than the first tick ending at or after it. A timer within one turn of the
+ * wheel fires right on that tick. One parked for a later turn is looked at each time its slot
+ * comes round, so when the wheel jumps past its deadline it may fire before the tick ends.
+ *
+ * @author ahrtmn, 17 10 2026
+ */
+public class TimingWheelCheck
+{
+    /**
+     * Nanoseconds covered by a slot and number of slots of the wheels checked, so one turn is 80
+     */
+    private static final long TICK = 10;
+    private static final int NUM_SLOTS = 8;
+
+
+    /**
+     * Method to get the time a timer scheduled at the start of the wheel should fire at, the end
+     * of the first tick ending at or after its deadline. A timer due already fires on the first tick.
+     *
+     * @param start    <code>long</code> time the wheel started at, on a tick boundary.
+     * @param deadline <code>long</code> time the timer is due at.
+     * @return <code>long</code> of the tick boundary it is due at.
+     */
+    private static long dueTick(long start, long deadline)
+    {
+        long ticks = Math.max(1, (deadline - start + TICK - 1) / TICK);
+
+        return start + ticks * TICK;
+    }
+
+    /**
+     * Method to get the first of the times a wheel is advanced to that is at or after a given one
+     *
+     * @param nows <code>long[]</code> of the increasing times the wheel is advanced to.
+     * @param time <code>long</code> to look for.
+     * @return <code>long</code> of the first of nows at or after time, or -1 if there is none.
+     */
+    private static long firstAtOrAfter(long[] nows, long time)
+    {
+        for (long now : nows)
+        {
+            if (now >= time)
+                return now;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Method to schedule a timer for every deadline on a new wheel, cancel some, then advance the
+     * wheel through the given times, checking each timer fires once, and when it should
+     *
+     * @param deadlines <code>long[]</code> of the deadline of each timer.
+     * @param cancelled <code>boolean[]</code> denoting which timers are cancelled before the wheel moves.
+     * @param nows      <code>long[]</code> of the increasing times to advance the wheel to.
+     * @return <code>String</code> describing the failure, or null if every timer fired as it should.
+     */
+    private static String check(long[] deadlines, boolean[] cancelled, long[] nows)
+    {
+        final long[] firedAt = new long[deadlines.length];
+        final int[] fired = new int[deadlines.length];
+
+        TimingWheel wheel = new TimingWheel(TICK, NUM_SLOTS, 0);
+        TimingWheel.Timer[] timers = new TimingWheel.Timer[deadlines.length];
+
+        for (int i = 0; i < deadlines.length; ++i)
+        {
+            timers[i] = new TimingWheel.Timer(i);
+            wheel.schedule(timers[i], deadlines[i]);
+        }
+
+        for (int i = 0; i < deadlines.length; ++i)
+        {
+            if (cancelled[i])
+                wheel.cancel(timers[i]);
+        }
+
+        TimeoutHandler handler = new TimeoutHandler()
+        {
+            @Override
+            public void timedOut(TimingWheel.Timer timer, long now)
+            {
+                int index = (Integer) timer.getAttachment();
+
+                ++fired[index];
+                firedAt[index] = now;
+            }
+        };
+
+        for (long now : nows)
+            wheel.advance(now, handler);
+
+        for (int i = 0; i < deadlines.length; ++i)
+        {
+            if (cancelled[i])
+            {
+                if (fired[i] > 0)
+                    return "timer due at " + deadlines[i] + " fired after being cancelled";
+
+                continue;
+            }
+
+            if (fired[i] != 1)
+                return "timer due at " + deadlines[i] + " fired " + fired[i] + " times";
+
+            long due = dueTick(0, deadlines[i]);
+            long latest = firstAtOrAfter(nows, due);
+
+            // a timer within the first turn sits in its own slot, so only fires once its tick is over
+            long earliest = due < NUM_SLOTS * TICK ? latest : firstAtOrAfter(nows, deadlines[i]);
+
+            if (firedAt[i] < earliest || firedAt[i] > latest)
+                return "timer due at " + deadlines[i] + " fired at " + firedAt[i] + ", expected "
+                        + (earliest == latest ? "" + latest : "from " + earliest + " to " + latest);
+        }
+
+        if (!wheel.isEmpty())
+            return "the wheel is not empty once every timer has fired";
+
+        return null;
+    }
+
+    /**
+     * Method to get the times from 1 to the given one, to advance a wheel a nanosecond at a time
+     *
+     * @param end <code>long</code> of the last time.
+     * @return <code>long[]</code> of every time up to end.
+     */
+    private static long[] everyNanosecond(long end)
+    {
+        long[] nows = new long[(int) end];
+
+        for (int i = 0; i < nows.length; ++i)
+            nows[i] = i + 1;
+
+        return nows;
+    }
+
+    /**
+     * Method to check timers due within one turn are rounded up to the end of their tick
+     *
+     * @return <code>String</code> describing the failure, or null if they all fired on time.
+     */
+    private static String checkRounding()
+    {
+        long[] deadlines = new long[NUM_SLOTS * (int) TICK + 1];
+
+        for (int i = 0; i < deadlines.length; ++i)
+            deadlines[i] = i;
+
+        return check(deadlines, new boolean[deadlines.length], everyNanosecond(200));
+    }
+
+    /**
+     * Method to check timers further out than one turn are parked and moved on until they are due
+     *
+     * @return <code>String</code> describing the failure, or null if they all fired on time.
+     */
+    private static String checkFarTimers()
+    {
+        long[] deadlines = {71, 79, 80, 81, 100, 159, 555, 1000, 5003};
+
+        return check(deadlines, new boolean[deadlines.length], everyNanosecond(5100));
+    }
+
+    /**
+     * Method to check random timers, some cancelled, with the wheel moved on by random jumps, some
+     * longer than a turn
+     *
+     * @return <code>String</code> describing the failure, or null if they all fired on time.
+     */
+    private static String checkJumps()
+    {
+        Random random = new Random(17);
+        long[] deadlines = new long[500];
+        boolean[] cancelled = new boolean[deadlines.length];
+
+        for (int i = 0; i < deadlines.length; ++i)
+        {
+            deadlines[i] = random.nextInt(3000);
+            cancelled[i] = i % 7 == 0;
+        }
+
+        long[] nows = new long[100];
+        long now = 0;
+
+        for (int i = 0; i < nows.length; ++i)
+        {
+            now += 1 + random.nextInt(150);
+            nows[i] = now;
+        }
+
+        // make sure the last jump gets past every deadline
+        nows[nows.length - 1] = Math.max(now, 3100);
+
+        return check(deadlines, cancelled, nows);
+    }
+
+    /**
+     * Method to check a timer moved to a new deadline fires at the new one only
+     *
+     * @return <code>String</code> describing the failure, or null if it fired at its new deadline.
+     */
+    private static String checkReschedule()
+    {
+        final int[] fired = new int[1];
+        final long[] firedAt = new long[1];
+
+        TimingWheel wheel = new TimingWheel(TICK, NUM_SLOTS, 0);
+        TimingWheel.Timer timer = new TimingWheel.Timer(null);
+
+        TimeoutHandler handler = new TimeoutHandler()
+        {
+            @Override
+            public void timedOut(TimingWheel.Timer timer, long now)
+            {
+                ++fired[0];
+                firedAt[0] = now;
+            }
+        };
+
+        wheel.schedule(timer, 25);
+
+        // on the way, push it out past its first slot and past a turn
+        for (long now = 1; now <= 300; ++now)
+        {
+            if (now == 20)
+                wheel.schedule(timer, 205);
+
+            wheel.advance(now, handler);
+        }
+
+        if (fired[0] != 1 || firedAt[0] != 210)
+            return "rescheduled timer fired " + fired[0] + " times, last at " + firedAt[0] + ", expected once at 210";
+
+        return null;
+    }
+
+    /**
+     * Method to check a wheel left empty for a while lines its ticks up with the time again, so
+     * a timer scheduled after is still rounded to the right tick
+     *
+     * @return <code>String</code> describing the failure, or null if the timers fired on time.
+     */
+    private static String checkIdle()
+    {
+        final long[] firedAt = new long[2];
+
+        TimingWheel wheel = new TimingWheel(TICK, NUM_SLOTS, 0);
+        TimingWheel.Timer near = new TimingWheel.Timer(0);
+        TimingWheel.Timer far = new TimingWheel.Timer(1);
+
+        TimeoutHandler handler = new TimeoutHandler()
+        {
+            @Override
+            public void timedOut(TimingWheel.Timer timer, long now)
+            {
+                firedAt[(Integer) timer.getAttachment()] = now;
+            }
+        };
+
+        // nothing scheduled, so the wheel jumps straight to the tick holding 1005
+        wheel.advance(1005, handler);
+
+        if (wheel.nanosUntilNextTick(1005) != 5)
+            return "idle wheel is " + wheel.nanosUntilNextTick(1005) + " from its next tick at 1005, expected 5";
+
+        wheel.schedule(near, 1001);
+        wheel.schedule(far, 1020);
+
+        for (long now = 1006; now <= 1100; ++now)
+            wheel.advance(now, handler);
+
+        if (firedAt[0] != 1010 || firedAt[1] != 1020)
+            return "timers due at 1001 and 1020 fired at " + firedAt[0] + " and " + firedAt[1]
+                    + ", expected 1010 and 1020";
+
+        return null;
+    }
+
+    /**
+     * main method
+     *
+     * Usage: TimingWheelCheck
+     *
+     * Exits with status 1 if any check failed.
+     *
+     * @param args command line arguments, unused
+     */
+    public static void main(String[] args)
+    {
+        String[] names = {"rounding", "far timers", "jumps", "reschedule", "idle"};
+        String[] failures = {checkRounding(), checkFarTimers(), checkJumps(), checkReschedule(), checkIdle()};
+
+        int numFailed = 0;
+
+        for (int i = 0; i < names.length; ++i)
+        {
+            System.out.println(names[i] + ": " + (failures[i] == null ? "ok" : failures[i]));
+
+            if (failures[i] != null)
+                ++numFailed;
+        }
+
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+}